@@ -1,5 +1,7 @@
 package com.backend.stageconnect.config;
 
+import com.backend.stageconnect.service.MediaFileIndex;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -12,9 +14,15 @@ public class FileStorageConfig implements WebMvcConfigurer {
     
     private final Path uploadDir = Paths.get("uploads");
 
+    @Autowired
+    private MediaFileIndex mediaFileIndex;
+
+    // Same validators and caching policy as PostController.serveFile; Range is handled by the resource handler
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:uploads/");
+                .addResourceLocations("file:uploads/")
+                .setCacheControl(MediaFileIndex.CACHE_CONTROL)
+                .setEtagGenerator(mediaFileIndex::etag);
     }
-} 
\ No newline at end of file
+} 
@@ -0,0 +1,36 @@
+package com.backend.stageconnect.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Resets the per-thread query counter at the start of each request and logs
+ * how many statements the request issued, so N+1 regressions show up under load.
+ */
+@Slf4j
+@Component
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Query-Count";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryCountInspector.reset();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (log.isDebugEnabled()) {
+                log.debug("{} {} issued {} queries", request.getMethod(), request.getRequestURI(), QueryCountInspector.current());
+            }
+            QueryCountInspector.clear();
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.backend.stageconnect.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -10,11 +13,49 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    // simple: in-memory broker, single node
+    // relay: external STOMP broker shared by all nodes
+    // bus: in-memory broker per node, user frames routed between nodes by ChatRouter
+    @Value("${app.chat.broker:simple}")
+    private String broker;
+
+    @Value("${app.chat.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${app.chat.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${app.chat.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${app.chat.relay.passcode:guest}")
+    private String relayPasscode;
+
+    // Same switch that moves Tomcat and scheduled jobs onto virtual threads
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable a simple memory-based message broker to send messages to clients
-        // on destinations prefixed with /topic
-        config.enableSimpleBroker("/topic");
+        if ("relay".equalsIgnoreCase(broker)) {
+            // Relay /topic destinations to an external STOMP broker so every node sees every frame
+            config.enableStompBrokerRelay("/topic")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode);
+        } else {
+            // Enable a simple memory-based message broker to send messages to clients
+            // on destinations prefixed with /topic
+            config.enableSimpleBroker("/topic");
+        }
+        
+        // With a thread per message, keep frames to each session in the order they were sent
+        if (virtualThreads) {
+            config.setPreservePublishOrder(true);
+        }
         
         // Messages from clients with destination prefixed with /app will be routed
         // to message-handling methods in controllers
@@ -29,5 +70,26 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOrigins("http://localhost:5173", "http://localhost:3000", 
                                    "http://127.0.0.1:5173", "http://127.0.0.1:3000")
                 .withSockJS(); // Fallback options for browsers that don't support WebSocket
+
+        // With a thread per frame, handle frames from each session in the order they arrived,
+        // so messages of a conversation and typing start/stop pairs are not reordered
+        if (virtualThreads) {
+            registry.setPreserveReceiveOrder(true);
+        }
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Inbound handlers block on JDBC, so in virtual-thread mode each frame gets its own virtual thread
+        if (virtualThreads) {
+            registration.executor(new VirtualThreadTaskExecutor("stomp-inbound-"));
+        }
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        if (virtualThreads) {
+            registration.executor(new VirtualThreadTaskExecutor("stomp-outbound-"));
+        }
     }
 } 
\ No newline at end of file
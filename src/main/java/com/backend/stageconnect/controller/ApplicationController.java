@@ -5,10 +5,14 @@ import com.backend.stageconnect.entity.Application;
 import com.backend.stageconnect.entity.Internship;
 import com.backend.stageconnect.entity.User;
 import com.backend.stageconnect.entity.Candidate;
+import com.backend.stageconnect.model.Cursor;
+import com.backend.stageconnect.model.CursorPage;
 import com.backend.stageconnect.repository.ApplicationRepository;
 import com.backend.stageconnect.repository.InternshipRepository;
 import com.backend.stageconnect.repository.UserRepository;
+import com.backend.stageconnect.service.ApplicationIntakeService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -42,6 +46,9 @@ public class ApplicationController {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private ApplicationIntakeService applicationIntakeService;
+    
     // Submit an application for an internship
     @PostMapping("/internships/{internshipId}")
     public ResponseEntity<?> submitApplication(
@@ -72,14 +79,6 @@ public class ApplicationController {
                 ));
             }
             
-            // Check if the user has already applied to this internship
-            if (applicationRepository.existsByInternshipIdAndApplicantId(internshipId, userId)) {
-                return ResponseEntity.badRequest().body(Map.of(
-                    "success", false,
-                    "message", "You have already applied to this internship"
-                ));
-            }
-            
             // Create new application
             Application application = new Application();
             application.setInternship(internship);
@@ -108,18 +107,25 @@ public class ApplicationController {
                 application.setQuestionAnswers(answers);
             }
             
-            // Save the application
-            Application savedApplication = applicationRepository.save(application);
-            
-            // Update the internship applicant count
-            internship.setApplicantsCount(internship.getApplicantsCount() + 1);
-            internshipRepository.save(internship);
+            // Save the application and count it; the unique constraint rejects a second application
+            Application savedApplication = applicationIntakeService.submit(application);
             
             return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
                 "success", true,
                 "message", "Application submitted successfully",
                 "data", ApplicationDTO.fromEntityForApplicant(savedApplication)
             ));
+        } catch (DataIntegrityViolationException e) {
+            if (!applicationIntakeService.isDuplicateApplication(e)) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                    "success", false,
+                    "message", "Failed to submit application: " + e.getMessage()
+                ));
+            }
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "You have already applied to this internship"
+            ));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
                 "success", false,
@@ -132,6 +138,7 @@ public class ApplicationController {
     @GetMapping("/internships/{internshipId}")
     public ResponseEntity<?> getInternshipApplications(
             @PathVariable Long internshipId,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String status) {
@@ -145,25 +152,38 @@ public class ApplicationController {
                 ));
             }
             
-            Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-            Page<Application> applicationsPage;
-            
-            // Filter by status if provided
+            // Parse the status filter if provided
+            Application.ApplicationStatus statusEnum = null;
             if (status != null && !status.isEmpty()) {
                 try {
-                    Application.ApplicationStatus statusEnum = Application.ApplicationStatus.valueOf(status.toUpperCase());
-                    applicationsPage = applicationRepository.findByInternshipIdAndStatus(internshipId, statusEnum, pageable);
+                    statusEnum = Application.ApplicationStatus.valueOf(status.toUpperCase());
                 } catch (IllegalArgumentException e) {
                     return ResponseEntity.badRequest().body(Map.of(
                         "success", false,
                         "message", "Invalid status value: " + status
                     ));
                 }
+            }
+            
+            Page<Application> applicationsPage = null;
+            CursorPage<Application> slice = null;
+            
+            if (cursor != null) {
+                // Keyset paging when the client opts in with a cursor (blank for the first page)
+                Cursor position = Cursor.decodeOrFirst(cursor);
+                slice = CursorPage.of(
+                        applicationRepository.findByInternshipIdBefore(internshipId, statusEnum,
+                                position.getCreatedAt(), position.getId(), PageRequest.of(0, size + 1)),
+                        size, application -> new Cursor(application.getCreatedAt(), application.getId()));
             } else {
-                applicationsPage = applicationRepository.findByInternshipId(internshipId, pageable);
+                Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+                applicationsPage = statusEnum != null
+                        ? applicationRepository.findByInternshipIdAndStatus(internshipId, statusEnum, pageable)
+                        : applicationRepository.findByInternshipId(internshipId, pageable);
             }
             
-            List<ApplicationDTO> applications = applicationsPage.getContent().stream()
+            List<Application> rows = slice != null ? slice.getItems() : applicationsPage.getContent();
+            List<ApplicationDTO> applications = rows.stream()
                     .map(application -> {
                         ApplicationDTO dto = ApplicationDTO.fromEntity(application);
                         
@@ -206,11 +226,21 @@ public class ApplicationController {
             
             Map<String, Object> response = new HashMap<>();
             response.put("content", applications);
-            response.put("currentPage", applicationsPage.getNumber());
-            response.put("totalItems", applicationsPage.getTotalElements());
-            response.put("totalPages", applicationsPage.getTotalPages());
+            if (slice != null) {
+                response.put("nextCursor", slice.getNextCursor());
+                response.put("hasMore", slice.isHasMore());
+            } else {
+                response.put("currentPage", applicationsPage.getNumber());
+                response.put("totalItems", applicationsPage.getTotalElements());
+                response.put("totalPages", applicationsPage.getTotalPages());
+            }
             
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
                 "success", false,
@@ -223,6 +253,7 @@ public class ApplicationController {
     @GetMapping("/user/{userId}")
     public ResponseEntity<?> getUserApplications(
             @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         
@@ -235,6 +266,23 @@ public class ApplicationController {
                 ));
             }
             
+            // Keyset paging when the client opts in with a cursor (blank for the first page)
+            if (cursor != null) {
+                Cursor position = Cursor.decodeOrFirst(cursor);
+                CursorPage<Application> slice = CursorPage.of(
+                        applicationRepository.findByApplicantIdBefore(userId,
+                                position.getCreatedAt(), position.getId(), PageRequest.of(0, size + 1)),
+                        size, application -> new Cursor(application.getCreatedAt(), application.getId()));
+                
+                Map<String, Object> response = new HashMap<>();
+                response.put("applications", slice.getItems().stream()
+                        .map(ApplicationDTO::fromEntityForApplicant)
+                        .collect(Collectors.toList()));
+                response.put("nextCursor", slice.getNextCursor());
+                response.put("hasMore", slice.isHasMore());
+                return ResponseEntity.ok(response);
+            }
+            
             Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
             Page<Application> applicationsPage = applicationRepository.findByApplicantId(userId, pageable);
             
@@ -249,6 +297,11 @@ public class ApplicationController {
             response.put("totalPages", applicationsPage.getTotalPages());
             
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
                 "success", false,
@@ -336,6 +389,7 @@ public class ApplicationController {
             
             return applicationRepository.findById(applicationId)
                     .map(application -> {
+                        Application.ApplicationStatus previousStatus = application.getStatus();
                         application.setStatus(newStatus);
                         
                         // If feedback is provided, update it
@@ -364,7 +418,7 @@ public class ApplicationController {
                             }
                         }
                         
-                        Application updatedApplication = applicationRepository.save(application);
+                        Application updatedApplication = applicationIntakeService.update(application, previousStatus);
                         
                         return ResponseEntity.ok(Map.of(
                             "success", true,
@@ -387,17 +441,8 @@ public class ApplicationController {
         try {
             return applicationRepository.findById(applicationId)
                     .map(application -> {
-                        // Get the internship to update its applicant count
-                        Internship internship = application.getInternship();
-                        
-                        // Delete the application
-                        applicationRepository.delete(application);
-                        
-                        // Update internship applicant count
-                        if (internship != null) {
-                            internship.setApplicantsCount(Math.max(0, internship.getApplicantsCount() - 1));
-                            internshipRepository.save(internship);
-                        }
+                        // Delete the application and take it off the internship's counters
+                        applicationIntakeService.withdraw(application);
                         
                         return ResponseEntity.ok(Map.of(
                             "success", true,
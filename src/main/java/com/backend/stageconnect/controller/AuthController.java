@@ -9,7 +9,9 @@ import com.backend.stageconnect.repository.CandidateRepository;
 import com.backend.stageconnect.repository.CompanyRepository;
 import com.backend.stageconnect.repository.ResponsibleRepository;
 import com.backend.stageconnect.repository.UserRepository;
+import com.backend.stageconnect.security.JwtPrincipal;
 import com.backend.stageconnect.security.JwtService;
+import com.backend.stageconnect.service.LoginService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -20,7 +22,8 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
-import io.jsonwebtoken.Claims;
+import java.util.concurrent.RejectedExecutionException;
+import io.jsonwebtoken.JwtException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -44,6 +47,9 @@ public class AuthController {
     @Autowired
     private JwtService jwtService;
     
+    @Autowired
+    private LoginService loginService;
+    
     @Autowired
     private ObjectMapper objectMapper;
     
@@ -231,8 +237,8 @@ public class AuthController {
                 return ResponseEntity.badRequest().body(response);
             }
             
-            // Find user by email
-            Optional<User> userOpt = userRepository.findByEmail(email);
+            // Load the user as its concrete type and check the password on the hashing pool
+            Optional<User> userOpt = loginService.authenticate(email, password);
             if (userOpt.isEmpty()) {
                 response.put("success", false);
                 response.put("message", "Invalid email or password");
@@ -241,50 +247,29 @@ public class AuthController {
             
             User user = userOpt.get();
             
-            // Check password
-            if (!passwordEncoder.matches(password, user.getPassword())) {
-                response.put("success", false);
-                response.put("message", "Invalid email or password");
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
-            }
-            
             // Generate JWT token
             String jwtToken = jwtService.generateToken(user);
             
             // Return user-specific information based on user type
-            if (user.getUserType() == UserType.CANDIDATE) {
-                Optional<Candidate> candidateOpt = candidateRepository.findByEmail(email);
-                if (candidateOpt.isPresent()) {
-                    Candidate candidate = candidateOpt.get();
-                    response.put("success", true);
-                    response.put("message", "Login successful");
-                    response.put("token", jwtToken);
-                    response.put("id", candidate.getId());
-                    response.put("firstName", candidate.getFirstName());
-                    response.put("lastName", candidate.getLastName());
-                    response.put("email", candidate.getEmail());
-                    response.put("userType", "student"); // Map to frontend role
-                    response.put("profile", candidate);
-                }
-            } else if (user.getUserType() == UserType.RESPONSIBLE) {
-                Optional<Responsible> responsibleOpt = responsibleRepository.findByEmail(email);
-                if (responsibleOpt.isPresent()) {
-                    Responsible responsible = responsibleOpt.get();
-                    
-                    // Use the custom response mapper for responsible users
-                    response = createResponsibleResponse(responsible, jwtToken);
-                    
-                    // Add company info
-                    if (responsible.getCompany() != null) {
-                        response.put("companyId", responsible.getCompany().getId());
-                        response.put("companyName", responsible.getCompany().getName());
-                    }
-                    
-                    // Add company_id from token claims
-                    Claims claims = jwtService.extractAllClaims(jwtToken);
-                    if (claims.containsKey("company_id")) {
-                        response.put("company_id", claims.get("company_id"));
-                    }
+            if (user instanceof Candidate candidate) {
+                response.put("success", true);
+                response.put("message", "Login successful");
+                response.put("token", jwtToken);
+                response.put("id", candidate.getId());
+                response.put("firstName", candidate.getFirstName());
+                response.put("lastName", candidate.getLastName());
+                response.put("email", candidate.getEmail());
+                response.put("userType", "student"); // Map to frontend role
+                response.put("profile", candidate);
+            } else if (user instanceof Responsible responsible) {
+                // Use the custom response mapper for responsible users
+                response = createResponsibleResponse(responsible, jwtToken);
+                
+                // Add company info (company_id is the same value the token carries)
+                if (responsible.getCompany() != null) {
+                    response.put("companyId", responsible.getCompany().getId());
+                    response.put("companyName", responsible.getCompany().getName());
+                    response.put("company_id", responsible.getCompany().getId());
                 }
             } else {
                 response.put("success", false);
@@ -293,6 +278,10 @@ public class AuthController {
             }
             
             return ResponseEntity.ok(response);
+        } catch (RejectedExecutionException e) {
+            response.put("success", false);
+            response.put("message", "Too many login attempts right now, please try again shortly");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
         } catch (Exception e) {
             response.put("success", false);
             response.put("message", "Login failed: " + e.getMessage());
@@ -326,70 +315,73 @@ public class AuthController {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
             }
             
-            String userEmail = jwtService.extractUsername(jwt);
+            // Verify the token once; the user type and company come from its claims
+            JwtPrincipal principal;
+            try {
+                principal = jwtService.extractPrincipal(jwt);
+            } catch (JwtException | IllegalArgumentException e) {
+                // Blank or malformed input is rejected like any other invalid token
+                principal = null;
+            }
             
-            if (userEmail != null) {
-                Optional<User> userOpt = userRepository.findByEmail(userEmail);
+            if (principal != null && principal.getId() != null && principal.getUserType() != null) {
+                String userEmail = principal.getEmail();
                 
-                if (userOpt.isPresent() && jwtService.isTokenValid(jwt, userOpt.get())) {
-                    User user = userOpt.get();
-                    
-                    // Map backend UserType to frontend role consistently
-                    if (user.getUserType() == UserType.CANDIDATE) {
-                        Optional<Candidate> candidateOpt = candidateRepository.findByEmail(userEmail);
-                        if (candidateOpt.isPresent()) {
-                            Candidate candidate = candidateOpt.get();
-                            
-                            response.put("success", true);
-                            response.put("message", "Token is valid");
-                            response.put("id", candidate.getId());
-                            response.put("email", candidate.getEmail());
-                            response.put("firstName", candidate.getFirstName());
-                            response.put("lastName", candidate.getLastName());
-                            response.put("userType", "student");
-                            response.put("profile", candidate);
-                        }
-                    } else if (user.getUserType() == UserType.RESPONSIBLE) {
-                        Optional<Responsible> responsibleOpt = responsibleRepository.findByEmail(userEmail);
-                        if (responsibleOpt.isPresent()) {
-                            Responsible responsible = responsibleOpt.get();
-                            
-                            // Use the custom response mapper for responsible users
-                            response = createResponsibleResponse(responsible, jwt);
-                            response.put("message", "Token is valid");
-                            
-                            // Add company info
-                            if (responsible.getCompany() != null) {
-                                response.put("companyId", responsible.getCompany().getId());
-                                response.put("companyName", responsible.getCompany().getName());
-                            }
-                            
-                            // Add company_id from token claims
-                            Claims claims = jwtService.extractAllClaims(jwt);
-                            if (claims.containsKey("company_id")) {
-                                response.put("company_id", claims.get("company_id"));
-                            }
-                        }
-                    } else if (user.getUserType() == UserType.ADMIN) {
+                // Map backend UserType to frontend role consistently, loading only the matching profile
+                if (principal.getUserType() == UserType.CANDIDATE) {
+                    Optional<Candidate> candidateOpt = candidateRepository.findById(principal.getId())
+                            .filter(candidate -> candidate.getEmail().equals(userEmail));
+                    if (candidateOpt.isPresent()) {
+                        Candidate candidate = candidateOpt.get();
+                        
                         response.put("success", true);
                         response.put("message", "Token is valid");
-                        response.put("id", user.getId());
-                        response.put("email", user.getEmail());
-                        response.put("firstName", user.getFirstName());
-                        response.put("lastName", user.getLastName());
-                        response.put("userType", "admin");
-                    } else {
-                        // Default fallback
+                        response.put("id", candidate.getId());
+                        response.put("email", candidate.getEmail());
+                        response.put("firstName", candidate.getFirstName());
+                        response.put("lastName", candidate.getLastName());
+                        response.put("userType", "student");
+                        response.put("profile", candidate);
+                        return ResponseEntity.ok(response);
+                    }
+                } else if (principal.getUserType() == UserType.RESPONSIBLE) {
+                    Optional<Responsible> responsibleOpt = responsibleRepository.findById(principal.getId())
+                            .filter(responsible -> responsible.getEmail().equals(userEmail));
+                    if (responsibleOpt.isPresent()) {
+                        Responsible responsible = responsibleOpt.get();
+                        
+                        // Use the custom response mapper for responsible users
+                        response = createResponsibleResponse(responsible, jwt);
+                        response.put("message", "Token is valid");
+                        
+                        // Add company info
+                        if (responsible.getCompany() != null) {
+                            response.put("companyId", responsible.getCompany().getId());
+                            response.put("companyName", responsible.getCompany().getName());
+                        }
+                        
+                        // Add company_id from token claims
+                        if (principal.getCompanyId() != null) {
+                            response.put("company_id", principal.getCompanyId());
+                        }
+                        return ResponseEntity.ok(response);
+                    }
+                } else {
+                    Optional<User> userOpt = userRepository.findById(principal.getId())
+                            .filter(user -> user.getEmail().equals(userEmail));
+                    if (userOpt.isPresent()) {
+                        User user = userOpt.get();
+                        
                         response.put("success", true);
                         response.put("message", "Token is valid");
                         response.put("id", user.getId());
                         response.put("email", user.getEmail());
                         response.put("firstName", user.getFirstName());
                         response.put("lastName", user.getLastName());
-                        response.put("userType", user.getUserType().toString().toLowerCase());
+                        response.put("userType", user.getUserType() == UserType.ADMIN
+                                ? "admin" : user.getUserType().toString().toLowerCase());
+                        return ResponseEntity.ok(response);
                     }
-                    
-                    return ResponseEntity.ok(response);
                 }
             }
             
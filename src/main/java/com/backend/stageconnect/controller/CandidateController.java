@@ -4,21 +4,28 @@ import com.backend.stageconnect.dto.EducationDTO;
 import com.backend.stageconnect.dto.CertificationDTO;
 import com.backend.stageconnect.dto.ExperienceDTO;
 import com.backend.stageconnect.dto.CandidateDTO;
+import com.backend.stageconnect.dto.CandidateListing;
 import com.backend.stageconnect.entity.Candidate;
 import com.backend.stageconnect.entity.UserType;
+import com.backend.stageconnect.model.Cursor;
+import com.backend.stageconnect.model.CursorPage;
 import com.backend.stageconnect.repository.CandidateRepository;
 import com.backend.stageconnect.repository.UserRepository;
 import com.backend.stageconnect.security.JwtService;
+import com.backend.stageconnect.service.DirectoryService;
 import com.backend.stageconnect.service.FileStorageService;
+import com.backend.stageconnect.service.UserCardCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
@@ -33,9 +40,6 @@ import java.util.stream.Collectors;
 public class CandidateController {
     private static final Logger logger = LoggerFactory.getLogger(CandidateController.class);
 
-    @Value("${app.base-url:http://localhost:8080}")
-    private String baseUrl;
-
     @Autowired
     private CandidateRepository candidateRepository;
     
@@ -50,6 +54,12 @@ public class CandidateController {
 
     @Autowired
     private FileStorageService fileStorageService;
+
+    @Autowired
+    private UserCardCache userCardCache;
+
+    @Autowired
+    private DirectoryService directoryService;
     
     @PostMapping("/register")
     public ResponseEntity<Map<String, Object>> register(@RequestBody Candidate candidate) {
@@ -177,33 +187,61 @@ public class CandidateController {
         }
     }
 
+    // Every candidate as a JSON array, streamed from the database row by row
     @GetMapping
-    public ResponseEntity<?> getAllCandidates() {
-        var candidates = candidateRepository.findAll();
-        var response = candidates.stream().map(candidate -> {
-            Map<String, Object> candidateMap = new HashMap<>();
-            candidate.setPassword(null); // Don't return password
-            
-            candidateMap.put("id", candidate.getId());
-            candidateMap.put("firstName", candidate.getFirstName());
-            candidateMap.put("lastName", candidate.getLastName());
-            candidateMap.put("email", candidate.getEmail());
-            candidateMap.put("phone", candidate.getPhone());
-            candidateMap.put("location", candidate.getLocation());
-            candidateMap.put("title", candidate.getTitle());
-            candidateMap.put("website", candidate.getWebsite());
-            candidateMap.put("companyOrUniversity", candidate.getCompanyOrUniversity());
-            candidateMap.put("about", candidate.getAbout());
-            
-            // Add complete photo URL if photo exists
-            if (candidate.getPhoto() != null) {
-                candidateMap.put("photo", baseUrl + candidate.getPhoto());
-            }
-            
-            return candidateMap;
-        }).toList();
-        
-        return ResponseEntity.ok(response);
+    public ResponseEntity<StreamingResponseBody> getAllCandidates() {
+        StreamingResponseBody body = directoryService.candidateStream(false);
+        if (body == null) {
+            return tooManyStreams();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    // Candidates one page at a time (blank cursor for the first page)
+    @GetMapping(params = "cursor")
+    public ResponseEntity<?> getCandidatesPage(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            CursorPage<CandidateListing> page = directoryService.candidates(Cursor.decode(cursor), size);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("candidates", page.getItems());
+            response.put("nextCursor", page.getNextCursor());
+            response.put("hasMore", page.isHasMore());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                "success", false,
+                "message", "Failed to fetch candidates: " + e.getMessage()
+            ));
+        }
+    }
+
+    // Every candidate as newline-delimited JSON, one object per line
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamCandidates() {
+        StreamingResponseBody body = directoryService.candidateStream(true);
+        if (body == null) {
+            return tooManyStreams();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // Full listings hold a database connection while they are written; over the limit the client retries later
+    private static ResponseEntity<StreamingResponseBody> tooManyStreams() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .build();
     }
 
     @PutMapping("/{id}")
@@ -247,6 +285,7 @@ public class CandidateController {
         
         // Save and return updated candidate without password
         Candidate saved = candidateRepository.save(candidate);
+        userCardCache.evict(id);
         saved.setPassword(null);
         return ResponseEntity.ok(saved);
     }
@@ -271,6 +310,7 @@ public class CandidateController {
         }
 
         candidateRepository.deleteById(id);
+        userCardCache.evict(id);
         return ResponseEntity.noContent().build();
     }
 } 
\ No newline at end of file
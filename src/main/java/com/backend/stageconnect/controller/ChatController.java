@@ -2,35 +2,42 @@ package com.backend.stageconnect.controller;
 
 import com.backend.stageconnect.dto.MessageDTO;
 import com.backend.stageconnect.entity.Message;
-import com.backend.stageconnect.entity.User;
 import com.backend.stageconnect.model.ChatMessage;
-import com.backend.stageconnect.repository.MessageRepository;
-import com.backend.stageconnect.repository.UserRepository;
+import com.backend.stageconnect.service.ChatPersistencePipeline;
+import com.backend.stageconnect.service.ChatRouter;
+import com.backend.stageconnect.service.ConversationService;
+import com.backend.stageconnect.service.PresenceService;
+import com.backend.stageconnect.service.TypingCoalescer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 
 @Controller
 public class ChatController {
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private ChatRouter chatRouter;
     
     @Autowired
-    private MessageRepository messageRepository;
+    private ConversationService conversationService;
     
     @Autowired
-    private UserRepository userRepository;
+    private PresenceService presenceService;
+    
+    @Autowired
+    private TypingCoalescer typingCoalescer;
+    
+    @Autowired
+    private ChatPersistencePipeline chatPersistencePipeline;
     
     // Handle chat messages sent from the client
     @MessageMapping("/chat.sendMessage")
     public void sendMessage(@Payload ChatMessage chatMessage) {
         try {
-            // Generate conversation ID if not provided
-            if (chatMessage.getConversationId() == null) {
+            // The conversation ID always follows from the two participants; a client-supplied one is ignored
+            if (chatMessage.getSenderId() != null && chatMessage.getReceiverId() != null) {
                 chatMessage.setConversationId(Message.generateConversationId(
                     chatMessage.getSenderId(), chatMessage.getReceiverId()));
             }
@@ -40,40 +47,25 @@ public class ChatController {
                 chatMessage.setTimestamp(java.time.LocalDateTime.now());
             }
             
-            // Save the message to database if it's a CHAT type
-            if (chatMessage.getType() == ChatMessage.MessageType.CHAT) {
-                // Find sender and receiver
-                User sender = userRepository.findById(chatMessage.getSenderId()).orElse(null);
-                User receiver = userRepository.findById(chatMessage.getReceiverId()).orElse(null);
-                
-                if (sender != null && receiver != null) {
-                    // Create and save the message entity
-                    Message message = new Message();
-                    message.setSender(sender);
-                    message.setReceiver(receiver);
-                    message.setContent(chatMessage.getContent());
-                    message.setRead(false);
-                    message.setConversationId(chatMessage.getConversationId());
-                    
-                    Message savedMessage = messageRepository.save(message);
-                    
-                    // Update chat message with the database ID
-                    chatMessage.setContent(savedMessage.getContent());
-                }
-            }
+            // The message ends the sender's typing indicator
+            typingCoalescer.onMessageSent(chatMessage.getSenderId(), chatMessage.getReceiverId());
             
             // Send the message to the specific user's topic
-            // This will send to both users in the conversation
-            messagingTemplate.convertAndSend(
-                "/topic/user/" + chatMessage.getReceiverId(),
-                chatMessage
-            );
+            // This will send to both users in the conversation, and to the sender for confirmation
+            Runnable broadcast = () -> {
+                chatRouter.sendToUser(chatMessage.getReceiverId(), chatMessage);
+                chatRouter.sendToUser(chatMessage.getSenderId(), chatMessage);
+            };
+            
+            if (chatMessage.getType() != ChatMessage.MessageType.CHAT) {
+                broadcast.run();
+                return;
+            }
             
-            // Also send to sender for confirmation (optional, depending on how your client works)
-            messagingTemplate.convertAndSend(
-                "/topic/user/" + chatMessage.getSenderId(),
-                chatMessage
-            );
+            // CHAT messages are broadcast with a pending ID right away and stored in the background;
+            // the sender and receiver get an ACK with the database ID once the message is committed,
+            // and the sender gets a NACK with the pending ID if it is invalid or cannot be queued
+            chatPersistencePipeline.submit(chatMessage, broadcast);
             
         } catch (Exception e) {
             e.printStackTrace();
@@ -84,21 +76,19 @@ public class ChatController {
     // Handle user join events (when a user connects to the WebSocket)
     @MessageMapping("/chat.join")
     public void addUser(@Payload ChatMessage chatMessage, SimpMessageHeaderAccessor headerAccessor) {
-        // Add user to the WebSocket session
-        headerAccessor.getSessionAttributes().put("USER_ID", chatMessage.getSenderId());
-        
-        // You may want to broadcast to connected users (friends/connections) that this user is online
-        messagingTemplate.convertAndSend("/topic/public", chatMessage);
+        // Add user to the WebSocket session and register the session once;
+        // presence announces the JOIN to the user's connections and conversation partners
+        Object previous = headerAccessor.getSessionAttributes().put("USER_ID", chatMessage.getSenderId());
+        if (previous == null) {
+            presenceService.connect(chatMessage.getSenderId(), headerAccessor.getSessionId());
+        }
     }
     
     // Handle typing indicators
     @MessageMapping("/chat.typing")
     public void typing(@Payload ChatMessage chatMessage) {
-        // Forward typing status to the receiver
-        messagingTemplate.convertAndSend(
-            "/topic/user/" + chatMessage.getReceiverId(),
-            chatMessage
-        );
+        // Forward only start/stop transitions to the receiver, repeated keystroke frames are dropped
+        typingCoalescer.onTyping(chatMessage);
     }
     
     // Handle read receipts
@@ -106,30 +96,15 @@ public class ChatController {
     public void markAsRead(@Payload ChatMessage chatMessage) {
         try {
             // Update read status in database
-            if (chatMessage.getConversationId() != null) {
-                // Find unread messages from sender to receiver in this conversation
-                String[] userIds = chatMessage.getConversationId().split("_");
-                if (userIds.length == 2) {
-                    Long userId1 = Long.parseLong(userIds[0]);
-                    Long userId2 = Long.parseLong(userIds[1]);
-                    
-                    // Get messages between the two users
-                    messageRepository.findMessagesBetweenUsers(userId1, userId2).stream()
-                        .filter(m -> m.getSender().getId().equals(chatMessage.getSenderId()) && 
-                               m.getReceiver().getId().equals(chatMessage.getReceiverId()) &&
-                               !m.isRead())
-                        .forEach(m -> {
-                            m.setRead(true);
-                            messageRepository.save(m);
-                        });
-                }
+            if (chatMessage.getConversationId() != null && chatMessage.getConversationId().split("_").length == 2) {
+                // Mark what the receiver got in this conversation as read, up to the optional messageId watermark
+                int readCount = conversationService.markRead(
+                    chatMessage.getConversationId(), chatMessage.getReceiverId(), chatMessage.getMessageId());
+                chatMessage.setReadCount(readCount);
             }
             
             // Notify sender that messages have been read
-            messagingTemplate.convertAndSend(
-                "/topic/user/" + chatMessage.getSenderId(),
-                chatMessage
-            );
+            chatRouter.sendToUser(chatMessage.getSenderId(), chatMessage);
         } catch (Exception e) {
             e.printStackTrace();
         }
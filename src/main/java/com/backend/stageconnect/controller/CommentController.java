@@ -4,9 +4,14 @@ import com.backend.stageconnect.dto.CommentDTO;
 import com.backend.stageconnect.entity.Comment;
 import com.backend.stageconnect.entity.Post;
 import com.backend.stageconnect.entity.User;
+import com.backend.stageconnect.model.Cursor;
+import com.backend.stageconnect.model.CursorPage;
 import com.backend.stageconnect.repository.CommentRepository;
 import com.backend.stageconnect.repository.PostRepository;
 import com.backend.stageconnect.repository.UserRepository;
+import com.backend.stageconnect.service.CommentThreadService;
+import com.backend.stageconnect.service.EngagementCounterService;
+import com.backend.stageconnect.service.UserCardCache;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -43,10 +48,20 @@ public class CommentController {
     @Autowired
     private UserRepository userRepository;
     
+    @Autowired
+    private EngagementCounterService engagementCounterService;
+    
+    @Autowired
+    private CommentThreadService commentThreadService;
+    
+    @Autowired
+    private UserCardCache userCardCache;
+    
     // Get comments for a post (paginated, top-level only)
     @GetMapping("/posts/{postId}/comments")
     public ResponseEntity<Map<String, Object>> getPostComments(
             @PathVariable Long postId,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         
@@ -56,12 +71,25 @@ public class CommentController {
                 return ResponseEntity.notFound().build();
             }
             
+            // Keyset paging when the client opts in with a cursor (blank for the first page)
+            if (cursor != null) {
+                Cursor position = Cursor.decodeOrFirst(cursor);
+                CursorPage<Comment> slice = CursorPage.of(
+                        commentRepository.findTopLevelByPostIdBefore(postId, position.getCreatedAt(), position.getId(), PageRequest.of(0, size + 1)),
+                        size, comment -> new Cursor(comment.getCreatedAt(), comment.getId()));
+                
+                Map<String, Object> response = new HashMap<>();
+                response.put("comments", commentThreadService.withThreadSizes(slice.getItems()));
+                response.put("nextCursor", slice.getNextCursor());
+                response.put("hasMore", slice.isHasMore());
+                return ResponseEntity.ok(response);
+            }
+            
             Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
             Page<Comment> commentsPage = commentRepository.findByPostIdAndParentCommentIsNullOrderByCreatedAtDesc(postId, pageable);
             
-            List<CommentDTO> comments = commentsPage.getContent().stream()
-                    .map(comment -> CommentDTO.fromEntity(comment, true)) // Include replies
-                    .collect(Collectors.toList());
+            // Direct replies stay inlined as before, loaded for the whole page at once
+            List<CommentDTO> comments = commentThreadService.withDirectReplies(commentsPage.getContent());
             
             Map<String, Object> response = new HashMap<>();
             response.put("comments", comments);
@@ -70,6 +98,11 @@ public class CommentController {
             response.put("totalPages", commentsPage.getTotalPages());
             
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -78,26 +111,42 @@ public class CommentController {
         }
     }
     
-    // Get replies for a comment
+    // Get replies for a comment, oldest first; keyset paginated when a cursor (blank for the first page) or size is given
     @GetMapping("/comments/{commentId}/replies")
-    public ResponseEntity<Map<String, Object>> getCommentReplies(@PathVariable Long commentId) {
+    public ResponseEntity<Map<String, Object>> getCommentReplies(
+            @PathVariable Long commentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         try {
             // Check if comment exists
             if (!commentRepository.existsById(commentId)) {
                 return ResponseEntity.notFound().build();
             }
             
-            List<Comment> replies = commentRepository.findByParentCommentIdOrderByCreatedAtAsc(commentId);
+            Map<String, Object> response = new HashMap<>();
             
-            List<CommentDTO> replyDtos = replies.stream()
-                    .map(reply -> CommentDTO.fromEntity(reply, false)) // Don't include nested replies
-                    .collect(Collectors.toList());
+            // Clients that do not page get every reply and the real count, as before
+            if (cursor == null && size == null) {
+                List<CommentDTO> replies = commentThreadService.allReplies(commentId);
+                response.put("replies", replies);
+                response.put("count", replies.size());
+                return ResponseEntity.ok(response);
+            }
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("replies", replyDtos);
-            response.put("count", replyDtos.size());
+            CursorPage<CommentDTO> replies = commentThreadService.replies(
+                    commentId, Cursor.decode(cursor), size != null ? size : 20);
+            
+            response.put("replies", replies.getItems());
+            response.put("count", replies.getItems().size());
+            response.put("nextCursor", replies.getNextCursor());
+            response.put("hasMore", replies.isHasMore());
             
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -106,6 +155,25 @@ public class CommentController {
         }
     }
     
+    // Get the whole thread a comment belongs to, as a tree under its top-level comment
+    @GetMapping("/comments/{commentId}/thread")
+    public ResponseEntity<?> getCommentThread(@PathVariable Long commentId) {
+        try {
+            return commentRepository.findById(commentId)
+                    .map(comment -> ResponseEntity.ok(Map.of(
+                        "success", true,
+                        "message", "Thread retrieved successfully",
+                        "data", commentThreadService.loadThread(comment)
+                    )))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Failed to fetch thread: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+    
     // Create a comment on a post
     @PostMapping("/posts/{postId}/comments")
     public ResponseEntity<?> createComment(
@@ -153,13 +221,12 @@ public class CommentController {
             Comment savedComment = commentRepository.save(comment);
             
             // Update post comment count
-            post.setCommentCount(post.getCommentCount() + 1);
-            postRepository.save(post);
+            engagementCounterService.addComments(postId, 1);
             
             return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
                 "success", true,
                 "message", "Comment created successfully",
-                "data", CommentDTO.fromEntity(savedComment, false)
+                "data", CommentDTO.fromEntity(savedComment, userCardCache.card(userId))
             ));
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
@@ -211,6 +278,7 @@ public class CommentController {
             reply.setContent(content);
             reply.setAuthor(user);
             reply.setParentComment(parentComment);
+            reply.setRootId(commentThreadService.rootIdForReplyTo(parentComment));
             reply.setPost(parentComment.getPost()); // Set the same post as parent comment
             reply.setLikeCount(0);
             
@@ -219,14 +287,13 @@ public class CommentController {
             // Update post comment count
             Post post = parentComment.getPost();
             if (post != null) {
-                post.setCommentCount(post.getCommentCount() + 1);
-                postRepository.save(post);
+                engagementCounterService.addComments(post.getId(), 1);
             }
             
             return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
                 "success", true,
                 "message", "Reply created successfully",
-                "data", CommentDTO.fromEntity(savedReply, false)
+                "data", CommentDTO.fromEntity(savedReply, userCardCache.card(userId))
             ));
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
@@ -262,7 +329,8 @@ public class CommentController {
                         return ResponseEntity.ok(Map.of(
                             "success", true,
                             "message", "Comment updated successfully",
-                            "data", CommentDTO.fromEntity(updatedComment, false)
+                            "data", CommentDTO.fromEntity(updatedComment,
+                                    userCardCache.card(updatedComment.getAuthor().getId()))
                         ));
                     })
                     .orElse(ResponseEntity.notFound().build());
@@ -283,10 +351,9 @@ public class CommentController {
                         // Update post comment count
                         Post post = comment.getPost();
                         if (post != null) {
-                            // Count this comment and all its replies
-                            int totalComments = 1 + (comment.getReplies() != null ? comment.getReplies().size() : 0);
-                            post.setCommentCount(Math.max(0, post.getCommentCount() - totalComments));
-                            postRepository.save(post);
+                            // Count this comment and every reply below it
+                            int totalComments = commentThreadService.subtreeSize(comment);
+                            engagementCounterService.addComments(post.getId(), -totalComments);
                         }
                         
                         commentRepository.delete(comment);
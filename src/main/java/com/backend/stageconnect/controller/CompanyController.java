@@ -1,17 +1,24 @@
 package com.backend.stageconnect.controller;
 
 import com.backend.stageconnect.dto.CompanyDTO;
+import com.backend.stageconnect.dto.CompanyListing;
 import com.backend.stageconnect.entity.Company;
+import com.backend.stageconnect.model.Cursor;
+import com.backend.stageconnect.model.CursorPage;
 import com.backend.stageconnect.repository.CompanyRepository;
+import com.backend.stageconnect.service.DirectoryService;
 import com.backend.stageconnect.service.FileStorageService;
+import com.backend.stageconnect.service.UserCardCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
@@ -26,15 +33,18 @@ import java.util.stream.Collectors;
 public class CompanyController {
     private static final Logger logger = LoggerFactory.getLogger(CompanyController.class);
 
-    @Value("${app.base-url:http://localhost:8080}")
-    private String baseUrl;
-
     @Autowired
     private CompanyRepository companyRepository;
 
     @Autowired
     private FileStorageService fileStorageService;
 
+    @Autowired
+    private UserCardCache userCardCache;
+
+    @Autowired
+    private DirectoryService directoryService;
+
     @GetMapping("/{id}")
     @Transactional
     public ResponseEntity<?> getCompanyById(@PathVariable Long id) {
@@ -55,43 +65,61 @@ public class CompanyController {
         }
     }
 
+    // Every company with its technologies as a JSON array, streamed from the database row by row
     @GetMapping
-    public ResponseEntity<?> getAllCompanies() {
-        var companies = companyRepository.findAll();
-        var response = companies.stream().map(company -> {
-            Map<String, Object> companyMap = new HashMap<>();
-            
-            companyMap.put("id", company.getId());
-            companyMap.put("name", company.getName());
-            companyMap.put("industry", company.getIndustry());
-            companyMap.put("size", company.getSize());
-            companyMap.put("foundedDate", company.getFoundedDate());
-            companyMap.put("website", company.getWebsite());
-            companyMap.put("location", company.getLocation());
-            companyMap.put("email", company.getEmail());
-            companyMap.put("phone", company.getPhone());
-            companyMap.put("address", company.getAddress());
-            companyMap.put("city", company.getCity());
-            companyMap.put("postalCode", company.getPostalCode());
-            companyMap.put("country", company.getCountry());
-            companyMap.put("technologies", company.getTechnologies());
-            companyMap.put("registrationNumber", company.getRegistrationNumber());
-            companyMap.put("vatId", company.getVatId());
-            companyMap.put("legalForm", company.getLegalForm());
-            companyMap.put("linkedInUrl", company.getLinkedInUrl());
-            companyMap.put("twitterUrl", company.getTwitterUrl());
-            companyMap.put("instagramUrl", company.getInstagramUrl());
-            companyMap.put("facebookUrl", company.getFacebookUrl());
-            
-            // Add complete photo URL if photo exists
-            if (company.getPhoto() != null) {
-                companyMap.put("photo", baseUrl + company.getPhoto());
-            }
-            
-            return companyMap;
-        }).toList();
-        
-        return ResponseEntity.ok(response);
+    public ResponseEntity<StreamingResponseBody> getAllCompanies() {
+        StreamingResponseBody body = directoryService.companyStream(false);
+        if (body == null) {
+            return tooManyStreams();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    // Companies one page at a time (blank cursor for the first page)
+    @GetMapping(params = "cursor")
+    public ResponseEntity<?> getCompaniesPage(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            CursorPage<CompanyListing> page = directoryService.companies(Cursor.decode(cursor), size);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("companies", page.getItems());
+            response.put("nextCursor", page.getNextCursor());
+            response.put("hasMore", page.isHasMore());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                "success", false,
+                "message", "Failed to fetch companies: " + e.getMessage()
+            ));
+        }
+    }
+
+    // Every company as newline-delimited JSON, one object per line
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamCompanies() {
+        StreamingResponseBody body = directoryService.companyStream(true);
+        if (body == null) {
+            return tooManyStreams();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // Full listings hold a database connection while they are written; over the limit the client retries later
+    private static ResponseEntity<StreamingResponseBody> tooManyStreams() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .build();
     }
 
     @PostMapping
@@ -164,6 +192,7 @@ public class CompanyController {
         
         // Save and return updated company
         Company saved = companyRepository.save(company);
+        userCardCache.evictCompany(id);
         return ResponseEntity.ok(CompanyDTO.fromEntity(saved));
     }
 
@@ -187,6 +216,7 @@ public class CompanyController {
         }
 
         companyRepository.deleteById(id);
+        userCardCache.evictCompany(id);
         return ResponseEntity.noContent().build();
     }
 } 
\ No newline at end of file
@@ -1,10 +1,13 @@
 package com.backend.stageconnect.controller;
 
 import com.backend.stageconnect.dto.ConnectionDTO;
+import com.backend.stageconnect.dto.UserCard;
 import com.backend.stageconnect.entity.Connection;
 import com.backend.stageconnect.entity.User;
 import com.backend.stageconnect.repository.ConnectionRepository;
 import com.backend.stageconnect.repository.UserRepository;
+import com.backend.stageconnect.service.SocialGraphService;
+import com.backend.stageconnect.service.UserCardCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -15,9 +18,11 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
@@ -35,6 +40,12 @@ public class ConnectionController {
     
     @Autowired
     private UserRepository userRepository;
+
+    @Autowired
+    private SocialGraphService socialGraphService;
+    
+    @Autowired
+    private UserCardCache userCardCache;
     
     // Get all connections for a user
     @GetMapping("/user/{userId}")
@@ -55,9 +66,7 @@ public class ConnectionController {
             Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
             Page<Connection> connectionsPage = connectionRepository.findConnectionsByUserId(userId, pageable);
             
-            List<ConnectionDTO> connections = connectionsPage.getContent().stream()
-                    .map(connection -> ConnectionDTO.fromEntity(connection, userId))
-                    .collect(Collectors.toList());
+            List<ConnectionDTO> connections = toDTOs(connectionsPage.getContent(), userId);
             
             Map<String, Object> response = new HashMap<>();
             response.put("connections", connections);
@@ -94,9 +103,7 @@ public class ConnectionController {
             Page<Connection> pendingPage = connectionRepository.findByReceiverIdAndStatus(
                 userId, Connection.ConnectionStatus.PENDING, pageable);
             
-            List<ConnectionDTO> pendingConnections = pendingPage.getContent().stream()
-                    .map(connection -> ConnectionDTO.fromEntity(connection, userId))
-                    .collect(Collectors.toList());
+            List<ConnectionDTO> pendingConnections = toDTOs(pendingPage.getContent(), userId);
             
             Map<String, Object> response = new HashMap<>();
             response.put("pendingConnections", pendingConnections);
@@ -178,11 +185,12 @@ public class ConnectionController {
             connection.setStatus(Connection.ConnectionStatus.PENDING);
             
             Connection savedConnection = connectionRepository.save(connection);
+            socialGraphService.addPending(requesterId, receiverId);
             
             return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
                 "success", true,
                 "message", "Connection request sent successfully",
-                "data", ConnectionDTO.fromEntity(savedConnection, requesterId)
+                "data", toDTOs(List.of(savedConnection), requesterId).get(0)
             ));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
@@ -223,11 +231,12 @@ public class ConnectionController {
                         // Update connection status
                         connection.setStatus(Connection.ConnectionStatus.CONNECTED);
                         Connection updatedConnection = connectionRepository.save(connection);
+                        socialGraphService.connect(connection.getRequester().getId(), connection.getReceiver().getId());
                         
                         return ResponseEntity.ok(Map.of(
                             "success", true,
                             "message", "Connection request accepted",
-                            "data", ConnectionDTO.fromEntity(updatedConnection, userId)
+                            "data", toDTOs(List.of(updatedConnection), userId).get(0)
                         ));
                     })
                     .orElse(ResponseEntity.notFound().build());
@@ -270,11 +279,12 @@ public class ConnectionController {
                         // Update connection status
                         connection.setStatus(Connection.ConnectionStatus.REJECTED);
                         Connection updatedConnection = connectionRepository.save(connection);
+                        socialGraphService.removePending(connection.getRequester().getId(), connection.getReceiver().getId());
                         
                         return ResponseEntity.ok(Map.of(
                             "success", true,
                             "message", "Connection request rejected",
-                            "data", ConnectionDTO.fromEntity(updatedConnection, userId)
+                            "data", toDTOs(List.of(updatedConnection), userId).get(0)
                         ));
                     })
                     .orElse(ResponseEntity.notFound().build());
@@ -317,6 +327,7 @@ public class ConnectionController {
                         
                         // Delete the connection
                         connectionRepository.delete(connection);
+                        socialGraphService.disconnect(connection.getRequester().getId(), connection.getReceiver().getId());
                         
                         return ResponseEntity.ok(Map.of(
                             "success", true,
@@ -348,34 +359,26 @@ public class ConnectionController {
                 ));
             }
             
-            // This is a simplified implementation for suggestions
-            // A real implementation would include more complex logic like:
-            // - Users with mutual connections
-            // - Users in the same industry/company
-            // - Users with similar skills/interests
-            // - Users who viewed the same internships
-            
-            Pageable pageable = PageRequest.of(page, size);
-            
-            // Get a sample of users excluding the current user and existing connections
-            // This is just a placeholder - implement a more sophisticated query based on your needs
-            @SuppressWarnings("unchecked")
-            List<User> suggestions = userRepository.findAll(pageable).getContent().stream()
-                    .filter(user -> !user.getId().equals(userId))
-                    .limit(size)
+            // Friends-of-friends ranked by mutual connections, from the in-memory graph
+            List<SocialGraphService.Suggestion> ranked = socialGraphService.suggest(userId, (page + 1) * size);
+            List<SocialGraphService.Suggestion> pageOfSuggestions = ranked.stream()
+                    .skip((long) page * size)
                     .collect(Collectors.toList());
             
-            // Convert to DTOs (without actual connection objects)
-            // In a real implementation, you'd want to add info like mutual connections count
-            List<Map<String, Object>> suggestionsList = suggestions.stream()
-                    .map(user -> {
+            // Load only the suggested users, in one query
+            Map<Long, User> usersById = userRepository.findAllById(pageOfSuggestions.stream()
+                    .map(SocialGraphService.Suggestion::getUserId)
+                    .collect(Collectors.toList())).stream()
+                    .collect(Collectors.toMap(User::getId, user -> user));
+            
+            List<Map<String, Object>> suggestionsList = pageOfSuggestions.stream()
+                    .filter(suggestion -> usersById.containsKey(suggestion.getUserId()))
+                    .map(suggestion -> {
+                        User user = usersById.get(suggestion.getUserId());
                         Map<String, Object> userMap = new HashMap<>();
                         userMap.put("id", user.getId());
                         userMap.put("name", user.getFirstName() + " " + user.getLastName());
-                        
-                        // Add more user details based on your User entity structure
-                        // This is just a simplified example
-                        
+                        userMap.put("mutualConnections", suggestion.getMutualConnections());
                         return userMap;
                     })
                     .collect(Collectors.toList());
@@ -422,4 +425,17 @@ public class ConnectionController {
             ));
         }
     }
-} 
\ No newline at end of file
+    
+    // Map connections to DTOs with the cards of both sides read in one go
+    private List<ConnectionDTO> toDTOs(List<Connection> connections, Long userId) {
+        Set<Long> userIds = new HashSet<>();
+        for (Connection connection : connections) {
+            userIds.add(connection.getRequester().getId());
+            userIds.add(connection.getReceiver().getId());
+        }
+        Map<Long, UserCard> cards = userCardCache.cards(userIds);
+        return connections.stream()
+                .map(connection -> ConnectionDTO.fromEntity(connection, userId, cards))
+                .collect(Collectors.toList());
+    }
+}
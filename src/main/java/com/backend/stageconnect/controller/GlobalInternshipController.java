@@ -3,12 +3,16 @@ package com.backend.stageconnect.controller;
 import com.backend.stageconnect.dto.InternshipDTO;
 import com.backend.stageconnect.entity.Internship;
 import com.backend.stageconnect.repository.InternshipRepository;
+import com.backend.stageconnect.service.InternshipSearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/internships")
@@ -17,6 +21,50 @@ public class GlobalInternshipController {
     
     @Autowired
     private InternshipRepository internshipRepository;
+    
+    @Autowired
+    private InternshipSearchIndex internshipSearchIndex;
+
+    // Search internships by text with facet filters; status defaults to active
+    @GetMapping("/search")
+    public ResponseEntity<?> searchInternships(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) List<String> workType,
+            @RequestParam(required = false) List<String> location,
+            @RequestParam(required = false) List<String> department,
+            @RequestParam(required = false) List<String> duration,
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            Map<String, List<String>> filters = new HashMap<>();
+            filters.put("workType", workType);
+            filters.put("location", location);
+            filters.put("department", department);
+            filters.put("duration", duration);
+            filters.put("status", status != null ? status : List.of("active"));
+            
+            InternshipSearchIndex.SearchResult result = internshipSearchIndex.search(q, filters, page, size);
+            List<InternshipDTO> internships = internshipSearchIndex.loadHits(result).stream()
+                .map(InternshipDTO::fromEntity)
+                .collect(Collectors.toList());
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Internships retrieved successfully");
+            response.put("data", internships);
+            response.put("facets", result.getFacets());
+            response.put("currentPage", page);
+            response.put("totalItems", result.getTotal());
+            response.put("totalPages", size > 0 ? (result.getTotal() + size - 1) / size : 0);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Failed to search internships: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
 
     @GetMapping("/id/{internshipId}")
     public ResponseEntity<?> getInternshipByIdOnly(@PathVariable Long internshipId) {
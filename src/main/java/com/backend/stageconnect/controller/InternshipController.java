@@ -5,6 +5,7 @@ import com.backend.stageconnect.entity.Company;
 import com.backend.stageconnect.entity.Internship;
 import com.backend.stageconnect.repository.CompanyRepository;
 import com.backend.stageconnect.repository.InternshipRepository;
+import com.backend.stageconnect.service.InternshipSearchIndex;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -40,6 +41,9 @@ public class InternshipController {
     @Autowired
     private CompanyRepository companyRepository;
 
+    @Autowired
+    private InternshipSearchIndex internshipSearchIndex;
+
     @GetMapping
     public ResponseEntity<?> getInternships(
             @PathVariable Long companyId,
@@ -138,6 +142,7 @@ public class InternshipController {
 
                             // Save the internship
                             Internship saved = internshipRepository.save(newInternship);
+                            internshipSearchIndex.index(saved);
                             
                             return ResponseEntity.ok(Map.of(
                                 "success", true,
@@ -196,6 +201,7 @@ public class InternshipController {
                         internship.setStatus(internshipDetails.getStatus());
                         
                         Internship updated = internshipRepository.save(internship);
+                        internshipSearchIndex.index(updated);
                         return ResponseEntity.ok(Map.of(
                             "success", true,
                             "message", "Internship updated successfully",
@@ -222,6 +228,7 @@ public class InternshipController {
                             return ResponseEntity.notFound().build();
                         }
                         internshipRepository.delete(internship);
+                        internshipSearchIndex.remove(internshipId);
                         return ResponseEntity.ok(Map.of(
                             "success", true,
                             "message", "Internship deleted successfully"
@@ -257,6 +264,7 @@ public class InternshipController {
                         }
                         internship.setStatus(newStatus);
                         Internship updated = internshipRepository.save(internship);
+                        internshipSearchIndex.index(updated);
                         return ResponseEntity.ok(Map.of(
                             "success", true,
                             "message", "Internship status updated successfully",
@@ -273,18 +281,39 @@ public class InternshipController {
     }
 
     @GetMapping("/active")
-    public ResponseEntity<?> getAllActiveInternships() {
+    public ResponseEntity<?> getAllActiveInternships(
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
         try {
-            List<Internship> activeInternships = internshipRepository.findByStatus("active");
-            List<InternshipDTO> internshipDTOs = activeInternships.stream()
+            // Clients that send neither parameter still get the full list, as before paging
+            if (page == null && size == null) {
+                List<InternshipDTO> internshipDTOs = internshipRepository.findByStatus("active").stream()
+                    .map(InternshipDTO::fromEntity)
+                    .collect(Collectors.toList());
+                return ResponseEntity.ok(Map.of(
+                    "success", true,
+                    "message", "Active internships retrieved successfully",
+                    "data", internshipDTOs
+                ));
+            }
+            int pageNumber = page != null ? page : 0;
+            int pageSize = size != null ? size : 50;
+
+            // Served from the search index, one page at a time
+            InternshipSearchIndex.SearchResult result = internshipSearchIndex.search(
+                null, Map.of("status", List.of("active")), pageNumber, pageSize);
+            List<InternshipDTO> internshipDTOs = internshipSearchIndex.loadHits(result).stream()
                 .map(InternshipDTO::fromEntity)
                 .collect(Collectors.toList());
             
-            return ResponseEntity.ok(Map.of(
-                "success", true,
-                "message", "Active internships retrieved successfully",
-                "data", internshipDTOs
-            ));
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Active internships retrieved successfully");
+            response.put("data", internshipDTOs);
+            response.put("currentPage", pageNumber);
+            response.put("totalItems", result.getTotal());
+            response.put("totalPages", pageSize > 0 ? (result.getTotal() + pageSize - 1) / pageSize : 0);
+            return ResponseEntity.ok(response);
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
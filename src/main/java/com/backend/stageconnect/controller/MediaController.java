@@ -0,0 +1,128 @@
+package com.backend.stageconnect.controller;
+
+import com.backend.stageconnect.service.MediaStorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/media/uploads")
+@CrossOrigin(
+    origins = {"http://localhost:5173", "http://localhost:3000", "http://127.0.0.1:5173", "http://127.0.0.1:3000"},
+    allowCredentials = "true",
+    allowedHeaders = {"Origin", "Content-Type", "Accept", "Authorization", "X-Requested-With", "Access-Control-Request-Method", "Access-Control-Request-Headers", "x-cors-debug"},
+    methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.OPTIONS}
+)
+public class MediaController {
+
+    @Autowired
+    private MediaStorageService mediaStorageService;
+
+    // Start a chunked upload; returns the upload ID, or the image URL right away if the content is already stored
+    @PostMapping
+    public ResponseEntity<?> startUpload(@RequestBody Map<String, Object> request) {
+        try {
+            Object size = request.get("size");
+            if (!(size instanceof Number)) {
+                return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "size is required"
+                ));
+            }
+            MediaStorageService.UploadSession session = mediaStorageService.startUpload(
+                (String) request.get("filename"), ((Number) size).longValue(), (String) request.get("sha256"));
+            return ResponseEntity.status(HttpStatus.CREATED).body(toResponse(session, "Upload started"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                "success", false,
+                "message", "Failed to start upload: " + e.getMessage()
+            ));
+        }
+    }
+
+    // Get how many bytes were received, to resume an interrupted upload
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<?> getUpload(@PathVariable String uploadId) {
+        try {
+            return ResponseEntity.ok(toResponse(mediaStorageService.getUpload(uploadId), "Upload status retrieved"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+
+    // Append a chunk; the raw request body is streamed to disk at the given offset
+    @PutMapping("/{uploadId}")
+    public ResponseEntity<?> uploadChunk(
+            @PathVariable String uploadId,
+            @RequestParam long offset,
+            HttpServletRequest request) {
+        try {
+            MediaStorageService.UploadSession session = mediaStorageService.appendChunk(uploadId, offset, request.getInputStream());
+            return ResponseEntity.ok(toResponse(session, "Chunk received"));
+        } catch (IllegalStateException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            response.put("received", mediaStorageService.getUpload(uploadId).getReceived());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                "success", false,
+                "message", "Failed to upload chunk: " + e.getMessage()
+            ));
+        }
+    }
+
+    // Finish the upload; the returned URL can be passed as imageUrl when creating a post
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<?> completeUpload(@PathVariable String uploadId) {
+        try {
+            return ResponseEntity.ok(toResponse(mediaStorageService.completeUpload(uploadId), "Upload completed"));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                "success", false,
+                "message", "Failed to complete upload: " + e.getMessage()
+            ));
+        }
+    }
+
+    private Map<String, Object> toResponse(MediaStorageService.UploadSession session, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", message);
+        response.put("uploadId", session.getId());
+        response.put("size", session.getSize());
+        response.put("received", session.getReceived());
+        response.put("complete", session.getUrl() != null);
+        response.put("url", session.getUrl());
+        return response;
+    }
+}
@@ -2,11 +2,18 @@ package com.backend.stageconnect.controller;
 
 import com.backend.stageconnect.dto.ConversationDTO;
 import com.backend.stageconnect.dto.MessageDTO;
+import com.backend.stageconnect.dto.UserCard;
+import com.backend.stageconnect.entity.ConversationSummary;
 import com.backend.stageconnect.entity.Message;
 import com.backend.stageconnect.entity.User;
+import com.backend.stageconnect.model.Cursor;
+import com.backend.stageconnect.model.CursorPage;
 import com.backend.stageconnect.repository.ConnectionRepository;
 import com.backend.stageconnect.repository.MessageRepository;
 import com.backend.stageconnect.repository.UserRepository;
+import com.backend.stageconnect.service.ConversationService;
+import com.backend.stageconnect.service.PresenceService;
+import com.backend.stageconnect.service.UserCardCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -37,6 +44,31 @@ public class MessageController {
     @Autowired
     private ConnectionRepository connectionRepository;
     
+    @Autowired
+    private ConversationService conversationService;
+    
+    @Autowired
+    private PresenceService presenceService;
+    
+    @Autowired
+    private UserCardCache userCardCache;
+    
+    // Which of the given users are online right now
+    @GetMapping("/presence")
+    public ResponseEntity<?> getPresence(@RequestParam List<Long> userIds) {
+        try {
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "online", presenceService.onlineAmong(userIds)
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                "success", false,
+                "message", "Failed to fetch presence: " + e.getMessage()
+            ));
+        }
+    }
+    
     // Get all conversations for a user
     @GetMapping("/conversations/{userId}")
     public ResponseEntity<?> getUserConversations(@PathVariable Long userId) {
@@ -49,39 +81,20 @@ public class MessageController {
                 ));
             }
             
-            // Get all users that the current user has messaged with
-            List<Long> partnerIds = messageRepository.findUserConversationPartnerIds(userId);
+            // Read the maintained inbox summaries and their partners in bulk
+            ConversationService.Inbox inbox = conversationService.getInbox(userId);
             
-            // For each partner, get the latest message and unread count
-            List<ConversationDTO> conversations = new ArrayList<>();
+            // One presence lookup for all partners
+            Set<Long> onlinePartners = presenceService.onlineAmong(inbox.getPartners().keySet());
             
-            for (Long partnerId : partnerIds) {
-                // Get partner user
-                User partner = userRepository.findById(partnerId).orElse(null);
+            List<ConversationDTO> conversations = new ArrayList<>();
+            for (ConversationSummary summary : inbox.getSummaries()) {
+                UserCard partner = inbox.getPartners().get(summary.getPartnerId(userId));
                 if (partner == null) continue;
-                
-                // Get the latest message
-                Pageable topOne = PageRequest.of(0, 1, Sort.by("createdAt").descending());
-                List<Message> latestMessages = messageRepository.findLatestMessageBetweenUsers(userId, partnerId, topOne);
-                Message latestMessage = latestMessages.isEmpty() ? null : latestMessages.get(0);
-                
-                // Count unread messages from this partner
-                long unreadCount = messageRepository.countByReceiverIdAndSenderIdAndIsReadFalse(userId, partnerId);
-                
-                // Create conversation DTO (without full message list)
-                ConversationDTO conversation = ConversationDTO.fromPartnerAndLastMessage(
-                    partner, latestMessage, (int) unreadCount, userId, null);
-                
-                conversations.add(conversation);
+                conversations.add(ConversationDTO.fromSummary(summary, partner, userId,
+                        onlinePartners.contains(partner.id())));
             }
             
-            // Sort by latest message timestamp
-            conversations.sort((c1, c2) -> {
-                if (c1.getLastMessage() == null) return 1;
-                if (c2.getLastMessage() == null) return -1;
-                return c2.getLastMessage().getTimestamp().compareTo(c1.getLastMessage().getTimestamp());
-            });
-            
             return ResponseEntity.ok(Map.of(
                 "success", true,
                 "conversations", conversations
@@ -99,13 +112,15 @@ public class MessageController {
     public ResponseEntity<?> getConversation(
             @PathVariable Long userId,
             @PathVariable Long partnerId,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "50") int size) {
         
         try {
-            // Check if both users exist
-            User user = userRepository.findById(userId).orElse(null);
-            User partner = userRepository.findById(partnerId).orElse(null);
+            // Check if both users exist, reading their cards
+            Map<Long, UserCard> cards = userCardCache.cards(List.of(userId, partnerId));
+            UserCard user = cards.get(userId);
+            UserCard partner = cards.get(partnerId);
             
             if (user == null) {
                 return ResponseEntity.badRequest().body(Map.of(
@@ -133,8 +148,20 @@ public class MessageController {
             */
             
             // Get all messages between users (most recent first for pagination, then reversed for display)
-            Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-            List<Message> messages = messageRepository.findMessagesBetweenUsers(userId, partnerId, pageable).getContent();
+            List<Message> messages;
+            CursorPage<Message> slice = null;
+            if (cursor != null) {
+                // Keyset paging when the client opts in with a cursor (blank for the first page)
+                Cursor position = Cursor.decodeOrFirst(cursor);
+                slice = CursorPage.of(
+                        messageRepository.findByConversationIdBefore(Message.generateConversationId(userId, partnerId),
+                                position.getCreatedAt(), position.getId(), PageRequest.of(0, size + 1)),
+                        size, message -> new Cursor(message.getCreatedAt(), message.getId()));
+                messages = new ArrayList<>(slice.getItems());
+            } else {
+                Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+                messages = messageRepository.findMessagesBetweenUsers(userId, partnerId, pageable).getContent();
+            }
             
             // Reverse to get chronological order
             Collections.reverse(messages);
@@ -147,24 +174,34 @@ public class MessageController {
             
             // Create conversation DTO with full message list
             ConversationDTO conversation = ConversationDTO.fromPartnerAndLastMessage(
-                partner, latestMessage, (int) unreadCount, userId, messages);
+                partner, latestMessage, (int) unreadCount, userId, messages, cards);
             
-            // Mark messages as read
-            if (!messages.isEmpty()) {
-                List<Message> unreadMessages = messages.stream()
-                    .filter(m -> m.getReceiver().getId().equals(userId) && !m.isRead())
-                    .collect(Collectors.toList());
-                
-                if (!unreadMessages.isEmpty()) {
-                    unreadMessages.forEach(m -> m.setRead(true));
-                    messageRepository.saveAll(unreadMessages);
-                }
+            // Mark the loaded messages as read, using the newest unread one as the watermark
+            messages.stream()
+                .filter(m -> m.getReceiver().getId().equals(userId) && !m.isRead())
+                .mapToLong(Message::getId)
+                .max()
+                .ifPresent(upToId -> conversationService.markRead(
+                    Message.generateConversationId(userId, partnerId), userId, upToId));
+            
+            if (slice != null) {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("conversation", conversation);
+                response.put("nextCursor", slice.getNextCursor());
+                response.put("hasMore", slice.isHasMore());
+                return ResponseEntity.ok(response);
             }
             
             return ResponseEntity.ok(Map.of(
                 "success", true,
                 "conversation", conversation
             ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
                 "success", false,
@@ -229,12 +266,12 @@ public class MessageController {
             // Set conversation ID (if you're using it)
             message.setConversationId(Message.generateConversationId(senderId, receiverId));
             
-            Message savedMessage = messageRepository.save(message);
+            Message savedMessage = conversationService.send(message);
             
             return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
                 "success", true,
                 "message", "Message sent successfully",
-                "data", MessageDTO.fromEntity(savedMessage)
+                "data", MessageDTO.fromEntity(savedMessage, userCardCache.cards(List.of(senderId, receiverId)))
             ));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
@@ -251,20 +288,13 @@ public class MessageController {
             @PathVariable Long partnerId) {
         
         try {
-            // Find unread messages from partner to user
-            List<Message> unreadMessages = messageRepository.findMessagesBetweenUsers(userId, partnerId).stream()
-                .filter(m -> m.getReceiver().getId().equals(userId) && !m.isRead())
-                .collect(Collectors.toList());
-            
-            if (!unreadMessages.isEmpty()) {
-                unreadMessages.forEach(m -> m.setRead(true));
-                messageRepository.saveAll(unreadMessages);
-            }
+            // Mark every unread message from partner to user with a single UPDATE
+            int count = conversationService.markRead(Message.generateConversationId(userId, partnerId), userId, null);
             
             return ResponseEntity.ok(Map.of(
                 "success", true,
                 "message", "Messages marked as read",
-                "count", unreadMessages.size()
+                "count", count
             ));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
@@ -296,6 +326,7 @@ public class MessageController {
     @GetMapping("/conversation/{conversationId}")
     public ResponseEntity<?> getMessagesByConversationId(
             @PathVariable String conversationId,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "50") int size) {
         
@@ -308,13 +339,38 @@ public class MessageController {
                 ));
             }
             
+            // Keyset paging when the client opts in with a cursor (blank for the first page)
+            if (cursor != null) {
+                Cursor position = Cursor.decodeOrFirst(cursor);
+                CursorPage<Message> slice = CursorPage.of(
+                        messageRepository.findByConversationIdBefore(conversationId,
+                                position.getCreatedAt(), position.getId(), PageRequest.of(0, size + 1)),
+                        size, message -> new Cursor(message.getCreatedAt(), message.getId()));
+                
+                // Newest first from the database, chronological for display
+                Map<Long, UserCard> cards = participantCards(slice.getItems());
+                List<MessageDTO> messageDTOs = slice.getItems().stream()
+                    .map(message -> MessageDTO.fromEntity(message, cards))
+                    .collect(Collectors.toList());
+                Collections.reverse(messageDTOs);
+                
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", true);
+                response.put("messages", messageDTOs);
+                response.put("count", messageDTOs.size());
+                response.put("nextCursor", slice.getNextCursor());
+                response.put("hasMore", slice.isHasMore());
+                return ResponseEntity.ok(response);
+            }
+            
             // Get messages by conversation ID with pagination
             Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
             List<Message> messages = messageRepository.findByConversationIdOrderByCreatedAtAsc(conversationId);
             
             // Convert messages to DTOs
+            Map<Long, UserCard> cards = participantCards(messages);
             List<MessageDTO> messageDTOs = messages.stream()
-                .map(MessageDTO::fromEntity)
+                .map(message -> MessageDTO.fromEntity(message, cards))
                 .collect(Collectors.toList());
             
             return ResponseEntity.ok(Map.of(
@@ -322,6 +378,11 @@ public class MessageController {
                 "messages", messageDTOs,
                 "count", messageDTOs.size()
             ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
                 "success", false,
@@ -329,4 +390,14 @@ public class MessageController {
             ));
         }
     }
-} 
\ No newline at end of file
+    
+    // Cards of everyone who sent or received one of the messages
+    private Map<Long, UserCard> participantCards(List<Message> messages) {
+        Set<Long> userIds = new HashSet<>();
+        for (Message message : messages) {
+            userIds.add(message.getSender().getId());
+            userIds.add(message.getReceiver().getId());
+        }
+        return userCardCache.cards(userIds);
+    }
+}
@@ -0,0 +1,90 @@
+package com.backend.stageconnect.controller;
+
+import com.backend.stageconnect.service.DatagramChatBus;
+import com.backend.stageconnect.service.TypingCoalescer;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/metrics")
+@CrossOrigin(
+    origins = {"http://localhost:5173", "http://localhost:3000", "http://127.0.0.1:5173", "http://127.0.0.1:3000"},
+    allowCredentials = "true",
+    allowedHeaders = {"Origin", "Content-Type", "Accept", "Authorization", "X-Requested-With", "Access-Control-Request-Method", "Access-Control-Request-Headers", "x-cors-debug"},
+    methods = {RequestMethod.GET, RequestMethod.OPTIONS}
+)
+public class MetricsController {
+
+    @Autowired
+    private TypingCoalescer typingCoalescer;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Only present with app.chat.bus.transport=udp
+    @Autowired(required = false)
+    private DatagramChatBus datagramChatBus;
+
+    // Typing frames received from clients versus forwarded to receivers
+    @GetMapping("/typing")
+    public ResponseEntity<?> getTypingStats() {
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "data", typingCoalescer.getStats()
+        ));
+    }
+
+    // Chat bus datagrams received and dropped, by reason
+    @GetMapping("/bus")
+    public ResponseEntity<?> getBusStats() {
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "data", datagramChatBus != null ? datagramChatBus.getStats() : Map.of()
+        ));
+    }
+
+    // Second-level and query cache hit ratios, overall and per region
+    @GetMapping("/cache")
+    public ResponseEntity<?> getCacheStats() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region != null) {
+                Map<String, Object> regionStats = hitStats(region.getHitCount(), region.getMissCount(), region.getPutCount());
+                regionStats.put("elements", region.getElementCountInMemory());
+                regions.put(regionName, regionStats);
+            }
+        }
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        data.put("secondLevel", hitStats(statistics.getSecondLevelCacheHitCount(),
+            statistics.getSecondLevelCacheMissCount(), statistics.getSecondLevelCachePutCount()));
+        data.put("queryCache", hitStats(statistics.getQueryCacheHitCount(),
+            statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount()));
+        data.put("regions", regions);
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "data", data
+        ));
+    }
+
+    private static Map<String, Object> hitStats(long hits, long misses, long puts) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("puts", puts);
+        stats.put("hitRatio", hits + misses > 0 ? (double) hits / (hits + misses) : 0.0);
+        return stats;
+    }
+}
@@ -1,22 +1,41 @@
 package com.backend.stageconnect.controller;
 
+import com.backend.stageconnect.config.QueryCountFilter;
+import com.backend.stageconnect.config.QueryCountInspector;
 import com.backend.stageconnect.dto.EnhancedPostDTO;
+import com.backend.stageconnect.dto.LikerDTO;
 import com.backend.stageconnect.dto.PostDTO;
-import com.backend.stageconnect.entity.Comment;
 import com.backend.stageconnect.entity.Post;
-import com.backend.stageconnect.entity.PostLike;
 import com.backend.stageconnect.entity.User;
+import com.backend.stageconnect.model.Cursor;
+import com.backend.stageconnect.model.CursorPage;
 import com.backend.stageconnect.repository.CommentRepository;
 import com.backend.stageconnect.repository.PostLikeRepository;
 import com.backend.stageconnect.repository.PostRepository;
 import com.backend.stageconnect.repository.UserRepository;
+import com.backend.stageconnect.security.JwtPrincipal;
+import com.backend.stageconnect.service.EngagementCounterService;
+import com.backend.stageconnect.service.FeedHydrationService;
+import com.backend.stageconnect.service.FileStorageService;
+import com.backend.stageconnect.service.LikedPostResolver;
+import com.backend.stageconnect.service.MediaFileIndex;
+import com.backend.stageconnect.service.MediaStorageService;
+import com.backend.stageconnect.service.PostSearchIndex;
+import com.backend.stageconnect.service.TimelineService;
+import com.backend.stageconnect.service.UserCardCache;
 import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.validation.BindingResult;
@@ -24,16 +43,13 @@ import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.Collections;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
@@ -46,8 +62,8 @@ import java.util.stream.Collectors;
 )
 public class PostController {
 
-    private static final String UPLOAD_DIR = "./uploads/posts/";
-    
+    private static final Logger logger = LoggerFactory.getLogger(PostController.class);
+
     @Autowired
     private PostRepository postRepository;
 
@@ -60,10 +76,38 @@ public class PostController {
     @Autowired
     private CommentRepository commentRepository;
     
+    @Autowired
+    private FeedHydrationService feedHydrationService;
+    
+    @Autowired
+    private TimelineService timelineService;
+    
+    @Autowired
+    private PostSearchIndex postSearchIndex;
+    
+    @Autowired
+    private MediaStorageService mediaStorageService;
+    
+    @Autowired
+    private EngagementCounterService engagementCounterService;
+    
+    @Autowired
+    private LikedPostResolver likedPostResolver;
+    
+    @Autowired
+    private MediaFileIndex mediaFileIndex;
+    
+    @Autowired
+    private FileStorageService fileStorageService;
+    
+    @Autowired
+    private UserCardCache userCardCache;
+    
     // Get the current user's feed (their posts and posts from users they follow)
     @GetMapping("/feed")
     public ResponseEntity<Map<String, Object>> getFeed(
             @RequestParam("user_id") Long userId,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         
@@ -76,34 +120,37 @@ public class PostController {
                 return ResponseEntity.badRequest().body(response);
             }
             
-            Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-            
-            Page<Post> postsPage = postRepository.findFeedPostsForUser(user.getId(), pageable);
-            
-            // Get all post IDs liked by this user
-            final List<Long> likedPostIds = postLikeRepository.findPostIdsByUserId(userId);
+            Map<String, Object> response = new HashMap<>();
             
-            // Map posts to enhanced DTOs with comments and likes
-            List<EnhancedPostDTO> posts = postsPage.getContent().stream()
-                    .map(post -> {
-                        // Get all comments for this post
-                        List<Comment> comments = commentRepository.findByPostIdAndParentCommentIsNullOrderByCreatedAtDesc(
-                                post.getId(), Pageable.unpaged()).getContent();
-                        
-                        // Get all likes for this post
-                        List<PostLike> likes = postLikeRepository.findByIdPostId(post.getId());
-                        
-                        return EnhancedPostDTO.fromEntity(post, comments, likes, likedPostIds);
-                    })
-                    .collect(Collectors.toList());
+            if (cursor == null) {
+                // Offset paging kept for older clients
+                Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+                Page<Post> postsPage = postRepository.findFeedPostsForUser(user.getId(), pageable);
+                
+                response.put("posts", feedHydrationService.hydrate(postsPage.getContent(), userId));
+                response.put("currentPage", postsPage.getNumber());
+                response.put("totalItems", postsPage.getTotalElements());
+                response.put("totalPages", postsPage.getTotalPages());
+            } else {
+                // Page the user's precomputed timeline when the client opts in with a cursor (blank for the first page)
+                CursorPage<Post> timeline = timelineService.readPage(user.getId(), Cursor.decode(cursor), size);
+                
+                // Load comments, replies, likes and authors for the whole page at once
+                List<EnhancedPostDTO> posts = feedHydrationService.hydrate(timeline.getItems(), userId);
+                
+                response.put("posts", posts);
+                response.put("nextCursor", timeline.getNextCursor());
+                response.put("hasMore", timeline.isHasMore());
+            }
             
+            return ResponseEntity.ok()
+                    .header(QueryCountFilter.HEADER, String.valueOf(QueryCountInspector.current()))
+                    .body(response);
+        } catch (IllegalArgumentException e) {
             Map<String, Object> response = new HashMap<>();
-            response.put("posts", posts);
-            response.put("currentPage", postsPage.getNumber());
-            response.put("totalItems", postsPage.getTotalElements());
-            response.put("totalPages", postsPage.getTotalPages());
-            
-            return ResponseEntity.ok(response);
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -116,31 +163,30 @@ public class PostController {
     @GetMapping
     public ResponseEntity<Map<String, Object>> getAllPosts(
             @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         
         try {
+            // Keyset paging when the client opts in with a cursor (blank for the first page)
+            if (cursor != null) {
+                Cursor position = Cursor.decodeOrFirst(cursor);
+                CursorPage<Post> slice = CursorPage.of(
+                        postRepository.findPageBefore(position.getCreatedAt(), position.getId(), PageRequest.of(0, size + 1)),
+                        size, post -> new Cursor(post.getCreatedAt(), post.getId()));
+                
+                Map<String, Object> response = new HashMap<>();
+                response.put("posts", feedHydrationService.hydrate(slice.getItems(), userId));
+                response.put("nextCursor", slice.getNextCursor());
+                response.put("hasMore", slice.isHasMore());
+                return ResponseEntity.ok(response);
+            }
+            
             Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
             Page<Post> postsPage = postRepository.findAllByOrderByCreatedAtDesc(pageable);
             
-            // Get user's liked posts if userId is provided
-            final List<Long> likedPostIds = userId != null 
-                ? postLikeRepository.findPostIdsByUserId(userId) 
-                : null;
-            
-            // Map posts to enhanced DTOs with comments and likes
-            List<EnhancedPostDTO> posts = postsPage.getContent().stream()
-                    .map(post -> {
-                        // Get all comments for this post
-                        List<Comment> comments = commentRepository.findByPostIdAndParentCommentIsNullOrderByCreatedAtDesc(
-                                post.getId(), Pageable.unpaged()).getContent();
-                        
-                        // Get all likes for this post
-                        List<PostLike> likes = postLikeRepository.findByIdPostId(post.getId());
-                        
-                        return EnhancedPostDTO.fromEntity(post, comments, likes, likedPostIds);
-                    })
-                    .collect(Collectors.toList());
+            // Load comments, replies, likes and authors for the whole page at once
+            List<EnhancedPostDTO> posts = feedHydrationService.hydrate(postsPage.getContent(), userId);
             
             Map<String, Object> response = new HashMap<>();
             response.put("posts", posts);
@@ -149,6 +195,11 @@ public class PostController {
             response.put("totalPages", postsPage.getTotalPages());
             
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -162,31 +213,30 @@ public class PostController {
     public ResponseEntity<Map<String, Object>> getUserPosts(
             @PathVariable Long userId,
             @RequestParam(required = false) Long currentUserId,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
         
         try {
+            // Keyset paging when the client opts in with a cursor (blank for the first page)
+            if (cursor != null) {
+                Cursor position = Cursor.decodeOrFirst(cursor);
+                CursorPage<Post> slice = CursorPage.of(
+                        postRepository.findByAuthorIdsBefore(List.of(userId), position.getCreatedAt(), position.getId(), PageRequest.of(0, size + 1)),
+                        size, post -> new Cursor(post.getCreatedAt(), post.getId()));
+                
+                Map<String, Object> response = new HashMap<>();
+                response.put("posts", feedHydrationService.hydrate(slice.getItems(), currentUserId));
+                response.put("nextCursor", slice.getNextCursor());
+                response.put("hasMore", slice.isHasMore());
+                return ResponseEntity.ok(response);
+            }
+            
             Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
             Page<Post> postsPage = postRepository.findByAuthorId(userId, pageable);
             
-            // Get current user's liked posts if provided
-            final List<Long> likedPostIds = currentUserId != null 
-                ? postLikeRepository.findPostIdsByUserId(currentUserId) 
-                : null;
-            
-            // Map posts to enhanced DTOs with comments and likes
-            List<EnhancedPostDTO> posts = postsPage.getContent().stream()
-                    .map(post -> {
-                        // Get all comments for this post
-                        List<Comment> comments = commentRepository.findByPostIdAndParentCommentIsNullOrderByCreatedAtDesc(
-                                post.getId(), Pageable.unpaged()).getContent();
-                        
-                        // Get all likes for this post
-                        List<PostLike> likes = postLikeRepository.findByIdPostId(post.getId());
-                        
-                        return EnhancedPostDTO.fromEntity(post, comments, likes, likedPostIds);
-                    })
-                    .collect(Collectors.toList());
+            // Load comments, replies, likes and authors for the whole page at once
+            List<EnhancedPostDTO> posts = feedHydrationService.hydrate(postsPage.getContent(), currentUserId);
             
             Map<String, Object> response = new HashMap<>();
             response.put("posts", posts);
@@ -195,6 +245,11 @@ public class PostController {
             response.put("totalPages", postsPage.getTotalPages());
             
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -209,22 +264,8 @@ public class PostController {
             @PathVariable Long postId,
             @RequestParam(required = false) Long userId) {
         try {
-            return postRepository.findById(postId)
-                    .map(post -> {
-                        // Get liked status if userId is provided
-                        final List<Long> likedPostIds = userId != null 
-                            ? postLikeRepository.findPostIdsByUserId(userId) 
-                            : null;
-                        
-                        // Get all comments for this post
-                        List<Comment> comments = commentRepository.findByPostIdAndParentCommentIsNullOrderByCreatedAtDesc(
-                                post.getId(), Pageable.unpaged()).getContent();
-                        
-                        // Get all likes for this post
-                        List<PostLike> likes = postLikeRepository.findByIdPostId(post.getId());
-                        
-                        return ResponseEntity.ok(EnhancedPostDTO.fromEntity(post, comments, likes, likedPostIds));
-                    })
+            return postRepository.findWithAuthorById(postId)
+                    .map(post -> ResponseEntity.ok(feedHydrationService.hydrate(List.of(post), userId).get(0)))
                     .orElse(ResponseEntity.notFound().build());
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
@@ -239,7 +280,8 @@ public class PostController {
     public ResponseEntity<?> createPost(
             @RequestParam("user_id") Long userId,
             @RequestParam("content") String content,
-            @RequestParam(value = "image", required = false) MultipartFile image) {
+            @RequestParam(value = "image", required = false) MultipartFile image,
+            @RequestParam(value = "imageUrl", required = false) String imageUrl) {
         
         try {
             User user = userRepository.findById(userId).orElse(null);
@@ -257,44 +299,41 @@ public class PostController {
             post.setLikeCount(0);
             post.setCommentCount(0);
             
-            // Process image if provided
+            // Stream the image to disk, or attach one already sent through /api/media/uploads
             if (image != null && !image.isEmpty()) {
-                // Create upload directory if it doesn't exist
-                File uploadDir = new File(UPLOAD_DIR);
-                if (!uploadDir.exists()) {
-                    uploadDir.mkdirs();
+                post.setImageUrl(mediaStorageService.storePostImage(image));
+            } else if (imageUrl != null && !imageUrl.isEmpty()) {
+                if (!mediaStorageService.isStoredPostImage(imageUrl)) {
+                    return ResponseEntity.badRequest().body(Map.of(
+                        "success", false,
+                        "message", "Unknown image: " + imageUrl
+                    ));
                 }
-                
-                // Generate unique filename for the image
-                String originalFilename = image.getOriginalFilename();
-                String fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
-                String filename = UUID.randomUUID().toString() + fileExtension;
-                
-                // Save the file
-                Path filePath = Paths.get(UPLOAD_DIR + filename);
-                Files.write(filePath, image.getBytes());
-                
-                // Create URL for accessing the image
-                String imageUrl = "/uploads/posts/" + filename;
                 post.setImageUrl(imageUrl);
             }
             
             Post savedPost = postRepository.save(post);
+            postSearchIndex.index(savedPost);
             
-            // Get all comments for this post (will be empty for new post)
-            List<Comment> comments = Collections.emptyList();
-            
-            // Get all likes for this post (will be empty for new post)
-            List<PostLike> likes = Collections.emptyList();
-            
-            // Create a singleton list with just this post's ID
-            List<Long> likedPostIds = List.of();
+            // Push the post into the followers' timelines; a failure here must not lose the post
+            try {
+                timelineService.fanOut(savedPost);
+            } catch (Exception e) {
+                logger.error("Failed to fan out post {}", savedPost.getId(), e);
+            }
             
+            // A new post has no comments or likes yet
             return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
                 "success", true,
                 "message", "Post created successfully",
-                "data", EnhancedPostDTO.fromEntity(savedPost, comments, likes, likedPostIds)
+                "data", EnhancedPostDTO.fromPage(savedPost, userCardCache.card(user.getId()),
+                        List.of(), List.of(), List.of())
             ));
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         } catch (IOException e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -318,46 +357,30 @@ public class PostController {
         try {
             return postRepository.findById(postId)
                     .map(post -> {
+                        String previousImageUrl = post.getImageUrl();
                         post.setContent(content);
                         
                         // Process image if provided
                         if (image != null && !image.isEmpty()) {
                             try {
-                                // Delete old image if exists
-                                if (post.getImageUrl() != null && !post.getImageUrl().isEmpty()) {
-                                    String oldFilename = post.getImageUrl().substring(post.getImageUrl().lastIndexOf("/") + 1);
-                                    Path oldFilePath = Paths.get(UPLOAD_DIR + oldFilename);
-                                    Files.deleteIfExists(oldFilePath);
-                                }
-                                
-                                // Create upload directory if it doesn't exist
-                                File uploadDir = new File(UPLOAD_DIR);
-                                if (!uploadDir.exists()) {
-                                    uploadDir.mkdirs();
-                                }
-                                
-                                // Generate unique filename for the image
-                                String originalFilename = image.getOriginalFilename();
-                                String fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
-                                String filename = UUID.randomUUID().toString() + fileExtension;
-                                
-                                // Save the file
-                                Path filePath = Paths.get(UPLOAD_DIR + filename);
-                                Files.write(filePath, image.getBytes());
-                                
-                                // Update image URL
-                                post.setImageUrl("/uploads/posts/" + filename);
+                                post.setImageUrl(mediaStorageService.storePostImage(image));
                             } catch (IOException e) {
                                 throw new RuntimeException("Failed to upload image: " + e.getMessage());
                             }
                         }
                         
                         Post updatedPost = postRepository.save(post);
+                        postSearchIndex.index(updatedPost);
+                        
+                        // The old file may still be used by another post with the same image
+                        if (image != null && !image.isEmpty()) {
+                            mediaStorageService.releasePostImage(previousImageUrl);
+                        }
                         
                         return ResponseEntity.ok(Map.of(
                             "success", true,
                             "message", "Post updated successfully",
-                            "data", PostDTO.fromEntity(updatedPost)
+                            "data", PostDTO.fromEntity(updatedPost, userCardCache.card(updatedPost.getAuthor().getId()))
                         ));
                     })
                     .orElse(ResponseEntity.notFound().build());
@@ -378,7 +401,12 @@ public class PostController {
             @RequestPart(value = "image", required = false) MultipartFile image) {
         
         try {
-            User currentUser = (User) authentication.getPrincipal();
+            if (authentication == null || !(authentication.getPrincipal() instanceof JwtPrincipal currentUser)) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
+                    "success", false,
+                    "message", "Authentication required"
+                ));
+            }
             
             return postRepository.findById(postId)
                     .map(post -> {
@@ -390,35 +418,13 @@ public class PostController {
                             ));
                         }
                         
+                        String previousImageUrl = post.getImageUrl();
                         post.setContent(content);
                         
                         // Handle image update if provided
                         if (image != null && !image.isEmpty()) {
                             try {
-                                // Create upload directory if it doesn't exist
-                                File uploadDir = new File(UPLOAD_DIR);
-                                if (!uploadDir.exists()) {
-                                    uploadDir.mkdirs();
-                                }
-                                
-                                // Delete old image if exists
-                                if (post.getImageUrl() != null && !post.getImageUrl().isEmpty()) {
-                                    String oldFilename = post.getImageUrl().substring(post.getImageUrl().lastIndexOf("/") + 1);
-                                    Path oldFilePath = Paths.get(UPLOAD_DIR + oldFilename);
-                                    Files.deleteIfExists(oldFilePath);
-                                }
-                                
-                                // Generate unique filename for the image
-                                String originalFilename = image.getOriginalFilename();
-                                String fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
-                                String filename = UUID.randomUUID().toString() + fileExtension;
-                                
-                                // Save the file
-                                Path filePath = Paths.get(UPLOAD_DIR + filename);
-                                Files.write(filePath, image.getBytes());
-                                
-                                // Update image URL
-                                post.setImageUrl("/uploads/posts/" + filename);
+                                post.setImageUrl(mediaStorageService.storePostImage(image));
                             } catch (IOException e) {
                                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
                                     "success", false,
@@ -428,11 +434,17 @@ public class PostController {
                         }
                         
                         Post updatedPost = postRepository.save(post);
+                        postSearchIndex.index(updatedPost);
+                        
+                        // The old file may still be used by another post with the same image
+                        if (image != null && !image.isEmpty()) {
+                            mediaStorageService.releasePostImage(previousImageUrl);
+                        }
                         
                         return ResponseEntity.ok(Map.of(
                             "success", true,
                             "message", "Post updated successfully",
-                            "data", PostDTO.fromEntity(updatedPost)
+                            "data", PostDTO.fromEntity(updatedPost, userCardCache.card(updatedPost.getAuthor().getId()))
                         ));
                     })
                     .orElse(ResponseEntity.notFound().build());
@@ -466,35 +478,13 @@ public class PostController {
                             ));
                         }
                         
+                        String previousImageUrl = post.getImageUrl();
                         post.setContent(content);
                         
                         // Handle image update if provided
                         if (image != null && !image.isEmpty()) {
                             try {
-                                // Create upload directory if it doesn't exist
-                                File uploadDir = new File(UPLOAD_DIR);
-                                if (!uploadDir.exists()) {
-                                    uploadDir.mkdirs();
-                                }
-                                
-                                // Delete old image if exists
-                                if (post.getImageUrl() != null && !post.getImageUrl().isEmpty()) {
-                                    String oldFilename = post.getImageUrl().substring(post.getImageUrl().lastIndexOf("/") + 1);
-                                    Path oldFilePath = Paths.get(UPLOAD_DIR + oldFilename);
-                                    Files.deleteIfExists(oldFilePath);
-                                }
-                                
-                                // Generate unique filename for the image
-                                String originalFilename = image.getOriginalFilename();
-                                String fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
-                                String filename = UUID.randomUUID().toString() + fileExtension;
-                                
-                                // Save the file
-                                Path filePath = Paths.get(UPLOAD_DIR + filename);
-                                Files.write(filePath, image.getBytes());
-                                
-                                // Update image URL
-                                post.setImageUrl("/uploads/posts/" + filename);
+                                post.setImageUrl(mediaStorageService.storePostImage(image));
                             } catch (IOException e) {
                                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
                                     "success", false,
@@ -504,11 +494,17 @@ public class PostController {
                         }
                         
                         Post updatedPost = postRepository.save(post);
+                        postSearchIndex.index(updatedPost);
+                        
+                        // The old file may still be used by another post with the same image
+                        if (image != null && !image.isEmpty()) {
+                            mediaStorageService.releasePostImage(previousImageUrl);
+                        }
                         
                         return ResponseEntity.ok(Map.of(
                             "success", true,
                             "message", "Post updated successfully",
-                            "data", PostDTO.fromEntity(updatedPost)
+                            "data", PostDTO.fromEntity(updatedPost, userCardCache.card(updatedPost.getAuthor().getId()))
                         ));
                     })
                     .orElse(ResponseEntity.notFound().build());
@@ -526,19 +522,12 @@ public class PostController {
         try {
             return postRepository.findById(postId)
                     .map(post -> {
-                        // Delete image file if exists
-                        if (post.getImageUrl() != null && !post.getImageUrl().isEmpty()) {
-                            try {
-                                String filename = post.getImageUrl().substring(post.getImageUrl().lastIndexOf("/") + 1);
-                                Path filePath = Paths.get(UPLOAD_DIR + filename);
-                                Files.deleteIfExists(filePath);
-                            } catch (IOException e) {
-                                // Log error but continue with post deletion
-                                System.err.println("Failed to delete image file: " + e.getMessage());
-                            }
-                        }
-                        
                         postRepository.delete(post);
+                        timelineService.remove(postId);
+                        postSearchIndex.remove(postId);
+                        
+                        // The file may be shared with other posts carrying the same image
+                        mediaStorageService.releasePostImage(post.getImageUrl());
                         
                         return ResponseEntity.ok(Map.of(
                             "success", true,
@@ -563,33 +552,32 @@ public class PostController {
             @RequestParam(defaultValue = "10") int size) {
         
         try {
-            Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
-            Page<Post> postsPage = postRepository.findByContentContainingIgnoreCase(keyword, pageable);
-            
-            // Get liked posts if userId is provided
-            final List<Long> likedPostIds = userId != null 
-                ? postLikeRepository.findPostIdsByUserId(userId) 
-                : null;
+            // Rank matching post IDs from the in-memory index, then load only that page
+            PostSearchIndex.SearchResult result = postSearchIndex.search(keyword, page * size, size);
+            List<Long> postIds = result.getHits().stream()
+                    .map(PostSearchIndex.Hit::getPostId)
+                    .collect(Collectors.toList());
             
-            // Map posts to enhanced DTOs with comments and likes
-            List<EnhancedPostDTO> posts = postsPage.getContent().stream()
-                    .map(post -> {
-                        // Get all comments for this post
-                        List<Comment> comments = commentRepository.findByPostIdAndParentCommentIsNullOrderByCreatedAtDesc(
-                                post.getId(), Pageable.unpaged()).getContent();
-                        
-                        // Get all likes for this post
-                        List<PostLike> likes = postLikeRepository.findByIdPostId(post.getId());
-                        
-                        return EnhancedPostDTO.fromEntity(post, comments, likes, likedPostIds);
-                    })
+            Map<Long, Post> postsById = postIds.isEmpty()
+                    ? Map.of()
+                    : postRepository.findByIdIn(postIds).stream().collect(Collectors.toMap(Post::getId, post -> post));
+            List<Post> hits = postIds.stream()
+                    .map(postsById::get)
+                    .filter(post -> post != null)
                     .collect(Collectors.toList());
             
+            // Load comments, replies, likes and authors for the whole page at once
+            List<EnhancedPostDTO> posts = feedHydrationService.hydrate(hits, userId);
+            
+            Map<Long, String> highlights = new HashMap<>();
+            hits.forEach(post -> highlights.put(post.getId(), postSearchIndex.highlight(post.getContent(), keyword)));
+            
             Map<String, Object> response = new HashMap<>();
             response.put("posts", posts);
-            response.put("currentPage", postsPage.getNumber());
-            response.put("totalItems", postsPage.getTotalElements());
-            response.put("totalPages", postsPage.getTotalPages());
+            response.put("highlights", highlights);
+            response.put("currentPage", page);
+            response.put("totalItems", result.getTotal());
+            response.put("totalPages", size > 0 ? (result.getTotal() + size - 1) / size : 0);
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -600,17 +588,24 @@ public class PostController {
         }
     }
     
-    // Configure static resource handler for serving uploaded files
+    // Serve an uploaded post image; Range and If-None-Match are answered from the ETag and file region
     @GetMapping("/uploads/posts/{filename:.+}")
-    @ResponseBody
-    public ResponseEntity<byte[]> serveFile(@PathVariable String filename) {
+    public ResponseEntity<Resource> serveFile(@PathVariable String filename) {
         try {
-            Path file = Paths.get(UPLOAD_DIR + filename);
-            byte[] resource = Files.readAllBytes(file);
+            Path file = fileStorageService.resolve("/uploads/posts/" + filename);
+            MediaFileIndex.FileInfo info = file != null ? mediaFileIndex.lookup(file) : null;
+            if (info == null) {
+                return ResponseEntity.notFound().build();
+            }
             
+            // The body is streamed from disk by the resource converter, never loaded whole
             return ResponseEntity
                     .ok()
-                    .body(resource);
+                    .eTag(info.getEtag())
+                    .lastModified(info.getLastModified())
+                    .cacheControl(MediaFileIndex.CACHE_CONTROL)
+                    .contentType(MediaTypeFactory.getMediaType(filename).orElse(MediaType.APPLICATION_OCTET_STREAM))
+                    .body(new FileSystemResource(file));
         } catch (IOException e) {
             return ResponseEntity.notFound().build();
         }
@@ -642,6 +637,64 @@ public class PostController {
         }
     }
     
+    // Get the users who liked a post, newest first (keyset paginated)
+    @GetMapping("/{postId}/likes")
+    public ResponseEntity<?> getPostLikers(
+            @PathVariable Long postId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            if (!postRepository.existsById(postId)) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            Cursor position = Cursor.decodeOrFirst(cursor);
+            CursorPage<LikerDTO> slice = CursorPage.of(
+                    postLikeRepository.findLikersBefore(postId, position.getCreatedAt(), position.getId(), PageRequest.of(0, size + 1)),
+                    size, liker -> new Cursor(liker.getLikedAt(), liker.getUserId()));
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("likers", slice.getItems().stream().map(LikerDTO::toUserDTO).collect(Collectors.toList()));
+            response.put("nextCursor", slice.getNextCursor());
+            response.put("hasMore", slice.isHasMore());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Failed to get post likes: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+    
+    // Check which of the given posts a user has liked
+    @GetMapping(value = "/liked-by/{userId}", params = "postIds")
+    public ResponseEntity<?> getLikedStates(
+            @PathVariable Long userId,
+            @RequestParam List<Long> postIds) {
+        try {
+            Set<Long> liked = likedPostResolver.likedAmong(userId, postIds);
+            Map<Long, Boolean> likedStates = new HashMap<>();
+            postIds.forEach(postId -> likedStates.put(postId, liked.contains(postId)));
+            
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Liked states retrieved successfully",
+                "data", likedStates
+            ));
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Failed to get liked states: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+    
     // Check if a user has liked a specific post
     @GetMapping("/{postId}/liked-by/{userId}")
     public ResponseEntity<?> checkIfUserLikedPost(
@@ -673,8 +726,7 @@ public class PostController {
             Long userId = Long.valueOf(requestBody.get("user_id").toString());
             
             // Check if user exists
-            User user = userRepository.findById(userId).orElse(null);
-            if (user == null) {
+            if (!userRepository.existsById(userId)) {
                 return ResponseEntity.badRequest().body(Map.of(
                     "success", false,
                     "message", "User not found with ID: " + userId
@@ -690,30 +742,23 @@ public class PostController {
                 ));
             }
             
-            // Check if already liked
-            if (postLikeRepository.existsByIdUserIdAndIdPostId(userId, postId)) {
+            // Insert the like unless it exists; of two concurrent likes only one inserts and counts
+            if (postLikeRepository.insertIfAbsent(userId, postId, LocalDateTime.now()) == 0) {
                 return ResponseEntity.ok(Map.of(
                     "success", true,
                     "message", "Post already liked",
-                    "likeCount", post.getLikeCount()
+                    "likeCount", engagementCounterService.getLikeCount(post)
                 ));
             }
+            likedPostResolver.recordLike(userId, postId);
             
-            // Create new like record
-            PostLike postLike = new PostLike();
-            postLike.setId(new PostLike.PostLikeId(userId, postId));
-            postLike.setUser(user);
-            postLike.setPost(post);
-            postLikeRepository.save(postLike);
-            
-            // Update post like count
-            post.setLikeCount(post.getLikeCount() + 1);
-            Post updatedPost = postRepository.save(post);
+            // Update post like count (written behind, no row lock on the post)
+            engagementCounterService.addLikes(postId, 1);
             
             return ResponseEntity.ok(Map.of(
                 "success", true,
                 "message", "Post liked successfully",
-                "likeCount", updatedPost.getLikeCount()
+                "likeCount", engagementCounterService.getLikeCount(post)
             ));
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
@@ -750,26 +795,23 @@ public class PostController {
                 ));
             }
             
-            // Check if like exists
-            if (!postLikeRepository.existsByIdUserIdAndIdPostId(userId, postId)) {
+            // Delete the like; of two concurrent unlikes only the one that removed the row counts
+            if (postLikeRepository.deleteLike(userId, postId) == 0) {
                 return ResponseEntity.ok(Map.of(
                     "success", true,
                     "message", "Post is not liked by this user",
-                    "likeCount", post.getLikeCount()
+                    "likeCount", engagementCounterService.getLikeCount(post)
                 ));
             }
+            likedPostResolver.recordUnlike(userId, postId);
             
-            // Delete like
-            postLikeRepository.deleteByIdUserIdAndIdPostId(userId, postId);
-            
-            // Update post like count
-            post.setLikeCount(Math.max(0, post.getLikeCount() - 1));
-            Post updatedPost = postRepository.save(post);
+            // Update post like count (written behind, no row lock on the post)
+            engagementCounterService.addLikes(postId, -1);
             
             return ResponseEntity.ok(Map.of(
                 "success", true,
                 "message", "Post unliked successfully",
-                "likeCount", updatedPost.getLikeCount()
+                "likeCount", engagementCounterService.getLikeCount(post)
             ));
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
@@ -1,11 +1,10 @@
 package com.backend.stageconnect.controller;
 
-import com.backend.stageconnect.model.ChatMessage;
+import com.backend.stageconnect.service.PresenceService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
-import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.messaging.SessionConnectedEvent;
@@ -17,7 +16,7 @@ public class WebSocketEventListener {
     private static final Logger logger = LoggerFactory.getLogger(WebSocketEventListener.class);
 
     @Autowired
-    private SimpMessageSendingOperations messagingTemplate;
+    private PresenceService presenceService;
 
     @EventListener
     public void handleWebSocketConnectListener(SessionConnectedEvent event) {
@@ -32,14 +31,8 @@ public class WebSocketEventListener {
         if (userId != null) {
             logger.info("User Disconnected : " + userId);
 
-            // Create a leave message
-            ChatMessage chatMessage = new ChatMessage();
-            chatMessage.setType(ChatMessage.MessageType.LEAVE);
-            chatMessage.setSenderId(userId);
-
-            // Broadcast to user's connections that they've gone offline
-            messagingTemplate.convertAndSend("/topic/public", chatMessage);
-            
+            // Drop the session; the last one going tells the user's connections they've gone offline
+            presenceService.disconnect(userId, event.getSessionId());
             // You could update the user's online status in the database here
         }
     }
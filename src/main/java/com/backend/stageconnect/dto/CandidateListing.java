@@ -0,0 +1,18 @@
+package com.backend.stageconnect.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// A row of the candidate directory, read straight from JDBC
+public record CandidateListing(
+        Long id,
+        String firstName,
+        String lastName,
+        String email,
+        String phone,
+        String location,
+        String title,
+        String website,
+        String companyOrUniversity,
+        String about,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String photo) {
+}
@@ -1,16 +1,12 @@
 package com.backend.stageconnect.dto;
 
-import com.backend.stageconnect.entity.Candidate;
 import com.backend.stageconnect.entity.Comment;
-import com.backend.stageconnect.entity.Responsible;
-import com.backend.stageconnect.entity.User;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Data
 @NoArgsConstructor
@@ -27,29 +23,30 @@ public class CommentDTO {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private List<CommentDTO> replies;
+    // Replies in the whole thread for a top-level comment, direct replies otherwise
+    private long replyCount;
 
-    // Convert from entity to DTO
-    public static CommentDTO fromEntity(Comment comment, boolean includeReplies) {
+    // Used by JPQL constructor expressions; candidates show their photo, responsibles their company's
+    public CommentDTO(Long id, String content, Long authorId, String authorFirstName, String authorLastName,
+                      String candidatePhoto, String companyPhoto, Long postId, Long parentId, int likeCount,
+                      LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, content, authorId, authorFirstName + " " + authorLastName,
+             candidatePhoto != null ? candidatePhoto : companyPhoto,
+             postId, parentId, likeCount, createdAt, updatedAt, null, 0);
+    }
+
+    // Convert from entity to DTO; author name and photo come from the user card
+    public static CommentDTO fromEntity(Comment comment, UserCard author) {
         CommentDTO dto = new CommentDTO();
         dto.setId(comment.getId());
         dto.setContent(comment.getContent());
         
-        User author = comment.getAuthor();
-        dto.setAuthorId(author.getId());
-        dto.setAuthorName(author.getFirstName() + " " + author.getLastName());
-        
-        // Handle profile picture based on user type
-        if (author instanceof Candidate) {
-            dto.setAuthorProfilePic(((Candidate) author).getPhoto());
-        } else if (author instanceof Responsible) {
-            // Try to get company photo if available
-            try {
-                dto.setAuthorProfilePic(((Responsible) author).getCompany().getPhoto());
-            } catch (Exception e) {
-                dto.setAuthorProfilePic(null); // Set to null if not available
-            }
-        } else {
-            dto.setAuthorProfilePic(null);
+        if (comment.getAuthor() != null) {
+            dto.setAuthorId(comment.getAuthor().getId());
+        }
+        if (author != null) {
+            dto.setAuthorName(author.displayName());
+            dto.setAuthorProfilePic(author.photoUrl());
         }
         
         if (comment.getPost() != null) {
@@ -64,12 +61,6 @@ public class CommentDTO {
         dto.setCreatedAt(comment.getCreatedAt());
         dto.setUpdatedAt(comment.getUpdatedAt());
         
-        if (includeReplies && comment.getReplies() != null && !comment.getReplies().isEmpty()) {
-            dto.setReplies(comment.getReplies().stream()
-                    .map(reply -> CommentDTO.fromEntity(reply, false)) // Avoid deep nesting
-                    .collect(Collectors.toList()));
-        }
-        
         return dto;
     }
-} 
\ No newline at end of file
+}
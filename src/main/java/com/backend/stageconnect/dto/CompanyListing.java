@@ -0,0 +1,32 @@
+package com.backend.stageconnect.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// A row of the company directory, read straight from JDBC together with its technologies
+public record CompanyListing(
+        Long id,
+        String name,
+        String industry,
+        String size,
+        LocalDate foundedDate,
+        String website,
+        String location,
+        String email,
+        String phone,
+        String address,
+        String city,
+        String postalCode,
+        String country,
+        List<String> technologies,
+        String registrationNumber,
+        String vatId,
+        String legalForm,
+        String linkedInUrl,
+        String twitterUrl,
+        String instagramUrl,
+        String facebookUrl,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String photo) {
+}
@@ -1,13 +1,14 @@
 package com.backend.stageconnect.dto;
 
+import com.backend.stageconnect.entity.ConversationSummary;
 import com.backend.stageconnect.entity.Message;
-import com.backend.stageconnect.entity.User;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Data
@@ -48,39 +49,23 @@ public class ConversationDTO {
         private boolean isRead;
     }
     
-    // Create a ConversationDTO from a partner user and the latest message
+    // Create a ConversationDTO from the partner's card and the latest message;
+    // cards holds both participants for the message list
     public static ConversationDTO fromPartnerAndLastMessage(
-            User partner, 
+            UserCard partner, 
             Message lastMessage, 
             int unreadCount, 
             Long currentUserId,
-            List<Message> allMessages) {
+            List<Message> allMessages,
+            Map<Long, UserCard> cards) {
         
         ConversationDTO dto = new ConversationDTO();
         
         // Generate conversation ID
-        dto.setId(Message.generateConversationId(currentUserId, partner.getId()));
+        dto.setId(Message.generateConversationId(currentUserId, partner.id()));
         
-        // Set partner user info
-        UserSummaryDTO userDto = new UserSummaryDTO();
-        userDto.setId(partner.getId());
-        userDto.setName(partner.getFirstName() + " " + partner.getLastName());
-        
-        // Set profile picture if available
-        try {
-            String className = partner.getClass().getSimpleName();
-            if (className.equals("Candidate")) {
-                userDto.setProfilePicture((String) getPropertyValue(partner, "photo"));
-            }
-        } catch (Exception e) {
-            // Default or empty if not available
-        }
-        
-        // For online status, you would need a separate mechanism
-        // This is a placeholder - implement real online status tracking in a production app
-        userDto.setOnline(false);
-        
-        dto.setUser(userDto);
+        // Set partner user info; live presence is only reported by the inbox
+        dto.setUser(new UserSummaryDTO(partner.id(), partner.displayName(), partner.photoUrl(), false));
         
         // Set last message info
         if (lastMessage != null) {
@@ -96,22 +81,26 @@ public class ConversationDTO {
         // Set all messages if provided
         if (allMessages != null) {
             dto.setMessages(allMessages.stream()
-                    .map(MessageDTO::fromEntity)
+                    .map(message -> MessageDTO.fromEntity(message, cards))
                     .collect(Collectors.toList()));
         }
         
         return dto;
     }
     
-    // Helper method to safely get a property value using reflection
-    private static Object getPropertyValue(Object object, String propertyName) {
-        try {
-            // Try to find a getter method first (e.g., getName for "name" property)
-            String getterName = "get" + propertyName.substring(0, 1).toUpperCase() + propertyName.substring(1);
-            java.lang.reflect.Method getter = object.getClass().getMethod(getterName);
-            return getter.invoke(object);
-        } catch (Exception e) {
-            return null;
-        }
+    // Create a ConversationDTO from a maintained inbox summary row
+    public static ConversationDTO fromSummary(ConversationSummary summary, UserCard partner, Long currentUserId, boolean online) {
+        ConversationDTO dto = new ConversationDTO();
+        dto.setId(summary.getConversationId());
+        dto.setUser(new UserSummaryDTO(partner.id(), partner.displayName(), partner.photoUrl(), online));
+        
+        LastMessageDTO lastMessageDto = new LastMessageDTO();
+        lastMessageDto.setContent(summary.getLastMessageContent());
+        lastMessageDto.setTimestamp(summary.getLastMessageAt());
+        lastMessageDto.setRead(summary.isLastMessageRead() || summary.getLastSenderId().equals(currentUserId));
+        dto.setLastMessage(lastMessageDto);
+        
+        dto.setUnreadCount(summary.getUnreadFor(currentUserId));
+        return dto;
     }
-} 
\ No newline at end of file
+}
@@ -1,16 +1,12 @@
 package com.backend.stageconnect.dto;
 
-import com.backend.stageconnect.entity.Comment;
 import com.backend.stageconnect.entity.Post;
-import com.backend.stageconnect.entity.PostLike;
-import com.backend.stageconnect.entity.User;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Data
 @EqualsAndHashCode(callSuper = true)
@@ -18,11 +14,13 @@ public class EnhancedPostDTO extends PostDTO {
     private List<CommentDTO> comments;
     private List<UserDTO> likedBy;
     
-    public static EnhancedPostDTO fromEntity(
+    // Build the DTO from a comment preview and a liker preview that were loaded in bulk for a whole page
+    public static EnhancedPostDTO fromPage(
             Post post, 
-            List<Comment> comments, 
-            List<PostLike> likes,
-            List<Long> likedPostIds) {
+            UserCard author,
+            List<CommentDTO> comments, 
+            List<UserDTO> likedBy,
+            Collection<Long> likedPostIds) {
         
         EnhancedPostDTO dto = new EnhancedPostDTO();
         
@@ -35,70 +33,17 @@ public class EnhancedPostDTO extends PostDTO {
         dto.setCommentCount(post.getCommentCount());
         
         // Set author info
-        if (post.getAuthor() != null) {
-            dto.setAuthorId(post.getAuthor().getId());
-            dto.setAuthorName(post.getAuthor().getFirstName() + " " + post.getAuthor().getLastName());
-            
-            // Handle different user types
-            if (post.getAuthor() instanceof com.backend.stageconnect.entity.Candidate) {
-                com.backend.stageconnect.entity.Candidate candidate = (com.backend.stageconnect.entity.Candidate) post.getAuthor();
-                dto.setAuthorProfileImage(candidate.getPhoto());
-            } else if (post.getAuthor() instanceof com.backend.stageconnect.entity.Responsible) {
-                // For company representatives, we might want to use company logo
-                com.backend.stageconnect.entity.Responsible responsible = (com.backend.stageconnect.entity.Responsible) post.getAuthor();
-                if (responsible.getCompany() != null) {
-                    dto.setAuthorProfileImage(responsible.getCompany().getPhoto());
-                }
-            }
-        }
+        dto.setAuthor(post, author);
         
         // Set whether current user has liked this post
         dto.setLikedByCurrentUser(likedPostIds != null && likedPostIds.contains(post.getId()));
         
-        // Transform all comments
-        if (comments != null && !comments.isEmpty()) {
-            // Filter to only top-level comments (no parent)
-            List<Comment> topLevelComments = comments.stream()
-                    .filter(comment -> comment.getParentComment() == null)
-                    .collect(Collectors.toList());
-            
-            dto.setComments(topLevelComments.stream()
-                    .map(comment -> CommentDTO.fromEntity(comment, true))
-                    .collect(Collectors.toList()));
-        } else {
-            dto.setComments(Collections.emptyList());
-        }
+        // Only a preview of the comments; threads are read through the comment endpoints
+        dto.setComments(comments != null ? comments : Collections.emptyList());
         
-        // Transform users who liked the post
-        if (likes != null && !likes.isEmpty()) {
-            dto.setLikedBy(likes.stream()
-                    .map(like -> {
-                        User user = like.getUser();
-                        return new UserDTO(
-                                user.getId(),
-                                user.getFirstName(),
-                                user.getLastName(),
-                                getUserProfileImage(user)
-                        );
-                    })
-                    .collect(Collectors.toList()));
-        } else {
-            dto.setLikedBy(Collections.emptyList());
-        }
+        // Only a preview of the likers; the full list is paged through /api/posts/{postId}/likes
+        dto.setLikedBy(likedBy != null ? likedBy : Collections.emptyList());
         
         return dto;
     }
-    
-    private static String getUserProfileImage(User user) {
-        if (user instanceof com.backend.stageconnect.entity.Candidate) {
-            return ((com.backend.stageconnect.entity.Candidate) user).getPhoto();
-        } else if (user instanceof com.backend.stageconnect.entity.Responsible) {
-            com.backend.stageconnect.entity.Responsible responsible = 
-                (com.backend.stageconnect.entity.Responsible) user;
-            if (responsible.getCompany() != null) {
-                return responsible.getCompany().getPhoto();
-            }
-        }
-        return null;
-    }
-} 
\ No newline at end of file
+}
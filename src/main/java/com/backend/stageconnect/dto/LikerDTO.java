@@ -0,0 +1,30 @@
+package com.backend.stageconnect.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// A user who liked a post, read straight from a projection query without loading User entities
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LikerDTO {
+    private Long postId;
+    private Long userId;
+    private String firstName;
+    private String lastName;
+    private String profileImage;
+    private LocalDateTime likedAt;
+
+    // Used by JPQL constructor expressions; candidates show their photo, responsibles their company's
+    public LikerDTO(Long postId, Long userId, String firstName, String lastName,
+                    String candidatePhoto, String companyPhoto, LocalDateTime likedAt) {
+        this(postId, userId, firstName, lastName, candidatePhoto != null ? candidatePhoto : companyPhoto, likedAt);
+    }
+
+    public UserDTO toUserDTO() {
+        return new UserDTO(userId, firstName, lastName, profileImage);
+    }
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
@@ -22,39 +23,28 @@ public class MessageDTO {
     private boolean isRead;
     private LocalDateTime timestamp;
     
-    public static MessageDTO fromEntity(Message message) {
+    // Names and photos come from the user cards of both sides, keyed by user ID
+    public static MessageDTO fromEntity(Message message, Map<Long, UserCard> cards) {
         MessageDTO dto = new MessageDTO();
         dto.setId(message.getId());
         
         // Set sender info
         if (message.getSender() != null) {
             dto.setSenderId(message.getSender().getId());
-            dto.setSenderName(message.getSender().getFirstName() + " " + message.getSender().getLastName());
-            
-            // Set photo if available (you may need to adapt this based on your User entity)
-            try {
-                String className = message.getSender().getClass().getSimpleName();
-                if (className.equals("Candidate")) {
-                    dto.setSenderPhoto((String) getPropertyValue(message.getSender(), "photo"));
-                }
-            } catch (Exception e) {
-                // Ignore if photo is not available
+            UserCard sender = cards.get(dto.getSenderId());
+            if (sender != null) {
+                dto.setSenderName(sender.displayName());
+                dto.setSenderPhoto(sender.photoUrl());
             }
         }
         
         // Set receiver info
         if (message.getReceiver() != null) {
             dto.setReceiverId(message.getReceiver().getId());
-            dto.setReceiverName(message.getReceiver().getFirstName() + " " + message.getReceiver().getLastName());
-            
-            // Set photo if available
-            try {
-                String className = message.getReceiver().getClass().getSimpleName();
-                if (className.equals("Candidate")) {
-                    dto.setReceiverPhoto((String) getPropertyValue(message.getReceiver(), "photo"));
-                }
-            } catch (Exception e) {
-                // Ignore if photo is not available
+            UserCard receiver = cards.get(dto.getReceiverId());
+            if (receiver != null) {
+                dto.setReceiverName(receiver.displayName());
+                dto.setReceiverPhoto(receiver.photoUrl());
             }
         }
         
@@ -64,16 +54,4 @@ public class MessageDTO {
         
         return dto;
     }
-    
-    // Helper method to safely get a property value using reflection
-    private static Object getPropertyValue(Object object, String propertyName) {
-        try {
-            // Try to find a getter method first (e.g., getName for "name" property)
-            String getterName = "get" + propertyName.substring(0, 1).toUpperCase() + propertyName.substring(1);
-            java.lang.reflect.Method getter = object.getClass().getMethod(getterName);
-            return getter.invoke(object);
-        } catch (Exception e) {
-            return null;
-        }
-    }
-} 
\ No newline at end of file
+}
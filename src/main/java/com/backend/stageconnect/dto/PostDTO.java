@@ -4,7 +4,7 @@ import com.backend.stageconnect.entity.Post;
 import lombok.Data;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.Collection;
 
 @Data
 public class PostDTO {
@@ -19,7 +19,7 @@ public class PostDTO {
     private String authorProfileImage;
     private boolean likedByCurrentUser;
 
-    public static PostDTO fromEntity(Post post) {
+    public static PostDTO fromEntity(Post post, UserCard author) {
         PostDTO dto = new PostDTO();
         dto.setId(post.getId());
         dto.setContent(post.getContent());
@@ -27,30 +27,24 @@ public class PostDTO {
         dto.setCreatedAt(post.getCreatedAt());
         dto.setLikeCount(post.getLikeCount());
         dto.setCommentCount(post.getCommentCount());
-        
-        if (post.getAuthor() != null) {
-            dto.setAuthorId(post.getAuthor().getId());
-            dto.setAuthorName(post.getAuthor().getFirstName() + " " + post.getAuthor().getLastName());
-            
-            // Handle different user types
-            if (post.getAuthor() instanceof com.backend.stageconnect.entity.Candidate) {
-                com.backend.stageconnect.entity.Candidate candidate = (com.backend.stageconnect.entity.Candidate) post.getAuthor();
-                dto.setAuthorProfileImage(candidate.getPhoto());
-            } else if (post.getAuthor() instanceof com.backend.stageconnect.entity.Responsible) {
-                // For company representatives, we might want to use company logo
-                com.backend.stageconnect.entity.Responsible responsible = (com.backend.stageconnect.entity.Responsible) post.getAuthor();
-                if (responsible.getCompany() != null) {
-                    dto.setAuthorProfileImage(responsible.getCompany().getPhoto());
-                }
-            }
-        }
-        
+        dto.setAuthor(post, author);
         return dto;
     }
     
-    public static PostDTO fromEntity(Post post, List<Long> likedPostIds) {
-        PostDTO dto = fromEntity(post);
+    public static PostDTO fromEntity(Post post, UserCard author, Collection<Long> likedPostIds) {
+        PostDTO dto = fromEntity(post, author);
         dto.setLikedByCurrentUser(likedPostIds != null && likedPostIds.contains(post.getId()));
         return dto;
     }
-} 
\ No newline at end of file
+    
+    // Author name and photo come from the user card; only the author's ID is read from the post
+    protected void setAuthor(Post post, UserCard author) {
+        if (post.getAuthor() != null) {
+            setAuthorId(post.getAuthor().getId());
+        }
+        if (author != null) {
+            setAuthorName(author.displayName());
+            setAuthorProfileImage(author.photoUrl());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.backend.stageconnect.dto;
+
+import com.backend.stageconnect.entity.UserType;
+
+// What lists show about a user, read from a projection query and shared through UserCardCache
+public record UserCard(
+        Long id,
+        String firstName,
+        String lastName,
+        UserType userType,
+        String photoUrl,
+        String title,
+        String location,
+        Long companyId,
+        String companyName) {
+
+    // Used by JPQL constructor expressions; candidates show their photo, responsibles their company's
+    public UserCard(Long id, String firstName, String lastName, UserType userType,
+                    String candidatePhoto, String title, String location,
+                    Long companyId, String companyName, String companyPhoto) {
+        this(id, firstName, lastName, userType, candidatePhoto != null ? candidatePhoto : companyPhoto,
+             title, location, companyId, companyName);
+    }
+
+    public String displayName() {
+        return firstName + " " + lastName;
+    }
+
+    public UserDTO toUserDTO() {
+        return new UserDTO(id, firstName, lastName, photoUrl);
+    }
+}
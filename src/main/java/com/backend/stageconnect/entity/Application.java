@@ -13,7 +13,13 @@ import java.util.HashMap;
 import java.util.Map;
 
 @Entity
-@Table(name = "applications")
+@Table(name = "applications",
+       uniqueConstraints = @UniqueConstraint(name = "uk_applications_internship_applicant",
+                                             columnNames = {"internship_id", "applicant_id"}),
+       indexes = {
+           @Index(name = "idx_applications_internship_created", columnList = "internship_id, created_at, id"),
+           @Index(name = "idx_applications_applicant_created", columnList = "applicant_id, created_at, id")
+       })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
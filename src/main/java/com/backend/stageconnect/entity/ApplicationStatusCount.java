@@ -0,0 +1,43 @@
+package com.backend.stageconnect.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+// Number of applications per internship and status, split over a few shard rows so
+// concurrent applications to the same internship update different rows
+@Entity
+@Table(name = "application_status_counts")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApplicationStatusCount {
+    
+    @EmbeddedId
+    private ApplicationStatusCountId id;
+    
+    @Column(name = "application_count", nullable = false)
+    private long applicationCount;
+    
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ApplicationStatusCountId implements Serializable {
+        
+        private static final long serialVersionUID = 1L;
+        
+        @Column(name = "internship_id")
+        private Long internshipId;
+        
+        @Enumerated(EnumType.STRING)
+        @Column(name = "status", length = 32)
+        private Application.ApplicationStatus status;
+        
+        @Column(name = "shard")
+        private int shard;
+    }
+}
@@ -6,9 +6,13 @@ import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "certifications")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "certification")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
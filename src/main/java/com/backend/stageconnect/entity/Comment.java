@@ -17,7 +17,11 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "comments")
+@Table(name = "comments",
+       indexes = {
+           @Index(name = "idx_comments_post_created", columnList = "post_id, created_at, id"),
+           @Index(name = "idx_comments_root_created", columnList = "root_id, created_at, id")
+       })
 public class Comment {
 
     @Id
@@ -40,6 +44,11 @@ public class Comment {
     @JoinColumn(name = "parent_id")
     private Comment parentComment;
 
+    // Top-level comment of the thread this reply belongs to; null for top-level comments.
+    // Lets a whole thread be read with one indexed query instead of walking parent pointers.
+    @Column(name = "root_id")
+    private Long rootId;
+
     @OneToMany(mappedBy = "parentComment", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Comment> replies = new ArrayList<>();
 
@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -12,6 +14,8 @@ import java.util.List;
 
 @Entity
 @Table(name = "companies")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "company")
 @Data
 @Builder
 @NoArgsConstructor
@@ -44,6 +48,7 @@ public class Company {
     
     @ElementCollection
     @CollectionTable(name = "company_technologies", joinColumns = @JoinColumn(name = "company_id"))
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "company-technologies")
     @Column(name = "technology")
     private List<String> technologies = new ArrayList<>();
     
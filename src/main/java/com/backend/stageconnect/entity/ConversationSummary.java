@@ -0,0 +1,63 @@
+package com.backend.stageconnect.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Inbox projection of a conversation, maintained whenever a message is sent or read.
+// The two participants are stored as (low, high) by ID, matching Message.generateConversationId.
+@Entity
+@Table(name = "conversation_summary",
+       indexes = {
+           @Index(name = "idx_conversation_summary_low", columnList = "user_low_id, last_message_at"),
+           @Index(name = "idx_conversation_summary_high", columnList = "user_high_id, last_message_at")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationSummary {
+    
+    @Id
+    @Column(name = "conversation_id")
+    private String conversationId;
+    
+    @Column(name = "user_low_id", nullable = false)
+    private Long userLowId;
+    
+    @Column(name = "user_high_id", nullable = false)
+    private Long userHighId;
+    
+    @Column(name = "last_message_id", nullable = false)
+    private Long lastMessageId;
+    
+    @Column(name = "last_sender_id", nullable = false)
+    private Long lastSenderId;
+    
+    @Column(name = "last_message_content", columnDefinition = "TEXT")
+    private String lastMessageContent;
+    
+    @Column(name = "last_message_at", nullable = false)
+    private LocalDateTime lastMessageAt;
+    
+    @Column(name = "last_message_read", nullable = false)
+    private boolean lastMessageRead;
+    
+    // Unread messages received by the low-ID participant
+    @Column(name = "unread_low", nullable = false)
+    private int unreadLow;
+    
+    // Unread messages received by the high-ID participant
+    @Column(name = "unread_high", nullable = false)
+    private int unreadHigh;
+    
+    public Long getPartnerId(Long userId) {
+        return userLowId.equals(userId) ? userHighId : userLowId;
+    }
+    
+    public int getUnreadFor(Long userId) {
+        return userLowId.equals(userId) ? unreadLow : unreadHigh;
+    }
+}
@@ -7,9 +7,13 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "education")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "education")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
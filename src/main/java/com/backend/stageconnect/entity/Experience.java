@@ -8,11 +8,15 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDate;
 import org.springframework.format.annotation.DateTimeFormat;
 
 @Entity
 @Table(name = "experiences")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "experience")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
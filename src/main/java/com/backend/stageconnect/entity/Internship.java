@@ -6,12 +6,16 @@ import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "internships")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "internship")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -43,7 +47,8 @@ public class Internship {
     @Column
     private String compensation;
     
-    @Column(name = "applicants_count")
+    // Refreshed from application_status_counts by ApplicationIntakeService, never written back from the entity
+    @Column(name = "applicants_count", updatable = false)
     private Integer applicantsCount = 0;
     
     @Column
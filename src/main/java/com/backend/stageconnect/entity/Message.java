@@ -11,7 +11,8 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages",
+       indexes = @Index(name = "idx_messages_conversation_created", columnList = "conversation_id, created_at, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
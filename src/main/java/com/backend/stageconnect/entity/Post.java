@@ -12,7 +12,12 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "posts")
+@Table(name = "posts",
+       indexes = {
+           @Index(name = "idx_posts_created", columnList = "created_at, id"),
+           @Index(name = "idx_posts_user_created", columnList = "user_id, created_at, id"),
+           @Index(name = "idx_posts_image_url", columnList = "image_url")
+       })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -33,10 +38,11 @@ public class Post {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
     
-    @Column(name = "like_count")
+    // Maintained by EngagementCounterService with relative UPDATEs, never written back from the entity
+    @Column(name = "like_count", updatable = false)
     private Integer likeCount = 0;
     
-    @Column(name = "comment_count")
+    @Column(name = "comment_count", updatable = false)
     private Integer commentCount = 0;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -9,7 +9,8 @@ import java.io.Serializable;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "post_likes")
+@Table(name = "post_likes",
+       indexes = @Index(name = "idx_post_likes_post_created", columnList = "post_id, created_at, user_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -3,6 +3,8 @@ package com.backend.stageconnect.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -42,6 +44,7 @@ public class Project {
 
     @ElementCollection
     @CollectionTable(name = "project_tags", joinColumns = @JoinColumn(name = "project_id"))
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "project-tags")
     @Column(name = "tag")
     private List<String> tags = new ArrayList<>();
 
@@ -0,0 +1,39 @@
+package com.backend.stageconnect.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One post in a user's precomputed home timeline, written when the post is created
+@Entity
+@Table(name = "timeline_entries",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"owner_id", "post_id"}),
+       indexes = {
+           @Index(name = "idx_timeline_owner_created", columnList = "owner_id, created_at, post_id"),
+           @Index(name = "idx_timeline_post", columnList = "post_id")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimelineEntry {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+    
+    @Column(name = "post_id", nullable = false)
+    private Long postId;
+    
+    @Column(name = "author_id", nullable = false)
+    private Long authorId;
+    
+    // Copy of the post's creation time so the timeline can be paged without joining posts
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
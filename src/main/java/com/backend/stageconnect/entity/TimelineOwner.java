@@ -0,0 +1,24 @@
+package com.backend.stageconnect.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Marks a user's home timeline as materialized, so an empty timeline is not rebuilt on every read
+@Entity
+@Table(name = "timeline_owners")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimelineOwner {
+    
+    @Id
+    @Column(name = "owner_id")
+    private Long ownerId;
+    
+    @Column(name = "materialized_at", nullable = false)
+    private LocalDateTime materializedAt;
+}
@@ -0,0 +1,30 @@
+package com.backend.stageconnect.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A chat frame exchanged between application nodes over the {@code ChatBus}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatEnvelope {
+    private Kind kind;
+    // Node that published the envelope
+    private String originNode;
+    // User the envelope is about (ONLINE, OFFLINE, DELIVER)
+    private Long userId;
+    // Topic to publish to (PUBLISH)
+    private String destination;
+    private ChatMessage payload;
+
+    public enum Kind {
+        HELLO,     // A node started and wants to learn where users are connected
+        ONLINE,    // userId has a socket on originNode
+        OFFLINE,   // userId has no socket left on originNode
+        DELIVER,   // Send payload to /topic/user/{userId} on the node holding that user
+        PUBLISH    // Send payload to destination on every node
+    }
+}
@@ -17,6 +17,14 @@ public class ChatMessage {
     private String senderName;
     private String senderPhoto;
     private String conversationId;
+    // Server-assigned ID of a CHAT message that is broadcast but not yet stored; echoed on ACK/NACK
+    private String pendingId;
+    // Database ID of a CHAT message (sent on ACK once stored); on READ, the newest message the reader has seen
+    private Long messageId;
+    // Number of messages marked as read, set on READ acknowledgements
+    private Integer readCount;
+    // On TYPING: true when the sender started typing, false when they stopped (null counts as started)
+    private Boolean typing;
     private LocalDateTime timestamp = LocalDateTime.now();
     
     public enum MessageType {
@@ -24,6 +32,8 @@ public class ChatMessage {
         JOIN,      // User joined the platform
         LEAVE,     // User left/logged out
         TYPING,    // User is typing
-        READ       // Message read receipt
+        READ,      // Message read receipt
+        ACK,       // A CHAT message was stored; carries pendingId and messageId
+        NACK       // A CHAT message was not stored; carries pendingId
     }
 } 
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.backend.stageconnect.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Opaque keyset position (createdAt, id) handed to clients as a URL-safe string;
+// listings ordered by id alone leave createdAt null
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Cursor {
+    private LocalDateTime createdAt;
+    private Long id;
+
+    public String encode() {
+        String raw = (createdAt != null ? createdAt : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Position before the newest possible row, used to start a keyset scan
+    public static Cursor first() {
+        return new Cursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+    }
+
+    // Decodes a cursor, treating a blank value as the first page
+    public static Cursor decodeOrFirst(String value) {
+        Cursor cursor = decode(value);
+        return cursor != null ? cursor : first();
+    }
+
+    // Returns null for a missing or blank cursor, meaning "first page"
+    public static Cursor decode(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            String createdAt = raw.substring(0, separator);
+            return new Cursor(createdAt.isEmpty() ? null : LocalDateTime.parse(createdAt), Long.valueOf(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + value);
+        }
+    }
+}
@@ -5,8 +5,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,11 +27,15 @@ public interface ApplicationRepository extends JpaRepository<Application, Long>
     // Check if a user has already applied to an internship
     boolean existsByInternshipIdAndApplicantId(Long internshipId, Long applicantId);
     
-    // Count applications for an internship
-    long countByInternshipId(Long internshipId);
+    // Count applications for an internship (summed from the sharded counters, no scan of applications)
+    @Query("SELECT COALESCE(SUM(c.applicationCount), 0) FROM ApplicationStatusCount c WHERE c.id.internshipId = :internshipId")
+    long countByInternshipId(@Param("internshipId") Long internshipId);
     
-    // Count applications by status for an internship
-    long countByInternshipIdAndStatus(Long internshipId, Application.ApplicationStatus status);
+    // Count applications by status for an internship (summed from the sharded counters)
+    @Query("SELECT COALESCE(SUM(c.applicationCount), 0) FROM ApplicationStatusCount c " +
+           "WHERE c.id.internshipId = :internshipId AND c.id.status = :status")
+    long countByInternshipIdAndStatus(@Param("internshipId") Long internshipId,
+                                      @Param("status") Application.ApplicationStatus status);
     
     // Find applications by status
     Page<Application> findByStatus(Application.ApplicationStatus status, Pageable pageable);
@@ -37,6 +43,26 @@ public interface ApplicationRepository extends JpaRepository<Application, Long>
     // Find applications by internship ID and status
     Page<Application> findByInternshipIdAndStatus(Long internshipId, Application.ApplicationStatus status, Pageable pageable);
     
+    // Find applications for an internship older than the given cursor position (keyset pagination)
+    @Query("SELECT a FROM Application a WHERE a.internship.id = :internshipId " +
+           "AND (:status IS NULL OR a.status = :status) " +
+           "AND (a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id)) " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    List<Application> findByInternshipIdBefore(@Param("internshipId") Long internshipId,
+                                               @Param("status") Application.ApplicationStatus status,
+                                               @Param("createdAt") LocalDateTime createdAt,
+                                               @Param("id") Long id,
+                                               Pageable pageable);
+    
+    // Find applications by a user older than the given cursor position (keyset pagination)
+    @Query("SELECT a FROM Application a WHERE a.applicant.id = :applicantId " +
+           "AND (a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id)) " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    List<Application> findByApplicantIdBefore(@Param("applicantId") Long applicantId,
+                                              @Param("createdAt") LocalDateTime createdAt,
+                                              @Param("id") Long id,
+                                              Pageable pageable);
+    
     // Find recent applications
     @Query("SELECT a FROM Application a ORDER BY a.createdAt DESC")
     Page<Application> findRecentApplications(Pageable pageable);
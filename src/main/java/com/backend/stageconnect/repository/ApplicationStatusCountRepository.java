@@ -0,0 +1,55 @@
+package com.backend.stageconnect.repository;
+
+import com.backend.stageconnect.entity.ApplicationStatusCount;
+import com.backend.stageconnect.entity.ApplicationStatusCount.ApplicationStatusCountId;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ApplicationStatusCountRepository extends JpaRepository<ApplicationStatusCount, ApplicationStatusCountId> {
+    
+    // Native updates name the table they touch, so Hibernate does not clear every second-level cache region
+    
+    // Add a delta to one shard of an internship's count for a status, creating the row if needed
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "application_status_counts"))
+    @Query(value = "INSERT INTO application_status_counts (internship_id, status, shard, application_count) " +
+                   "VALUES (:internshipId, :status, :shard, :delta) " +
+                   "ON DUPLICATE KEY UPDATE application_count = application_count + :delta",
+           nativeQuery = true)
+    int addDelta(@Param("internshipId") Long internshipId,
+                 @Param("status") String status,
+                 @Param("shard") int shard,
+                 @Param("delta") long delta);
+    
+    // Rebuild the counters from the applications table (only used when the table is empty)
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "application_status_counts"))
+    @Query(value = "INSERT IGNORE INTO application_status_counts (internship_id, status, shard, application_count) " +
+                   "SELECT internship_id, status, 0, COUNT(*) FROM applications GROUP BY internship_id, status",
+           nativeQuery = true)
+    int backfill();
+    
+    // Copy the summed counters into internships.applicants_count for one internship.
+    // Declared against the counter table so the whole internship region is not evicted; the caller evicts the one row.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "application_status_counts"))
+    @Query(value = "UPDATE internships SET applicants_count = " +
+                   "(SELECT COALESCE(SUM(c.application_count), 0) FROM application_status_counts c WHERE c.internship_id = :internshipId) " +
+                   "WHERE id = :internshipId",
+           nativeQuery = true)
+    int syncApplicantsCount(@Param("internshipId") Long internshipId);
+    
+    // Copy the summed counters into internships.applicants_count for every internship
+    @Modifying
+    @Query(value = "UPDATE internships i SET applicants_count = " +
+                   "(SELECT COALESCE(SUM(c.application_count), 0) FROM application_status_counts c WHERE c.internship_id = i.id)",
+           nativeQuery = true)
+    int syncAllApplicantsCounts();
+}
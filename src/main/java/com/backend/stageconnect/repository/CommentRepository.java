@@ -1,11 +1,16 @@
 package com.backend.stageconnect.repository;
 
+import com.backend.stageconnect.dto.CommentDTO;
 import com.backend.stageconnect.entity.Comment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,9 +19,78 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     // Find comments for a specific post (only top-level comments)
     Page<Comment> findByPostIdAndParentCommentIsNullOrderByCreatedAtDesc(Long postId, Pageable pageable);
     
+    // Find top-level comments for a post older than the given cursor position (keyset pagination)
+    @Query("SELECT c FROM Comment c " +
+           "WHERE c.post.id = :postId AND c.parentComment IS NULL " +
+           "AND (c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id)) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findTopLevelByPostIdBefore(@Param("postId") Long postId,
+                                             @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") Long id,
+                                             Pageable pageable);
+    
     // Find replies for a specific comment
     List<Comment> findByParentCommentIdOrderByCreatedAtAsc(Long parentId);
     
+    // Newest top-level comments of each post in a page, at most :limit per post, with author
+    // display fields and the size of each thread (MySQL 8.0.14+ LATERAL join)
+    @Query(value = "SELECT c.id, c.content, u.id, u.first_name, u.last_name, COALESCE(ca.photo, co.photo), " +
+                   "p.id, c.likes_count, c.created_at, c.updated_at, " +
+                   "(SELECT COUNT(*) FROM comments r WHERE r.root_id = c.id) " +
+                   "FROM posts p JOIN LATERAL (SELECT x.id, x.content, x.author_id, x.likes_count, x.created_at, x.updated_at " +
+                   "FROM comments x WHERE x.post_id = p.id AND x.parent_id IS NULL " +
+                   "ORDER BY x.created_at DESC, x.id DESC LIMIT :limit) c ON TRUE " +
+                   "JOIN users u ON u.id = c.author_id " +
+                   "LEFT JOIN candidates ca ON ca.id = u.id " +
+                   "LEFT JOIN responsibles r ON r.id = u.id " +
+                   "LEFT JOIN companies co ON co.id = r.company_id " +
+                   "WHERE p.id IN (:postIds) " +
+                   "ORDER BY p.id, c.created_at DESC, c.id DESC",
+           nativeQuery = true)
+    List<Object[]> findTopLevelPreviews(@Param("postIds") Collection<Long> postIds, @Param("limit") int limit);
+    
+    // A whole thread (the top-level comment and every reply below it), oldest first
+    @Query("SELECT new com.backend.stageconnect.dto.CommentDTO(c.id, c.content, u.id, u.firstName, u.lastName, ca.photo, co.photo, " +
+           "c.post.id, c.parentComment.id, c.likeCount, c.createdAt, c.updatedAt) " +
+           "FROM Comment c JOIN c.author u " +
+           "LEFT JOIN Candidate ca ON ca.id = u.id " +
+           "LEFT JOIN Responsible r ON r.id = u.id LEFT JOIN r.company co " +
+           "WHERE c.id = :rootId OR c.rootId = :rootId " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    List<CommentDTO> findThread(@Param("rootId") Long rootId);
+    
+    // Direct replies to a comment newer than the given cursor position, oldest first
+    @Query("SELECT new com.backend.stageconnect.dto.CommentDTO(c.id, c.content, u.id, u.firstName, u.lastName, ca.photo, co.photo, " +
+           "c.post.id, c.parentComment.id, c.likeCount, c.createdAt, c.updatedAt) " +
+           "FROM Comment c JOIN c.author u " +
+           "LEFT JOIN Candidate ca ON ca.id = u.id " +
+           "LEFT JOIN Responsible r ON r.id = u.id LEFT JOIN r.company co " +
+           "WHERE c.parentComment.id = :parentId " +
+           "AND (c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.id > :id)) " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    List<CommentDTO> findRepliesAfter(@Param("parentId") Long parentId,
+                                      @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
+    
+    // Direct replies to each of a set of top-level comments, oldest first, found through root_id
+    @Query("SELECT new com.backend.stageconnect.dto.CommentDTO(c.id, c.content, u.id, u.firstName, u.lastName, ca.photo, co.photo, " +
+           "c.post.id, c.parentComment.id, c.likeCount, c.createdAt, c.updatedAt) " +
+           "FROM Comment c JOIN c.author u " +
+           "LEFT JOIN Candidate ca ON ca.id = u.id " +
+           "LEFT JOIN Responsible r ON r.id = u.id LEFT JOIN r.company co " +
+           "WHERE c.rootId IN :rootIds AND c.parentComment.id = c.rootId " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    List<CommentDTO> findDirectRepliesOfRoots(@Param("rootIds") Collection<Long> rootIds);
+    
+    // Number of replies in each thread, as (rootId, count)
+    @Query("SELECT c.rootId, COUNT(c) FROM Comment c WHERE c.rootId IN :rootIds GROUP BY c.rootId")
+    List<Object[]> countByRootIdIn(@Param("rootIds") Collection<Long> rootIds);
+    
+    // Number of direct replies to each comment, as (parentId, count)
+    @Query("SELECT c.parentComment.id, COUNT(c) FROM Comment c WHERE c.parentComment.id IN :parentIds GROUP BY c.parentComment.id")
+    List<Object[]> countByParentIdIn(@Param("parentIds") Collection<Long> parentIds);
+    
     // Count top-level comments for a post
     Long countByPostIdAndParentCommentIsNull(Long postId);
     
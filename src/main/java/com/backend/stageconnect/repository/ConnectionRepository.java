@@ -46,4 +46,8 @@ public interface ConnectionRepository extends JpaRepository<Connection, Long> {
     
     // Count pending connection requests for a user
     long countByReceiverIdAndStatus(Long receiverId, ConnectionStatus status);
+    
+    // Load every non-rejected edge as (requesterId, receiverId, status) for the social graph
+    @Query("SELECT c.requester.id, c.receiver.id, c.status FROM Connection c WHERE c.status <> 'REJECTED'")
+    List<Object[]> findActiveEdges();
 } 
\ No newline at end of file
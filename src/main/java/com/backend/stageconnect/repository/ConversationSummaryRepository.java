@@ -0,0 +1,70 @@
+package com.backend.stageconnect.repository;
+
+import com.backend.stageconnect.entity.ConversationSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ConversationSummaryRepository extends JpaRepository<ConversationSummary, String> {
+    
+    // Get every conversation a user takes part in, most recent first
+    @Query("SELECT s FROM ConversationSummary s WHERE s.userLowId = :userId OR s.userHighId = :userId " +
+           "ORDER BY s.lastMessageAt DESC")
+    List<ConversationSummary> findInbox(@Param("userId") Long userId);
+    
+    // IDs of the users someone has exchanged messages with since the given time
+    @Query(value = "SELECT IF(user_low_id = :userId, user_high_id, user_low_id) FROM conversation_summary " +
+                   "WHERE (user_low_id = :userId OR user_high_id = :userId) AND last_message_at >= :since",
+           nativeQuery = true)
+    List<Long> findPartnerIdsSince(@Param("userId") Long userId, @Param("since") LocalDateTime since);
+    
+    // Insert the summary for a new conversation or fold a new message into an existing one.
+    // Columns are assigned left to right, so last_message_id is advanced after the fields that compare against it.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "conversation_summary"))
+    @Query(value = "INSERT INTO conversation_summary (conversation_id, user_low_id, user_high_id, last_message_id, " +
+                   "last_sender_id, last_message_content, last_message_at, last_message_read, unread_low, unread_high) " +
+                   "VALUES (:conversationId, :userLowId, :userHighId, :messageId, :senderId, :content, :createdAt, FALSE, " +
+                   ":unreadLow, :unreadHigh) " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "last_sender_id = IF(:messageId > last_message_id, :senderId, last_sender_id), " +
+                   "last_message_content = IF(:messageId > last_message_id, :content, last_message_content), " +
+                   "last_message_at = IF(:messageId > last_message_id, :createdAt, last_message_at), " +
+                   "last_message_read = IF(:messageId > last_message_id, FALSE, last_message_read), " +
+                   "unread_low = unread_low + :unreadLow, " +
+                   "unread_high = unread_high + :unreadHigh, " +
+                   "last_message_id = GREATEST(last_message_id, :messageId)",
+           nativeQuery = true)
+    int upsertMessage(@Param("conversationId") String conversationId,
+                      @Param("userLowId") Long userLowId,
+                      @Param("userHighId") Long userHighId,
+                      @Param("messageId") Long messageId,
+                      @Param("senderId") Long senderId,
+                      @Param("content") String content,
+                      @Param("createdAt") LocalDateTime createdAt,
+                      @Param("unreadLow") int unreadLow,
+                      @Param("unreadHigh") int unreadHigh);
+    
+    // Subtract messages the reader has just read; the last message counts as read once the watermark reaches it
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "conversation_summary"))
+    @Query(value = "UPDATE conversation_summary SET " +
+                   "unread_low = IF(user_low_id = :readerId, GREATEST(unread_low - :readCount, 0), unread_low), " +
+                   "unread_high = IF(user_high_id = :readerId, GREATEST(unread_high - :readCount, 0), unread_high), " +
+                   "last_message_read = IF(last_sender_id <> :readerId AND last_message_id <= :upToId, TRUE, last_message_read) " +
+                   "WHERE conversation_id = :conversationId",
+           nativeQuery = true)
+    int markReadBy(@Param("conversationId") String conversationId,
+                   @Param("readerId") Long readerId,
+                   @Param("readCount") int readCount,
+                   @Param("upToId") Long upToId);
+}
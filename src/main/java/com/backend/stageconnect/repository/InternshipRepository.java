@@ -1,17 +1,29 @@
 package com.backend.stageconnect.repository;
 
 import com.backend.stageconnect.entity.Internship;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface InternshipRepository extends JpaRepository<Internship, Long> {
+    // Company listings are read far more often than internships change, so their results go in the query cache
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Page<Internship> findByCompanyId(Long companyId, Pageable pageable);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Page<Internship> findByCompanyIdAndStatus(Long companyId, String status, Pageable pageable);
     List<Internship> findByStatus(String status);
     boolean existsByCompanyIdAndTitle(Long companyId, String title);
+    
+    // Load a page of search hits together with their companies
+    @EntityGraph(attributePaths = "company")
+    List<Internship> findByIdIn(Collection<Long> ids);
 } 
\ No newline at end of file
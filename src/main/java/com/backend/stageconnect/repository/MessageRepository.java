@@ -4,10 +4,12 @@ import com.backend.stageconnect.entity.Message;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -16,6 +18,15 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     // Find messages by conversation ID (ordered by timestamp)
     List<Message> findByConversationIdOrderByCreatedAtAsc(String conversationId);
     
+    // Find messages of a conversation older than the given cursor position, newest first (keyset pagination)
+    @Query("SELECT m FROM Message m WHERE m.conversationId = :conversationId " +
+           "AND (m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id)) " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    List<Message> findByConversationIdBefore(@Param("conversationId") String conversationId,
+                                             @Param("createdAt") LocalDateTime createdAt,
+                                             @Param("id") Long id,
+                                             Pageable pageable);
+    
     // Find messages between two users (ordered by timestamp)
     @Query("SELECT m FROM Message m WHERE " +
            "((m.sender.id = :userId1 AND m.receiver.id = :userId2) OR " +
@@ -46,6 +57,15 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     // Count unread messages from a specific sender
     long countByReceiverIdAndSenderIdAndIsReadFalse(Long receiverId, Long senderId);
     
+    // Mark every unread message a user received in a conversation as read, up to a message ID watermark
+    @Modifying
+    @Query("UPDATE Message m SET m.isRead = true " +
+           "WHERE m.conversationId = :conversationId AND m.receiver.id = :receiverId " +
+           "AND m.isRead = false AND m.id <= :upToId")
+    int markReadUpTo(@Param("conversationId") String conversationId,
+                     @Param("receiverId") Long receiverId,
+                     @Param("upToId") Long upToId);
+    
     // Find the latest message between two users
     @Query("SELECT m FROM Message m WHERE " +
            "((m.sender.id = :userId1 AND m.receiver.id = :userId2) OR " +
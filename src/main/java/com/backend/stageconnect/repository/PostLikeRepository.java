@@ -1,11 +1,21 @@
 package com.backend.stageconnect.repository;
 
+import com.backend.stageconnect.dto.LikerDTO;
 import com.backend.stageconnect.entity.PostLike;
 import com.backend.stageconnect.entity.PostLike.PostLikeId;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -23,10 +33,60 @@ public interface PostLikeRepository extends JpaRepository<PostLike, PostLikeId>
     // Find all post likes for a post
     List<PostLike> findByIdPostId(Long postId);
     
-    // Delete a like by user and post
-    void deleteByIdUserIdAndIdPostId(Long userId, Long postId);
+    // Record a like unless it exists; returns 1 if a row was inserted, so concurrent likes count once
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "post_likes"))
+    @Query(value = "INSERT IGNORE INTO post_likes (user_id, post_id, created_at) VALUES (:userId, :postId, :createdAt)",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("postId") Long postId,
+                       @Param("createdAt") LocalDateTime createdAt);
+    
+    // Delete a like by user and post; returns 1 only for the caller that actually removed it
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PostLike pl WHERE pl.id.userId = :userId AND pl.id.postId = :postId")
+    int deleteLike(@Param("userId") Long userId, @Param("postId") Long postId);
     
     // Get all post IDs liked by a user
     @Query("SELECT pl.id.postId FROM PostLike pl WHERE pl.id.userId = ?1")
     List<Long> findPostIdsByUserId(Long userId);
-} 
\ No newline at end of file
+    
+    // Get all post IDs liked by a user, sorted for binary search
+    @Query("SELECT pl.id.postId FROM PostLike pl WHERE pl.id.userId = ?1 ORDER BY pl.id.postId")
+    List<Long> findPostIdsByUserIdOrderByPostId(Long userId);
+    
+    // Most recent likers of each post in a page, at most :limit per post (MySQL 8.0.14+ LATERAL join)
+    @Query(value = "SELECT p.id, l.user_id, u.first_name, u.last_name, COALESCE(ca.photo, co.photo), l.created_at " +
+                   "FROM posts p JOIN LATERAL (SELECT pl.user_id, pl.created_at FROM post_likes pl " +
+                   "WHERE pl.post_id = p.id ORDER BY pl.created_at DESC, pl.user_id DESC LIMIT :limit) l ON TRUE " +
+                   "JOIN users u ON u.id = l.user_id " +
+                   "LEFT JOIN candidates ca ON ca.id = u.id " +
+                   "LEFT JOIN responsibles r ON r.id = u.id " +
+                   "LEFT JOIN companies co ON co.id = r.company_id " +
+                   "WHERE p.id IN (:postIds)",
+           nativeQuery = true)
+    List<Object[]> findRecentLikers(@Param("postIds") Collection<Long> postIds, @Param("limit") int limit);
+    
+    // Likers of a page of posts restricted to a set of users (e.g. the current user's connections)
+    @Query("SELECT new com.backend.stageconnect.dto.LikerDTO(pl.id.postId, u.id, u.firstName, u.lastName, ca.photo, co.photo, pl.createdAt) " +
+           "FROM PostLike pl JOIN pl.user u " +
+           "LEFT JOIN Candidate ca ON ca.id = u.id " +
+           "LEFT JOIN Responsible r ON r.id = u.id LEFT JOIN r.company co " +
+           "WHERE pl.id.postId IN :postIds AND pl.id.userId IN :userIds " +
+           "ORDER BY pl.createdAt DESC")
+    List<LikerDTO> findLikersAmong(@Param("postIds") Collection<Long> postIds, @Param("userIds") Collection<Long> userIds);
+    
+    // Likers of a post older than the given cursor position, newest first
+    @Query("SELECT new com.backend.stageconnect.dto.LikerDTO(pl.id.postId, u.id, u.firstName, u.lastName, ca.photo, co.photo, pl.createdAt) " +
+           "FROM PostLike pl JOIN pl.user u " +
+           "LEFT JOIN Candidate ca ON ca.id = u.id " +
+           "LEFT JOIN Responsible r ON r.id = u.id LEFT JOIN r.company co " +
+           "WHERE pl.id.postId = :postId " +
+           "AND (pl.createdAt < :createdAt OR (pl.createdAt = :createdAt AND u.id < :userId)) " +
+           "ORDER BY pl.createdAt DESC, u.id DESC")
+    List<LikerDTO> findLikersBefore(@Param("postId") Long postId,
+                                    @Param("createdAt") LocalDateTime createdAt,
+                                    @Param("userId") Long userId,
+                                    Pageable pageable);
+}
@@ -3,14 +3,23 @@ package com.backend.stageconnect.repository;
 import com.backend.stageconnect.entity.Post;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
+    // Find a post together with its author
+    @EntityGraph(attributePaths = "author")
+    Optional<Post> findWithAuthorById(Long id);
+    
     // Find posts by author ID
     List<Post> findByAuthorId(Long authorId);
     
@@ -27,6 +36,32 @@ public interface PostRepository extends JpaRepository<Post, Long> {
            "ORDER BY p.createdAt DESC")
     Page<Post> findFeedPostsForUser(Long userId, Pageable pageable);
     
-    // Search posts by content
-    Page<Post> findByContentContainingIgnoreCase(String keyword, Pageable pageable);
-} 
\ No newline at end of file
+    // Find posts older than the given cursor position (keyset pagination)
+    @Query("SELECT p FROM Post p " +
+           "WHERE p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findPageBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    // Read post IDs and content in ID order, used to build the search index
+    @Query("SELECT p.id, p.content FROM Post p WHERE p.id > :afterId ORDER BY p.id")
+    List<Object[]> findIdAndContentAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // Find posts by IDs
+    List<Post> findByIdIn(Collection<Long> ids);
+    
+    // Newest posts of a set of authors
+    @Query("SELECT p FROM Post p WHERE p.author.id IN :authorIds ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findLatestByAuthorIds(@Param("authorIds") Collection<Long> authorIds, Pageable pageable);
+    
+    // Posts of a set of authors older than the given cursor position
+    @Query("SELECT p FROM Post p WHERE p.author.id IN :authorIds " +
+           "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findByAuthorIdsBefore(@Param("authorIds") Collection<Long> authorIds,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id,
+                                     Pageable pageable);
+    
+    // Check whether any post still uses an image file
+    boolean existsByImageUrl(String imageUrl);
+}
@@ -0,0 +1,47 @@
+package com.backend.stageconnect.repository;
+
+import com.backend.stageconnect.entity.TimelineEntry;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TimelineEntryRepository extends JpaRepository<TimelineEntry, Long> {
+    // Newest entries of a user's timeline
+    @Query("SELECT t FROM TimelineEntry t WHERE t.ownerId = :ownerId " +
+           "ORDER BY t.createdAt DESC, t.postId DESC")
+    List<TimelineEntry> findFirstPage(@Param("ownerId") Long ownerId, Pageable pageable);
+    
+    // Entries of a user's timeline older than the given cursor position
+    @Query("SELECT t FROM TimelineEntry t WHERE t.ownerId = :ownerId " +
+           "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.postId < :postId)) " +
+           "ORDER BY t.createdAt DESC, t.postId DESC")
+    List<TimelineEntry> findPageAfter(@Param("ownerId") Long ownerId,
+                                      @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("postId") Long postId,
+                                      Pageable pageable);
+    
+    // Remove a deleted post from every timeline
+    @Modifying
+    @Query("DELETE FROM TimelineEntry t WHERE t.postId = :postId")
+    int deleteByPostId(@Param("postId") Long postId);
+    
+    // Keep only the newest :maxEntries entries of every timeline
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "timeline_entries"))
+    @Query(value = "DELETE t FROM timeline_entries t JOIN (" +
+                   "SELECT id FROM (SELECT id, ROW_NUMBER() OVER (PARTITION BY owner_id " +
+                   "ORDER BY created_at DESC, post_id DESC) AS rn FROM timeline_entries) ranked " +
+                   "WHERE ranked.rn > :maxEntries) overflow ON overflow.id = t.id",
+           nativeQuery = true)
+    int trimToSize(@Param("maxEntries") int maxEntries);
+}
@@ -0,0 +1,24 @@
+package com.backend.stageconnect.repository;
+
+import com.backend.stageconnect.entity.TimelineOwner;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface TimelineOwnerRepository extends JpaRepository<TimelineOwner, Long> {
+    
+    // Mark a timeline as materialized; returns 1 only for the caller that created the mark
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "timeline_owners"))
+    @Query(value = "INSERT IGNORE INTO timeline_owners (owner_id, materialized_at) VALUES (:ownerId, :materializedAt)",
+           nativeQuery = true)
+    int markMaterialized(@Param("ownerId") Long ownerId, @Param("materializedAt") LocalDateTime materializedAt);
+}
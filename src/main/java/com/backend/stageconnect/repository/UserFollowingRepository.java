@@ -5,8 +5,11 @@ import com.backend.stageconnect.entity.UserFollowing;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -38,4 +41,20 @@ public interface UserFollowingRepository extends JpaRepository<UserFollowing, Lo
     
     // Count following
     long countByFollowerId(Long userId);
+    
+    // Get the IDs of all users following a specific user
+    @Query("SELECT f.follower.id FROM UserFollowing f WHERE f.followed.id = :userId")
+    List<Long> findFollowerIdsByFollowedId(@Param("userId") Long userId);
+    
+    // Get the IDs of all users whose follower count exceeds the threshold
+    @Query("SELECT f.followed.id FROM UserFollowing f GROUP BY f.followed.id HAVING COUNT(f) > :threshold")
+    List<Long> findIdsWithMoreFollowersThan(@Param("threshold") long threshold);
+    
+    // Get which of the given users a specific user follows
+    @Query("SELECT f.followed.id FROM UserFollowing f WHERE f.follower.id = :userId AND f.followed.id IN :followedIds")
+    List<Long> findFollowedIdsAmong(@Param("userId") Long userId, @Param("followedIds") Collection<Long> followedIds);
+    
+    // Load every follow edge as (followerId, followedId) for the social graph
+    @Query("SELECT f.follower.id, f.followed.id FROM UserFollowing f")
+    List<Object[]> findAllEdges();
 } 
\ No newline at end of file
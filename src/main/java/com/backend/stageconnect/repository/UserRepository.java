@@ -1,13 +1,31 @@
 package com.backend.stageconnect.repository;
 
+import com.backend.stageconnect.dto.UserCard;
 import com.backend.stageconnect.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+    
+    // Load a user as its concrete subtype for login, with a responsible's company in the same query
+    @Query("SELECT u FROM User u LEFT JOIN FETCH TREAT(u AS Responsible).company WHERE u.email = :email")
+    Optional<User> findForLogin(@Param("email") String email);
+
+    // Name, photo and company of a set of users, without loading User entities
+    @Query("SELECT new com.backend.stageconnect.dto.UserCard(u.id, u.firstName, u.lastName, u.userType, " +
+           "ca.photo, ca.title, ca.location, co.id, co.name, co.photo) " +
+           "FROM User u " +
+           "LEFT JOIN Candidate ca ON ca.id = u.id " +
+           "LEFT JOIN Responsible r ON r.id = u.id LEFT JOIN r.company co " +
+           "WHERE u.id IN :ids")
+    List<UserCard> findCardsByIdIn(@Param("ids") Collection<Long> ids);
 } 
\ No newline at end of file
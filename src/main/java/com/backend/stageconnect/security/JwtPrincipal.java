@@ -0,0 +1,18 @@
+package com.backend.stageconnect.security;
+
+import com.backend.stageconnect.entity.UserType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * The authenticated user as described by a verified JWT.
+ */
+@Data
+@AllArgsConstructor
+public class JwtPrincipal {
+    private Long id;
+    private String email;
+    private UserType userType;
+    // Set for RESPONSIBLE users attached to a company
+    private Long companyId;
+}
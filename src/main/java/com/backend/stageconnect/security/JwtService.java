@@ -3,7 +3,11 @@ package com.backend.stageconnect.security;
 import com.backend.stageconnect.entity.User;
 import com.backend.stageconnect.entity.UserType;
 import com.backend.stageconnect.entity.Responsible;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -11,10 +15,15 @@ import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
@@ -26,11 +35,49 @@ public class JwtService {
     @Value("${jwt.expiration:86400000}") // 24 hours in milliseconds
     private long jwtExpiration;
     
+    @Value("${jwt.claims-cache-size:10000}")
+    private int claimsCacheSize;
+    
+    @Value("${jwt.claims-cache-ttl:600000}") // 10 minutes in milliseconds
+    private long claimsCacheTtl;
+    
     private Key key;
     
+    // Built once; parsing a token no longer creates a parser
+    private JwtParser parser;
+    
+    // Verified tokens by SHA-256 of the token, so a token is parsed and its signature checked
+    // once per claims-cache-ttl rather than on every call. Concurrent, since every
+    // authenticated request reads it; each entry expires at min(claims-cache-ttl, token exp)
+    private Cache<String, VerifiedToken> verifiedTokens;
+    
     @PostConstruct
     public void init() {
         this.key = Keys.hmacShaKeyFor(secretKey.getBytes());
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(claimsCacheSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String cacheKey, VerifiedToken token, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, token.validUntil - System.currentTimeMillis()));
+                    }
+                    
+                    @Override
+                    public long expireAfterUpdate(String cacheKey, VerifiedToken token, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(cacheKey, token, currentTime);
+                    }
+                    
+                    @Override
+                    public long expireAfterRead(String cacheKey, VerifiedToken token, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
     
     public String generateToken(User user) {
@@ -77,11 +124,50 @@ public class JwtService {
     }
     
     public Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return verify(token).claims;
+    }
+    
+    // The principal carried by a valid token, built from its claims without loading the user
+    public JwtPrincipal extractPrincipal(String token) {
+        return verify(token).principal;
+    }
+    
+    // Parse and verify a token, or return the cached result of an earlier verification;
+    // invalid or expired tokens throw the parser's JwtException and are never cached
+    private VerifiedToken verify(String token) {
+        String cacheKey = hash(token);
+        long now = System.currentTimeMillis();
+        VerifiedToken cached = verifiedTokens.getIfPresent(cacheKey);
+        if (cached != null && cached.validUntil > now) {
+            return cached;
+        }
+        
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        long validUntil = now + claimsCacheTtl;
+        if (claims.getExpiration() != null) {
+            validUntil = Math.min(validUntil, claims.getExpiration().getTime());
+        }
+        VerifiedToken verified = new VerifiedToken(claims, toPrincipal(claims), validUntil);
+        verifiedTokens.put(cacheKey, verified);
+        return verified;
+    }
+    
+    private JwtPrincipal toPrincipal(Claims claims) {
+        String userType = claims.get("userType", String.class);
+        return new JwtPrincipal(
+                claims.get("id", Long.class),
+                claims.getSubject(),
+                userType != null ? UserType.valueOf(userType) : null,
+                claims.get("company_id", Long.class));
+    }
+    
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
     
     public boolean isTokenValid(String token, User user) {
@@ -96,4 +182,16 @@ public class JwtService {
     private Date extractExpiration(String token) {
         return extractClaim(token, Claims::getExpiration);
     }
+    
+    private static class VerifiedToken {
+        private final Claims claims;
+        private final JwtPrincipal principal;
+        private final long validUntil;
+        
+        private VerifiedToken(Claims claims, JwtPrincipal principal, long validUntil) {
+            this.claims = claims;
+            this.principal = principal;
+            this.validUntil = validUntil;
+        }
+    }
 } 
\ No newline at end of file
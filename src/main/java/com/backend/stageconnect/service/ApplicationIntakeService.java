@@ -0,0 +1,153 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.entity.Application;
+import com.backend.stageconnect.entity.Internship;
+import com.backend.stageconnect.repository.ApplicationRepository;
+import com.backend.stageconnect.repository.ApplicationStatusCountRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Application writes together with their per-status counters. Duplicate applications are
+ * rejected by the unique (internship_id, applicant_id) constraint rather than a prior
+ * lookup. Counters are spread over app.applications.counter-shards rows per internship and
+ * status, so applications to a popular internship do not queue on a single row lock;
+ * internships.applicants_count is refreshed from the shards in the background.
+ */
+@Service
+@RequiredArgsConstructor
+public class ApplicationIntakeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApplicationIntakeService.class);
+
+    private static final String DUPLICATE_CONSTRAINT = "uk_applications_internship_applicant";
+
+    private final ApplicationRepository applicationRepository;
+    private final ApplicationStatusCountRepository applicationStatusCountRepository;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Value("${app.applications.counter-shards:8}")
+    private int counterShards;
+
+    // Internships whose applicants_count is behind their counters
+    private final Set<Long> dirtyInternships = ConcurrentHashMap.newKeySet();
+
+    // Insert a new application; throws DataIntegrityViolationException if the user already applied
+    @Transactional
+    public Application submit(Application application) {
+        Application saved = applicationRepository.saveAndFlush(application);
+        addToCount(saved.getInternship().getId(), saved.getStatus(), 1);
+        return saved;
+    }
+
+    // Save an application whose status may have changed from previousStatus
+    @Transactional
+    public Application update(Application application, Application.ApplicationStatus previousStatus) {
+        Application saved = applicationRepository.save(application);
+        if (previousStatus != saved.getStatus()) {
+            Long internshipId = saved.getInternship().getId();
+            addToCount(internshipId, previousStatus, -1);
+            addToCount(internshipId, saved.getStatus(), 1);
+        }
+        return saved;
+    }
+
+    @Transactional
+    public void withdraw(Application application) {
+        Long internshipId = application.getInternship().getId();
+        Application.ApplicationStatus status = application.getStatus();
+        applicationRepository.delete(application);
+        addToCount(internshipId, status, -1);
+    }
+
+    // Whether a failed submit was rejected because the applicant already applied to the internship
+    public boolean isDuplicateApplication(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                // MySQL reports the key as table.constraint
+                String constraint = violation.getConstraintName();
+                return constraint != null && constraint.toLowerCase().endsWith(DUPLICATE_CONSTRAINT);
+            }
+        }
+        return false;
+    }
+
+    private void addToCount(Long internshipId, Application.ApplicationStatus status, long delta) {
+        int shard = ThreadLocalRandom.current().nextInt(counterShards);
+        applicationStatusCountRepository.addDelta(internshipId, status.name(), shard, delta);
+        markDirty(internshipId);
+    }
+
+    // Queue the internship for a count refresh once the delta is committed; a sync that ran
+    // before the commit would read the old shard totals and clear the flag
+    private void markDirty(Long internshipId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dirtyInternships.add(internshipId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dirtyInternships.add(internshipId);
+            }
+        });
+    }
+
+    // Refresh applicants_count for internships that received applications since the last run
+    @Scheduled(fixedDelayString = "${app.applications.count-sync-interval-ms:5000}")
+    @Transactional
+    public void syncApplicantsCounts() {
+        List<Long> internshipIds = new ArrayList<>(dirtyInternships);
+        for (Long internshipId : internshipIds) {
+            dirtyInternships.remove(internshipId);
+            applicationStatusCountRepository.syncApplicantsCount(internshipId);
+        }
+        if (internshipIds.isEmpty()) {
+            return;
+        }
+        // Drop the cached rows once the new counts are committed, so no reader re-caches the old ones
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                internshipIds.forEach(internshipId -> entityManagerFactory.getCache().evict(Internship.class, internshipId));
+            }
+        });
+    }
+
+    // Build the counters from existing applications the first time the table is used
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        try {
+            if (applicationStatusCountRepository.count() > 0) {
+                return;
+            }
+            int created = applicationStatusCountRepository.backfill();
+            if (created > 0) {
+                applicationStatusCountRepository.syncAllApplicantsCounts();
+                entityManagerFactory.getCache().evict(Internship.class);
+                logger.info("Backfilled {} application status counters", created);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to backfill application counters: {}", e.getMessage());
+        }
+    }
+}
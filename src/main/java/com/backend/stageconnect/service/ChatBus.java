@@ -0,0 +1,22 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.model.ChatEnvelope;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries {@link ChatEnvelope}s between application nodes when chat runs with
+ * app.chat.broker=bus. Implementations never hand a node its own envelopes back.
+ */
+public interface ChatBus {
+
+    String getNodeId();
+
+    // Send to every other node
+    void broadcast(ChatEnvelope envelope);
+
+    // Send to one node; unknown nodes are treated as a broadcast
+    void send(String nodeId, ChatEnvelope envelope);
+
+    void subscribe(Consumer<ChatEnvelope> listener);
+}
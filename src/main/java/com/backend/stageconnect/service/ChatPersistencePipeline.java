@@ -0,0 +1,271 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.entity.Message;
+import com.backend.stageconnect.model.ChatMessage;
+import com.backend.stageconnect.repository.ConversationSummaryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stores chat messages off the STOMP inbound threads. A message gets a pending ID and is
+ * broadcast as soon as it is accepted, then written by a per-partition worker in JDBC
+ * batches together with its conversation summary. Conversations are hashed to partitions
+ * and each partition has a single writer, so messages of one conversation are stored in
+ * the order they were broadcast. Once a batch commits, sender and receiver get an ACK with
+ * the database ID; messages that cannot be stored are NACKed to the sender. Each partition
+ * holds at most app.chat.persistence.queue-capacity messages; when it is full, submit waits
+ * up to app.chat.persistence.offer-timeout-ms and then rejects the message.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChatPersistencePipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatPersistencePipeline.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO messages (sender_id, receiver_id, content, is_read, created_at, updated_at, conversation_id) " +
+            "VALUES (?, ?, ?, FALSE, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConversationSummaryRepository conversationSummaryRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ChatRouter chatRouter;
+
+    @Value("${app.chat.persistence.partitions:4}")
+    private int partitionCount;
+
+    @Value("${app.chat.persistence.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${app.chat.persistence.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.chat.persistence.offer-timeout-ms:200}")
+    private long offerTimeoutMs;
+
+    private Partition[] partitions;
+    private TransactionTemplate transactionTemplate;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        running = true;
+        partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            Partition partition = new Partition(new LinkedBlockingQueue<>(), new Semaphore(queueCapacity), null);
+            Thread worker = new Thread(() -> drain(partition), "chat-persistence-" + (i + 1));
+            worker.setDaemon(true);
+            partition.setWorker(worker);
+            partitions[i] = partition;
+            worker.start();
+        }
+    }
+
+    // Accept a CHAT message: assign its pending ID, run broadcast and queue it for storage.
+    // Returns false without broadcasting, and NACKs the sender, when the message has no sender,
+    // receiver or conversation, or when its partition stays full for the offer timeout.
+    public boolean submit(ChatMessage message, Runnable broadcast) throws InterruptedException {
+        message.setPendingId(UUID.randomUUID().toString());
+        if (message.getSenderId() == null) {
+            logger.warn("Dropping chat message {} without a sender", message.getPendingId());
+            return false;
+        }
+        if (message.getReceiverId() == null) {
+            reject(message, "Invalid message: sender and receiver are required");
+            return false;
+        }
+        // Derived, never taken from the client: the ID keys the stored thread and the shared conversation summary
+        message.setConversationId(Message.generateConversationId(message.getSenderId(), message.getReceiverId()));
+        Partition partition = partitions[Math.floorMod(message.getConversationId().hashCode(), partitions.length)];
+        if (!running || !partition.getPermits().tryAcquire(offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+            reject(message, "Chat is busy, please resend the message");
+            return false;
+        }
+        // Broadcast and enqueue under one lock so the stored order matches the delivered order
+        synchronized (partition) {
+            broadcast.run();
+            partition.getQueue().add(new PendingMessage(message, LocalDateTime.now(), null));
+        }
+        return true;
+    }
+
+    private void drain(Partition partition) {
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        while (running || !partition.getQueue().isEmpty()) {
+            try {
+                PendingMessage first = partition.getQueue().poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                partition.getQueue().drainTo(batch, batchSize - 1);
+                store(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (Exception e) {
+                logger.error("Chat persistence worker failed: {}", e.getMessage());
+            } finally {
+                partition.getPermits().release(batch.size());
+                batch.clear();
+            }
+        }
+    }
+
+    // Store a batch in one transaction; if that fails, store its messages one by one so a bad row only loses itself
+    private void store(List<PendingMessage> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(batch));
+            batch.forEach(this::acknowledge);
+        } catch (Exception batchFailure) {
+            logger.warn("Failed to store {} chat messages as a batch, retrying one by one: {}",
+                    batch.size(), batchFailure.getMessage());
+            for (PendingMessage pending : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> write(List.of(pending)));
+                    acknowledge(pending);
+                } catch (Exception e) {
+                    logger.warn("Failed to store chat message {}: {}", pending.getMessage().getPendingId(), e.getMessage());
+                    reject(pending.getMessage(), "The message could not be saved, please resend it");
+                }
+            }
+        }
+    }
+
+    private void write(List<PendingMessage> batch) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (PendingMessage pending : batch) {
+                    ChatMessage message = pending.getMessage();
+                    Timestamp createdAt = Timestamp.valueOf(pending.getAcceptedAt());
+                    ps.setLong(1, message.getSenderId());
+                    ps.setLong(2, message.getReceiverId());
+                    ps.setString(3, message.getContent());
+                    ps.setTimestamp(4, createdAt);
+                    ps.setTimestamp(5, createdAt);
+                    ps.setString(6, message.getConversationId());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (PendingMessage pending : batch) {
+                        if (!keys.next()) {
+                            throw new IllegalStateException("Missing generated key for chat message");
+                        }
+                        pending.setMessageId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+
+        // One summary upsert per conversation: its last message plus the unread counts of the whole batch
+        Map<String, List<PendingMessage>> byConversation = new LinkedHashMap<>();
+        for (PendingMessage pending : batch) {
+            byConversation.computeIfAbsent(pending.getMessage().getConversationId(), id -> new ArrayList<>()).add(pending);
+        }
+        for (Map.Entry<String, List<PendingMessage>> entry : byConversation.entrySet()) {
+            List<PendingMessage> messages = entry.getValue();
+            PendingMessage last = messages.get(messages.size() - 1);
+            int unreadLow = 0;
+            int unreadHigh = 0;
+            for (PendingMessage pending : messages) {
+                long receiverId = pending.getMessage().getReceiverId();
+                long senderId = pending.getMessage().getSenderId();
+                // A message to oneself is never unread, so markRead has nothing to subtract for it
+                if (receiverId < senderId) {
+                    unreadLow++;
+                } else if (receiverId > senderId) {
+                    unreadHigh++;
+                }
+            }
+            Long senderId = last.getMessage().getSenderId();
+            Long receiverId = last.getMessage().getReceiverId();
+            conversationSummaryRepository.upsertMessage(
+                    entry.getKey(),
+                    Math.min(senderId, receiverId),
+                    Math.max(senderId, receiverId),
+                    last.getMessageId(),
+                    senderId,
+                    last.getMessage().getContent(),
+                    last.getAcceptedAt(),
+                    unreadLow,
+                    unreadHigh);
+        }
+    }
+
+    private void acknowledge(PendingMessage pending) {
+        ChatMessage ack = receipt(pending.getMessage(), ChatMessage.MessageType.ACK);
+        ack.setMessageId(pending.getMessageId());
+        chatRouter.sendToUser(ack.getSenderId(), ack);
+        chatRouter.sendToUser(ack.getReceiverId(), ack);
+    }
+
+    // Tell the sender the message with this pending ID was not stored
+    private void reject(ChatMessage message, String reason) {
+        ChatMessage nack = receipt(message, ChatMessage.MessageType.NACK);
+        nack.setContent(reason);
+        chatRouter.sendToUser(nack.getSenderId(), nack);
+    }
+
+    private ChatMessage receipt(ChatMessage message, ChatMessage.MessageType type) {
+        ChatMessage receipt = new ChatMessage();
+        receipt.setType(type);
+        receipt.setSenderId(message.getSenderId());
+        receipt.setReceiverId(message.getReceiverId());
+        receipt.setConversationId(message.getConversationId());
+        receipt.setPendingId(message.getPendingId());
+        return receipt;
+    }
+
+    // Stop accepting messages and let the workers store what is queued
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        for (Partition partition : partitions) {
+            partition.getWorker().join(10_000);
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class Partition {
+        private LinkedBlockingQueue<PendingMessage> queue;
+        private Semaphore permits;
+        private Thread worker;
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class PendingMessage {
+        private ChatMessage message;
+        private LocalDateTime acceptedAt;
+        private Long messageId;
+    }
+}
@@ -0,0 +1,129 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.model.ChatEnvelope;
+import com.backend.stageconnect.model.ChatMessage;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sends chat frames to users and public topics regardless of which node holds the socket.
+ * With app.chat.broker=simple or relay this is a plain send through the local broker (the
+ * relay broker already reaches every node). With app.chat.broker=bus every node runs its
+ * own simple broker and frames for a user connected elsewhere are forwarded over the
+ * {@link ChatBus} to the node that announced that user.
+ * <p>
+ * With relay and bus, nodes also announce the users connected to them over the bus, so every
+ * node knows who is online anywhere. In relay mode that needs a bus transport reaching all
+ * nodes (app.chat.bus.transport=udp); with the in-memory transport presence stays per node.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChatRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatRouter.class);
+
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final ChatBus chatBus;
+
+    @Value("${app.chat.broker:simple}")
+    private String broker;
+
+    // Open sockets per user on this node
+    private final Map<Long, Integer> localUsers = new ConcurrentHashMap<>();
+
+    // Node holding each user connected elsewhere
+    private final Map<Long, String> remoteUsers = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        if (!isPresenceShared()) {
+            return;
+        }
+        chatBus.subscribe(this::onEnvelope);
+        chatBus.broadcast(envelope(ChatEnvelope.Kind.HELLO, null, null, null));
+        logger.info("Chat {} over bus as node {}", isBusEnabled() ? "routing" : "presence", chatBus.getNodeId());
+    }
+
+    public boolean isBusEnabled() {
+        return "bus".equalsIgnoreCase(broker);
+    }
+
+    // Whether nodes exchange ONLINE/OFFLINE over the bus; the relay broker shares frames but not presence
+    private boolean isPresenceShared() {
+        return isBusEnabled() || "relay".equalsIgnoreCase(broker);
+    }
+
+    public void userConnected(Long userId) {
+        if (localUsers.merge(userId, 1, Integer::sum) == 1 && isPresenceShared()) {
+            chatBus.broadcast(envelope(ChatEnvelope.Kind.ONLINE, userId, null, null));
+        }
+    }
+
+    public void userDisconnected(Long userId) {
+        Integer remaining = localUsers.computeIfPresent(userId, (id, count) -> count > 1 ? count - 1 : null);
+        if (remaining == null && isPresenceShared()) {
+            chatBus.broadcast(envelope(ChatEnvelope.Kind.OFFLINE, userId, null, null));
+        }
+    }
+
+    // Send to /topic/user/{userId} on whichever node the user is connected to
+    public void sendToUser(Long userId, ChatMessage message) {
+        messagingTemplate.convertAndSend(userTopic(userId), message);
+        if (!isBusEnabled() || localUsers.containsKey(userId)) {
+            return;
+        }
+        String node = remoteUsers.get(userId);
+        if (node != null) {
+            chatBus.send(node, envelope(ChatEnvelope.Kind.DELIVER, userId, null, message));
+        }
+    }
+
+    // Send to a topic on every node
+    public void publish(String destination, ChatMessage message) {
+        messagingTemplate.convertAndSend(destination, message);
+        if (isBusEnabled()) {
+            chatBus.broadcast(envelope(ChatEnvelope.Kind.PUBLISH, null, destination, message));
+        }
+    }
+
+    // The node a user is connected to, or null when they are not connected anywhere known
+    public String nodeOf(Long userId) {
+        return localUsers.containsKey(userId) ? chatBus.getNodeId() : remoteUsers.get(userId);
+    }
+
+    private void onEnvelope(ChatEnvelope envelope) {
+        String origin = envelope.getOriginNode();
+        switch (envelope.getKind()) {
+            case HELLO -> localUsers.keySet().forEach(userId ->
+                    chatBus.send(origin, envelope(ChatEnvelope.Kind.ONLINE, userId, null, null)));
+            case ONLINE -> remoteUsers.put(envelope.getUserId(), origin);
+            case OFFLINE -> remoteUsers.remove(envelope.getUserId(), origin);
+            case DELIVER -> {
+                if (isBusEnabled() && localUsers.containsKey(envelope.getUserId())) {
+                    messagingTemplate.convertAndSend(userTopic(envelope.getUserId()), envelope.getPayload());
+                }
+            }
+            case PUBLISH -> {
+                if (isBusEnabled()) {
+                    messagingTemplate.convertAndSend(envelope.getDestination(), envelope.getPayload());
+                }
+            }
+        }
+    }
+
+    private ChatEnvelope envelope(ChatEnvelope.Kind kind, Long userId, String destination, ChatMessage payload) {
+        return new ChatEnvelope(kind, chatBus.getNodeId(), userId, destination, payload);
+    }
+
+    private static String userTopic(Long userId) {
+        return "/topic/user/" + userId;
+    }
+}
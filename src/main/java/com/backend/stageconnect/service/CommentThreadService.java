@@ -0,0 +1,227 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.dto.CommentDTO;
+import com.backend.stageconnect.dto.UserCard;
+import com.backend.stageconnect.entity.Comment;
+import com.backend.stageconnect.model.Cursor;
+import com.backend.stageconnect.model.CursorPage;
+import com.backend.stageconnect.repository.CommentRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Reads comment threads without walking the lazy replies collection. Feeds get the newest
+ * few top-level comments of every post on the page plus thread sizes in a single query;
+ * a full thread is read with one query on root_id and assembled in memory.
+ */
+@Service
+@RequiredArgsConstructor
+public class CommentThreadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommentThreadService.class);
+
+    // Fills root_id one level deeper per pass for replies written before the column existed
+    private static final String BACKFILL_ROOT_SQL =
+            "UPDATE comments c JOIN comments p ON c.parent_id = p.id " +
+            "SET c.root_id = COALESCE(p.root_id, p.id) " +
+            "WHERE c.parent_id IS NOT NULL AND c.root_id IS NULL AND (p.parent_id IS NULL OR p.root_id IS NOT NULL)";
+
+    // Position before every reply, where an uncursored read starts
+    private static final Cursor FIRST_REPLY = new Cursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+
+    private final CommentRepository commentRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final UserCardCache userCardCache;
+
+    @Value("${app.comments.preview-size:3}")
+    private int previewSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillRoots() {
+        try {
+            int filled = 0;
+            int updated;
+            while ((updated = jdbcTemplate.update(BACKFILL_ROOT_SQL)) > 0) {
+                filled += updated;
+            }
+            if (filled > 0) {
+                logger.info("Backfilled root_id for {} comment replies", filled);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to backfill comment roots: {}", e.getMessage());
+        }
+    }
+
+    // The thread a new reply joins
+    public Long rootIdForReplyTo(Comment parent) {
+        return parent.getRootId() != null ? parent.getRootId() : parent.getId();
+    }
+
+    // Newest top-level comments per post with their thread sizes, for a page of posts
+    @Transactional(readOnly = true)
+    public Map<Long, List<CommentDTO>> previews(Collection<Long> postIds) {
+        Map<Long, List<CommentDTO>> previews = new HashMap<>();
+        if (postIds.isEmpty()) {
+            return previews;
+        }
+        for (Object[] row : commentRepository.findTopLevelPreviews(postIds, previewSize)) {
+            CommentDTO dto = new CommentDTO(
+                    toLong(row[0]), (String) row[1], toLong(row[2]), (String) row[3], (String) row[4],
+                    (String) row[5], null, toLong(row[6]), null, ((Number) row[7]).intValue(),
+                    toLocalDateTime(row[8]), toLocalDateTime(row[9]));
+            dto.setReplyCount(((Number) row[10]).longValue());
+            previews.computeIfAbsent(dto.getPostId(), id -> new ArrayList<>()).add(dto);
+        }
+        return previews;
+    }
+
+    // Top-level comments without replies, each with the size of its thread
+    @Transactional(readOnly = true)
+    public List<CommentDTO> withThreadSizes(List<Comment> topLevel) {
+        Map<Long, Long> counts = counts(topLevel.isEmpty()
+                ? List.of()
+                : commentRepository.countByRootIdIn(topLevel.stream().map(Comment::getId).collect(Collectors.toList())));
+        Map<Long, UserCard> authors = userCardCache.cards(
+                topLevel.stream().map(comment -> comment.getAuthor().getId()).collect(Collectors.toSet()));
+        return topLevel.stream()
+                .map(comment -> {
+                    CommentDTO dto = CommentDTO.fromEntity(comment, authors.get(comment.getAuthor().getId()));
+                    dto.setReplyCount(counts.getOrDefault(comment.getId(), 0L));
+                    return dto;
+                })
+                .collect(Collectors.toList());
+    }
+
+    // Top-level comments with their direct replies inlined, as the offset-paged listing has always
+    // returned them; the replies of the whole page come from one query on root_id
+    @Transactional(readOnly = true)
+    public List<CommentDTO> withDirectReplies(List<Comment> topLevel) {
+        List<CommentDTO> comments = withThreadSizes(topLevel);
+        if (comments.isEmpty()) {
+            return comments;
+        }
+        List<CommentDTO> replies = commentRepository.findDirectRepliesOfRoots(
+                comments.stream().map(CommentDTO::getId).collect(Collectors.toList()));
+        withReplyCounts(replies);
+        Map<Long, List<CommentDTO>> byParent = new HashMap<>();
+        replies.forEach(reply -> byParent.computeIfAbsent(reply.getParentId(), id -> new ArrayList<>()).add(reply));
+        comments.forEach(comment -> comment.setReplies(byParent.get(comment.getId())));
+        return comments;
+    }
+
+    // The thread containing a comment as a tree, rooted at its top-level comment
+    @Transactional(readOnly = true)
+    public CommentDTO loadThread(Comment comment) {
+        Long rootId = comment.getRootId() != null ? comment.getRootId() : comment.getId();
+        Map<Long, CommentDTO> byId = new LinkedHashMap<>();
+        for (CommentDTO dto : commentRepository.findThread(rootId)) {
+            dto.setReplies(new ArrayList<>());
+            byId.put(dto.getId(), dto);
+        }
+        for (CommentDTO dto : byId.values()) {
+            CommentDTO parent = dto.getParentId() != null ? byId.get(dto.getParentId()) : null;
+            if (parent != null) {
+                parent.getReplies().add(dto);
+            }
+        }
+        byId.values().forEach(dto -> dto.setReplyCount(dto.getReplies().size()));
+        return byId.get(rootId);
+    }
+
+    // Direct replies to a comment, oldest first, one page after the cursor (null for the first page)
+    @Transactional(readOnly = true)
+    public CursorPage<CommentDTO> replies(Long commentId, Cursor after, int size) {
+        Cursor position = after != null ? after : FIRST_REPLY;
+        CursorPage<CommentDTO> page = CursorPage.of(
+                commentRepository.findRepliesAfter(commentId, position.getCreatedAt(), position.getId(), PageRequest.of(0, size + 1)),
+                size, reply -> new Cursor(reply.getCreatedAt(), reply.getId()));
+        withReplyCounts(page.getItems());
+        return page;
+    }
+
+    // Every direct reply to a comment, oldest first, for clients that do not page
+    @Transactional(readOnly = true)
+    public List<CommentDTO> allReplies(Long commentId) {
+        List<CommentDTO> replies = commentRepository.findRepliesAfter(
+                commentId, FIRST_REPLY.getCreatedAt(), FIRST_REPLY.getId(), Pageable.unpaged());
+        withReplyCounts(replies);
+        return replies;
+    }
+
+    private void withReplyCounts(List<CommentDTO> replies) {
+        if (replies.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> counts = counts(commentRepository.countByParentIdIn(
+                replies.stream().map(CommentDTO::getId).collect(Collectors.toList())));
+        replies.forEach(reply -> reply.setReplyCount(counts.getOrDefault(reply.getId(), 0L)));
+    }
+
+    // Number of comments removed when this comment is deleted, itself included
+    @Transactional(readOnly = true)
+    public int subtreeSize(Comment comment) {
+        CommentDTO thread = loadThread(comment);
+        CommentDTO node = thread != null ? find(thread, comment.getId()) : null;
+        return node != null ? countNodes(node) : 1;
+    }
+
+    private static CommentDTO find(CommentDTO node, Long id) {
+        if (node.getId().equals(id)) {
+            return node;
+        }
+        for (CommentDTO reply : node.getReplies()) {
+            CommentDTO found = find(reply, id);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    private static int countNodes(CommentDTO node) {
+        int count = 1;
+        for (CommentDTO reply : node.getReplies()) {
+            count += countNodes(reply);
+        }
+        return count;
+    }
+
+    private static Map<Long, Long> counts(List<Object[]> rows) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            counts.put(toLong(row[0]), ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    private static Long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : null;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+}
@@ -0,0 +1,128 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.dto.UserCard;
+import com.backend.stageconnect.entity.ConversationSummary;
+import com.backend.stageconnect.entity.Message;
+import com.backend.stageconnect.repository.ConversationSummaryRepository;
+import com.backend.stageconnect.repository.MessageRepository;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Writes chat messages together with the conversation_summary row that backs the inbox,
+ * so both send paths and the read paths keep the projection in step with the messages table.
+ */
+@Service
+@RequiredArgsConstructor
+public class ConversationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversationService.class);
+
+    // Messages written before conversation IDs were always set
+    private static final String FILL_CONVERSATION_IDS_SQL =
+            "UPDATE messages SET conversation_id = CONCAT(LEAST(sender_id, receiver_id), '_', GREATEST(sender_id, receiver_id)) " +
+            "WHERE conversation_id IS NULL";
+
+    private static final String BACKFILL_SQL =
+            "INSERT IGNORE INTO conversation_summary (conversation_id, user_low_id, user_high_id, last_message_id, " +
+            "last_sender_id, last_message_content, last_message_at, last_message_read, unread_low, unread_high) " +
+            "SELECT m.conversation_id, LEAST(m.sender_id, m.receiver_id), GREATEST(m.sender_id, m.receiver_id), m.id, " +
+            "m.sender_id, m.content, m.created_at, m.is_read, " +
+            "COALESCE(u.unread_low, 0), COALESCE(u.unread_high, 0) " +
+            "FROM messages m " +
+            "JOIN (SELECT conversation_id, MAX(id) AS max_id FROM messages GROUP BY conversation_id) latest " +
+            "ON latest.max_id = m.id " +
+            "LEFT JOIN (SELECT conversation_id, " +
+            "SUM(is_read = FALSE AND receiver_id < sender_id) AS unread_low, " +
+            "SUM(is_read = FALSE AND receiver_id > sender_id) AS unread_high " +
+            "FROM messages GROUP BY conversation_id) u ON u.conversation_id = m.conversation_id";
+
+    private final MessageRepository messageRepository;
+    private final ConversationSummaryRepository conversationSummaryRepository;
+    private final UserCardCache userCardCache;
+    private final JdbcTemplate jdbcTemplate;
+
+    // Save a message and fold it into its conversation summary in one transaction
+    @Transactional
+    public Message send(Message message) {
+        Message saved = messageRepository.save(message);
+
+        Long senderId = saved.getSender().getId();
+        Long receiverId = saved.getReceiver().getId();
+        boolean receiverIsLow = receiverId < senderId;
+        // A message to oneself is never unread on either side, matching the backfill
+        boolean selfMessage = receiverId.equals(senderId);
+
+        conversationSummaryRepository.upsertMessage(
+                saved.getConversationId(),
+                Math.min(senderId, receiverId),
+                Math.max(senderId, receiverId),
+                saved.getId(),
+                senderId,
+                saved.getContent(),
+                saved.getCreatedAt(),
+                receiverIsLow ? 1 : 0,
+                receiverIsLow || selfMessage ? 0 : 1);
+        return saved;
+    }
+
+    // Mark the messages a user received in a conversation as read, up to and including upToId,
+    // with a single UPDATE; returns how many messages changed state
+    @Transactional
+    public int markRead(String conversationId, Long readerId, Long upToId) {
+        Long watermark = upToId != null ? upToId : Long.MAX_VALUE;
+        int updated = messageRepository.markReadUpTo(conversationId, readerId, watermark);
+        if (updated > 0) {
+            conversationSummaryRepository.markReadBy(conversationId, readerId, updated, watermark);
+        }
+        return updated;
+    }
+
+    // Load the user's inbox: one query for the summaries, at most one for the partners' cards
+    @Transactional(readOnly = true)
+    public Inbox getInbox(Long userId) {
+        List<ConversationSummary> summaries = conversationSummaryRepository.findInbox(userId);
+        List<Long> partnerIds = summaries.stream()
+                .map(summary -> summary.getPartnerId(userId))
+                .collect(Collectors.toList());
+        Map<Long, UserCard> partners = userCardCache.cards(partnerIds);
+        return new Inbox(summaries, partners);
+    }
+
+    // Build summaries for conversations that predate the projection (first start only)
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        try {
+            jdbcTemplate.update(FILL_CONVERSATION_IDS_SQL);
+            if (conversationSummaryRepository.count() > 0) {
+                return;
+            }
+            int created = jdbcTemplate.update(BACKFILL_SQL);
+            if (created > 0) {
+                logger.info("Backfilled {} conversation summaries", created);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to backfill conversation summaries: {}", e.getMessage());
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Inbox {
+        private List<ConversationSummary> summaries;
+        private Map<Long, UserCard> partners;
+    }
+}
@@ -0,0 +1,256 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.model.ChatEnvelope;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Chat bus over UDP between a fixed list of peers, meant for running several application
+ * instances on one machine or a small private network. Each envelope is one JSON datagram
+ * prefixed with an HMAC-SHA256 of the JSON under app.chat.bus.secret. Datagrams from an
+ * address that is not a configured peer, and datagrams whose HMAC does not match, are dropped
+ * and counted. The address of a node is learned from the first envelope it sends.
+ * <p>
+ * Delivery is at-most-once: a lost datagram is not retried, and a receiver may see envelopes
+ * from different nodes out of order. A frame lost on the way to another node is lost for that
+ * user, and presence heals at the next HELLO.
+ */
+@Component
+@ConditionalOnProperty(name = "app.chat.bus.transport", havingValue = "udp")
+public class DatagramChatBus implements ChatBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatagramChatBus.class);
+
+    private static final int MAX_DATAGRAM = 65_000;
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int MAC_LENGTH = 32;
+
+    private final ObjectMapper objectMapper;
+    private final String nodeId;
+    private final int port;
+    private final SecretKeySpec key;
+    private final List<SocketAddress> peers = new ArrayList<>();
+    private final Set<SocketAddress> allowedSenders = new HashSet<>();
+    private final Map<String, SocketAddress> nodeAddresses = new ConcurrentHashMap<>();
+    private final List<Consumer<ChatEnvelope>> listeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong unknownSender = new AtomicLong();
+    private final AtomicLong badSignature = new AtomicLong();
+    private final AtomicLong oversized = new AtomicLong();
+    private final AtomicLong malformed = new AtomicLong();
+
+    private DatagramSocket socket;
+    private Thread receiver;
+
+    public DatagramChatBus(ObjectMapper objectMapper,
+                           @Value("${app.chat.node-id:}") String nodeId,
+                           @Value("${app.chat.bus.port:9101}") int port,
+                           @Value("${app.chat.bus.peers:}") List<String> peers,
+                           @Value("${app.chat.bus.secret:}") String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("app.chat.bus.secret must be set when app.chat.bus.transport=udp");
+        }
+        this.objectMapper = objectMapper;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.port = port;
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM);
+        for (String peer : peers) {
+            int colon = peer.lastIndexOf(':');
+            if (colon > 0) {
+                InetSocketAddress address = new InetSocketAddress(peer.substring(0, colon).trim(),
+                        Integer.parseInt(peer.substring(colon + 1).trim()));
+                this.peers.add(address);
+                // Peers send from the port they listen on
+                this.allowedSenders.add(address);
+            }
+        }
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        socket = new DatagramSocket(port);
+        receiver = new Thread(this::receiveLoop, "chat-bus-receiver");
+        receiver.setDaemon(true);
+        receiver.start();
+        logger.info("Chat bus node {} listening on UDP port {} with {} peers", nodeId, port, peers.size());
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void broadcast(ChatEnvelope envelope) {
+        byte[] data = encode(envelope);
+        if (data == null) {
+            return;
+        }
+        for (SocketAddress peer : peers) {
+            transmit(data, peer);
+        }
+    }
+
+    @Override
+    public void send(String nodeId, ChatEnvelope envelope) {
+        SocketAddress address = nodeAddresses.get(nodeId);
+        if (address == null) {
+            broadcast(envelope);
+            return;
+        }
+        byte[] data = encode(envelope);
+        if (data != null) {
+            transmit(data, address);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<ChatEnvelope> listener) {
+        listeners.add(listener);
+    }
+
+    // Datagrams received, and dropped by reason
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("received", received.get());
+        stats.put("unknownSender", unknownSender.get());
+        stats.put("badSignature", badSignature.get());
+        stats.put("oversized", oversized.get());
+        stats.put("malformed", malformed.get());
+        stats.put("knownNodes", nodeAddresses.size());
+        return stats;
+    }
+
+    private byte[] encode(ChatEnvelope envelope) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(envelope);
+            if (MAC_LENGTH + json.length > MAX_DATAGRAM) {
+                oversized.incrementAndGet();
+                logger.warn("Dropping outgoing {} chat envelope of {} bytes", envelope.getKind(), json.length);
+                return null;
+            }
+            byte[] data = new byte[MAC_LENGTH + json.length];
+            System.arraycopy(mac(json, 0, json.length), 0, data, 0, MAC_LENGTH);
+            System.arraycopy(json, 0, data, MAC_LENGTH, json.length);
+            return data;
+        } catch (IOException e) {
+            logger.warn("Failed to encode chat envelope: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    // The envelope in a received datagram, or null if it was dropped
+    ChatEnvelope decode(DatagramPacket packet) throws IOException {
+        received.incrementAndGet();
+        if (!allowedSenders.contains(packet.getSocketAddress())) {
+            dropped(unknownSender, "from unknown sender", packet);
+            return null;
+        }
+        if (packet.getLength() > MAX_DATAGRAM) {
+            dropped(oversized, "oversized", packet);
+            return null;
+        }
+        if (packet.getLength() <= MAC_LENGTH) {
+            dropped(malformed, "truncated", packet);
+            return null;
+        }
+        byte[] data = packet.getData();
+        int offset = packet.getOffset();
+        byte[] expected = mac(data, offset + MAC_LENGTH, packet.getLength() - MAC_LENGTH);
+        if (!MessageDigest.isEqual(expected, Arrays.copyOfRange(data, offset, offset + MAC_LENGTH))) {
+            dropped(badSignature, "with a bad signature", packet);
+            return null;
+        }
+        return objectMapper.readValue(data, offset + MAC_LENGTH, packet.getLength() - MAC_LENGTH, ChatEnvelope.class);
+    }
+
+    private byte[] mac(byte[] data, int offset, int length) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(key);
+            mac.update(data, offset, length);
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(MAC_ALGORITHM + " is not available", e);
+        }
+    }
+
+    // Logs the first drop of each kind and then every thousandth, so a flood cannot fill the log
+    private static void dropped(AtomicLong counter, String reason, DatagramPacket packet) {
+        long count = counter.incrementAndGet();
+        if (count == 1 || count % 1000 == 0) {
+            logger.warn("Dropped chat datagram {} {} ({} so far)", reason, packet.getSocketAddress(), count);
+        } else {
+            logger.debug("Dropped chat datagram {} {}", reason, packet.getSocketAddress());
+        }
+    }
+
+    private void transmit(byte[] data, SocketAddress address) {
+        try {
+            socket.send(new DatagramPacket(data, data.length, address));
+        } catch (IOException e) {
+            logger.debug("Failed to send chat envelope to {}: {}", address, e.getMessage());
+        }
+    }
+
+    private void receiveLoop() {
+        byte[] buffer = new byte[MAX_DATAGRAM + 1];
+        while (!socket.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+                ChatEnvelope envelope = decode(packet);
+                if (envelope == null || envelope.getOriginNode() == null || nodeId.equals(envelope.getOriginNode())) {
+                    continue;
+                }
+                nodeAddresses.put(envelope.getOriginNode(), packet.getSocketAddress());
+                for (Consumer<ChatEnvelope> listener : listeners) {
+                    listener.accept(envelope);
+                }
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    logger.warn("Failed to receive chat envelope: {}", e.getMessage());
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Failed to handle chat envelope: {}", e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (socket != null) {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.dto.CandidateListing;
+import com.backend.stageconnect.dto.CompanyListing;
+import com.backend.stageconnect.model.Cursor;
+import com.backend.stageconnect.model.CursorPage;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Candidate and company directories read straight from JDBC, without loading entities.
+ * Pages are keyset queries on id. Full listings read rows through a forward-only streaming
+ * cursor and write each record with a Jackson generator as it arrives, so memory stays flat
+ * however many candidates and companies there are. A full listing holds a pooled connection
+ * until it has been written, so at most app.directory.max-streams run at once.
+ */
+@Service
+@RequiredArgsConstructor
+public class DirectoryService {
+
+    // MySQL Connector/J hands rows over one at a time with this fetch size instead of buffering the result
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    private static final String CANDIDATE_SQL =
+            "SELECT u.id, u.first_name, u.last_name, u.email, ca.phone, ca.location, ca.title, ca.website, " +
+            "ca.company_or_university, ca.about, ca.photo " +
+            "FROM candidates ca JOIN users u ON u.id = ca.id ";
+
+    private static final String COMPANY_COLUMNS =
+            "c.id, c.name, c.industry, c.size, c.founded_date, c.website, c.location, c.email, c.phone, " +
+            "c.address, c.city, c.postal_code, c.country, c.registration_number, c.vat_id, c.legal_form, " +
+            "c.linked_in_url, c.twitter_url, c.instagram_url, c.facebook_url, c.photo";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.base-url:http://localhost:8080}")
+    private String baseUrl;
+
+    @Value("${app.directory.max-page-size:100}")
+    private int maxPageSize;
+
+    @Value("${app.directory.max-streams:2}")
+    private int maxStreams;
+
+    private Semaphore streams;
+
+    @PostConstruct
+    void init() {
+        streams = new Semaphore(maxStreams);
+    }
+
+    // Candidates after the cursor position, in id order
+    public CursorPage<CandidateListing> candidates(Cursor after, int size) {
+        size = pageSize(size);
+        List<CandidateListing> rows = jdbcTemplate.query(
+                CANDIDATE_SQL + "WHERE ca.id > ? ORDER BY ca.id LIMIT ?",
+                (rs, rowNum) -> candidate(rs), afterId(after), size + 1);
+        return CursorPage.of(rows, size, candidate -> new Cursor(null, candidate.id()));
+    }
+
+    // Companies after the cursor position, in id order, with the technologies of the page in one query
+    public CursorPage<CompanyListing> companies(Cursor after, int size) {
+        size = pageSize(size);
+        long afterId = afterId(after);
+        List<CompanyListing> rows = jdbcTemplate.query(
+                "SELECT " + COMPANY_COLUMNS + " FROM companies c WHERE c.id > ? ORDER BY c.id LIMIT ?",
+                (rs, rowNum) -> company(rs, new ArrayList<>()), afterId, size + 1);
+        CursorPage<CompanyListing> page = CursorPage.of(rows, size, company -> new Cursor(null, company.id()));
+
+        if (!page.getItems().isEmpty()) {
+            Map<Long, List<String>> technologies = new HashMap<>();
+            for (CompanyListing company : page.getItems()) {
+                technologies.put(company.id(), company.technologies());
+            }
+            jdbcTemplate.query(
+                    "SELECT company_id, technology FROM company_technologies WHERE company_id > ? AND company_id <= ?",
+                    (RowCallbackHandler) rs -> {
+                        List<String> list = technologies.get(rs.getLong("company_id"));
+                        if (list != null) {
+                            list.add(rs.getString("technology"));
+                        }
+                    },
+                    afterId, page.getItems().get(page.getItems().size() - 1).id());
+        }
+        return page;
+    }
+
+    // A body writing every candidate, or null when max-streams listings are already being written
+    public StreamingResponseBody candidateStream(boolean ndjson) {
+        return limited(out -> streamCandidates(out, ndjson));
+    }
+
+    // A body writing every company, or null when max-streams listings are already being written
+    public StreamingResponseBody companyStream(boolean ndjson) {
+        return limited(out -> streamCompanies(out, ndjson));
+    }
+
+    // Takes a stream slot now, so the caller can refuse the request before the response starts
+    private StreamingResponseBody limited(StreamingResponseBody body) {
+        if (!streams.tryAcquire()) {
+            return null;
+        }
+        return out -> {
+            try {
+                body.writeTo(out);
+            } finally {
+                streams.release();
+            }
+        };
+    }
+
+    // Every candidate as a JSON array, or as one JSON object per line
+    void streamCandidates(OutputStream out, boolean ndjson) throws IOException {
+        try (ListingWriter writer = new ListingWriter(out, ndjson)) {
+            stream(CANDIDATE_SQL + "ORDER BY ca.id", rs -> writer.write(candidate(rs)));
+        }
+    }
+
+    // Every company with its technologies as a JSON array, or as one JSON object per line.
+    // Technologies come from the same forward-only read; a company is written once its last row has passed.
+    void streamCompanies(OutputStream out, boolean ndjson) throws IOException {
+        try (ListingWriter writer = new ListingWriter(out, ndjson)) {
+            CompanyListing[] current = new CompanyListing[1];
+            stream("SELECT " + COMPANY_COLUMNS + ", t.technology FROM companies c " +
+                   "LEFT JOIN company_technologies t ON t.company_id = c.id ORDER BY c.id",
+                    rs -> {
+                        long id = rs.getLong("id");
+                        if (current[0] == null || current[0].id() != id) {
+                            if (current[0] != null) {
+                                writer.write(current[0]);
+                            }
+                            current[0] = company(rs, new ArrayList<>());
+                        }
+                        String technology = rs.getString("technology");
+                        if (technology != null) {
+                            current[0].technologies().add(technology);
+                        }
+                    });
+            if (current[0] != null) {
+                writer.write(current[0]);
+            }
+        }
+    }
+
+    private void stream(String sql, RowCallbackHandler handler) throws IOException {
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                        sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(STREAMING_FETCH_SIZE);
+                return statement;
+            }, handler);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private CandidateListing candidate(ResultSet rs) throws SQLException {
+        return new CandidateListing(
+                rs.getLong("id"),
+                rs.getString("first_name"),
+                rs.getString("last_name"),
+                rs.getString("email"),
+                rs.getString("phone"),
+                rs.getString("location"),
+                rs.getString("title"),
+                rs.getString("website"),
+                rs.getString("company_or_university"),
+                rs.getString("about"),
+                photoUrl(rs.getString("photo")));
+    }
+
+    private CompanyListing company(ResultSet rs, List<String> technologies) throws SQLException {
+        return new CompanyListing(
+                rs.getLong("id"),
+                rs.getString("name"),
+                rs.getString("industry"),
+                rs.getString("size"),
+                rs.getObject("founded_date", LocalDate.class),
+                rs.getString("website"),
+                rs.getString("location"),
+                rs.getString("email"),
+                rs.getString("phone"),
+                rs.getString("address"),
+                rs.getString("city"),
+                rs.getString("postal_code"),
+                rs.getString("country"),
+                technologies,
+                rs.getString("registration_number"),
+                rs.getString("vat_id"),
+                rs.getString("legal_form"),
+                rs.getString("linked_in_url"),
+                rs.getString("twitter_url"),
+                rs.getString("instagram_url"),
+                rs.getString("facebook_url"),
+                photoUrl(rs.getString("photo")));
+    }
+
+    private String photoUrl(String photo) {
+        return photo != null ? baseUrl + photo : null;
+    }
+
+    private int pageSize(int size) {
+        return Math.max(1, Math.min(size, maxPageSize));
+    }
+
+    private static long afterId(Cursor after) {
+        return after != null && after.getId() != null ? after.getId() : 0L;
+    }
+
+    // Writes records one by one, either inside a JSON array or newline-delimited
+    private class ListingWriter implements AutoCloseable {
+
+        private final JsonGenerator generator;
+        private final boolean ndjson;
+
+        ListingWriter(OutputStream out, boolean ndjson) throws IOException {
+            this.generator = objectMapper.createGenerator(out);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.setRootValueSeparator(null);
+            this.ndjson = ndjson;
+            if (!ndjson) {
+                generator.writeStartArray();
+            }
+        }
+
+        // Called from JDBC row callbacks, which cannot throw IOException
+        void write(Object listing) {
+            try {
+                generator.writeObject(listing);
+                if (ndjson) {
+                    generator.writeRaw('\n');
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+            generator.close();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.entity.Post;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind counters for post likes and comments. Changes are accumulated per post in
+ * memory and applied periodically as relative UPDATEs, so concurrent likes on a busy post
+ * never contend on the row or overwrite each other. Reads add the pending delta to the
+ * stored value. A reconciliation pass recomputes the stored counts from post_likes and
+ * comments to repair drift, e.g. deltas lost in a crash.
+ */
+@Service
+@RequiredArgsConstructor
+public class EngagementCounterService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EngagementCounterService.class);
+
+    private static final String FLUSH_SQL =
+            "UPDATE posts SET like_count = GREATEST(COALESCE(like_count, 0) + ?, 0), " +
+            "comment_count = GREATEST(COALESCE(comment_count, 0) + ?, 0) WHERE id = ?";
+
+    private static final String RECONCILE_SELECT_SQL =
+            "SELECT p.id, p.like_count, p.comment_count, " +
+            "(SELECT COUNT(*) FROM post_likes l WHERE l.post_id = p.id), " +
+            "(SELECT COUNT(*) FROM comments c WHERE c.post_id = p.id) " +
+            "FROM posts p WHERE p.id > ? ORDER BY p.id LIMIT ?";
+
+    private static final String RECONCILE_UPDATE_SQL =
+            "UPDATE posts SET like_count = ?, comment_count = ? WHERE id = ?";
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Pending deltas per post ID; merge() and remove() are atomic per key, so nothing is lost while draining
+    private final ConcurrentHashMap<Long, Long> pendingLikes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> pendingComments = new ConcurrentHashMap<>();
+
+    public void addLikes(Long postId, long delta) {
+        pendingLikes.merge(postId, delta, Long::sum);
+    }
+
+    public void addComments(Long postId, long delta) {
+        pendingComments.merge(postId, delta, Long::sum);
+    }
+
+    // Stored like count plus whatever has not been flushed yet
+    public int getLikeCount(Post post) {
+        return (int) Math.max(0, value(post.getLikeCount()) + pendingLikes.getOrDefault(post.getId(), 0L));
+    }
+
+    public int getCommentCount(Post post) {
+        return (int) Math.max(0, value(post.getCommentCount()) + pendingComments.getOrDefault(post.getId(), 0L));
+    }
+
+    // Fold pending deltas into loaded posts before they are rendered; the counter columns are never written back by JPA
+    public void applyPending(List<Post> posts) {
+        for (Post post : posts) {
+            post.setLikeCount(getLikeCount(post));
+            post.setCommentCount(getCommentCount(post));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.counters.flush-interval-ms:1000}")
+    @PreDestroy
+    public void flush() {
+        Set<Long> postIds = new HashSet<>(pendingLikes.keySet());
+        postIds.addAll(pendingComments.keySet());
+        if (postIds.isEmpty()) {
+            return;
+        }
+
+        List<long[]> deltas = new ArrayList<>(postIds.size());
+        for (Long postId : postIds) {
+            Long likes = pendingLikes.remove(postId);
+            Long comments = pendingComments.remove(postId);
+            long likeDelta = likes != null ? likes : 0;
+            long commentDelta = comments != null ? comments : 0;
+            if (likeDelta != 0 || commentDelta != 0) {
+                deltas.add(new long[] {postId, likeDelta, commentDelta});
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, deltas, BATCH_SIZE, (ps, delta) -> {
+                ps.setLong(1, delta[1]);
+                ps.setLong(2, delta[2]);
+                ps.setLong(3, delta[0]);
+            });
+        } catch (Exception e) {
+            // Put the deltas back so the next flush retries them
+            logger.warn("Failed to flush {} post counters: {}", deltas.size(), e.getMessage());
+            for (long[] delta : deltas) {
+                addLikes(delta[0], delta[1]);
+                addComments(delta[0], delta[2]);
+            }
+        }
+    }
+
+    // Recompute stored counts from the source tables, skipping posts with deltas still in flight
+    @Scheduled(fixedDelayString = "${app.counters.reconcile-interval-ms:3600000}",
+               initialDelayString = "${app.counters.reconcile-interval-ms:3600000}")
+    public void reconcile() {
+        flush();
+        long lastId = 0;
+        int repaired = 0;
+        while (true) {
+            List<long[]> rows = jdbcTemplate.query(RECONCILE_SELECT_SQL,
+                    (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5)},
+                    lastId, BATCH_SIZE);
+            if (rows.isEmpty()) {
+                break;
+            }
+            lastId = rows.get(rows.size() - 1)[0];
+
+            List<long[]> drifted = new ArrayList<>();
+            for (long[] row : rows) {
+                boolean pending = pendingLikes.containsKey(row[0]) || pendingComments.containsKey(row[0]);
+                if (!pending && (row[1] != row[3] || row[2] != row[4])) {
+                    drifted.add(row);
+                }
+            }
+            if (!drifted.isEmpty()) {
+                jdbcTemplate.batchUpdate(RECONCILE_UPDATE_SQL, drifted, BATCH_SIZE, (ps, row) -> {
+                    ps.setLong(1, row[3]);
+                    ps.setLong(2, row[4]);
+                    ps.setLong(3, row[0]);
+                });
+                repaired += drifted.size();
+            }
+        }
+        if (repaired > 0) {
+            logger.info("Reconciled engagement counters for {} posts", repaired);
+        }
+    }
+
+    private static long value(Integer count) {
+        return count != null ? count : 0;
+    }
+}
@@ -0,0 +1,103 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.dto.CommentDTO;
+import com.backend.stageconnect.dto.EnhancedPostDTO;
+import com.backend.stageconnect.dto.LikerDTO;
+import com.backend.stageconnect.dto.UserCard;
+import com.backend.stageconnect.dto.UserDTO;
+import com.backend.stageconnect.entity.Post;
+import com.backend.stageconnect.repository.PostLikeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Builds {@link EnhancedPostDTO}s for a page of posts with a fixed number of queries:
+ * one for a short preview of top-level comments per post, up to two for a short preview
+ * of likers per post and one for the authors missing from {@link UserCardCache}. The current user's liked state
+ * comes from {@link LikedPostResolver}. Post authors are never loaded, only their IDs are read.
+ */
+@Service
+@RequiredArgsConstructor
+public class FeedHydrationService {
+
+    private final CommentThreadService commentThreadService;
+    private final PostLikeRepository postLikeRepository;
+    private final EngagementCounterService engagementCounterService;
+    private final LikedPostResolver likedPostResolver;
+    private final SocialGraphService socialGraphService;
+    private final UserCardCache userCardCache;
+
+    @Value("${app.likes.preview-size:3}")
+    private int likerPreviewSize;
+
+    @Transactional(readOnly = true)
+    public List<EnhancedPostDTO> hydrate(List<Post> posts, Long currentUserId) {
+        if (posts.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Long> postIds = posts.stream().map(Post::getId).collect(Collectors.toList());
+        engagementCounterService.applyPending(posts);
+
+        // The newest top-level comments of each post, with thread sizes
+        Map<Long, List<CommentDTO>> commentsByPostId = commentThreadService.previews(postIds);
+
+        // A few likers per post: the current user's connections first, then the most recent
+        Map<Long, List<UserDTO>> likedByPostId = likerPreviews(postIds, currentUserId);
+
+        // Author names and photos, from the card cache
+        Map<Long, UserCard> authors = userCardCache.cards(
+                posts.stream().map(post -> post.getAuthor().getId()).collect(Collectors.toSet()));
+
+        // Liked state only for the posts on this page
+        final Set<Long> likedPostIds = likedPostResolver.likedAmong(currentUserId, postIds);
+
+        return posts.stream()
+                .map(post -> EnhancedPostDTO.fromPage(
+                        post,
+                        authors.get(post.getAuthor().getId()),
+                        commentsByPostId.getOrDefault(post.getId(), Collections.emptyList()),
+                        likedByPostId.getOrDefault(post.getId(), Collections.emptyList()),
+                        likedPostIds))
+                .collect(Collectors.toList());
+    }
+
+    private Map<Long, List<UserDTO>> likerPreviews(List<Long> postIds, Long currentUserId) {
+        Map<Long, Map<Long, UserDTO>> previews = new HashMap<>();
+        if (currentUserId != null) {
+            List<Long> connectionIds = socialGraphService.connectionIds(currentUserId);
+            if (!connectionIds.isEmpty()) {
+                for (LikerDTO liker : postLikeRepository.findLikersAmong(postIds, connectionIds)) {
+                    addToPreview(previews, liker.getPostId(), liker.getUserId(), liker.toUserDTO());
+                }
+            }
+        }
+        for (Object[] row : postLikeRepository.findRecentLikers(postIds, likerPreviewSize)) {
+            Long postId = ((Number) row[0]).longValue();
+            Long userId = ((Number) row[1]).longValue();
+            addToPreview(previews, postId, userId, new UserDTO(userId, (String) row[2], (String) row[3], (String) row[4]));
+        }
+
+        Map<Long, List<UserDTO>> likedByPostId = new HashMap<>();
+        previews.forEach((postId, likers) -> likedByPostId.put(postId, new ArrayList<>(likers.values())));
+        return likedByPostId;
+    }
+
+    private void addToPreview(Map<Long, Map<Long, UserDTO>> previews, Long postId, Long userId, UserDTO liker) {
+        Map<Long, UserDTO> likers = previews.computeIfAbsent(postId, id -> new LinkedHashMap<>());
+        if (likers.size() < likerPreviewSize) {
+            likers.putIfAbsent(userId, liker);
+        }
+    }
+}
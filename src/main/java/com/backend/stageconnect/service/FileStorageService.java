@@ -4,21 +4,39 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.UUID;
 
 @Service
 public class FileStorageService {
     
+    private static final long TRANSFER_CHUNK = 1024 * 1024;
+
     private final Path uploadDir = Paths.get("uploads");
 
+    // Partial uploads live outside the publicly served uploads directory
+    private final Path incomingDir = Paths.get("uploads-incoming");
+
     public FileStorageService() {
         try {
             if (!Files.exists(uploadDir)) {
                 Files.createDirectories(uploadDir);
             }
+            Files.createDirectories(incomingDir);
         } catch (IOException e) {
             throw new RuntimeException("Could not create upload directory!", e);
         }
@@ -44,4 +62,82 @@ public class FileStorageService {
             Files.deleteIfExists(path);
         }
     }
-} 
\ No newline at end of file
+
+    // Stream a file to disk under the SHA-256 of its content, so identical files are stored once
+    public String saveContentAddressed(InputStream in, String directory, String extension) throws IOException {
+        Path temp = Files.createTempFile(incomingDir, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            try (ReadableByteChannel source = Channels.newChannel(new DigestInputStream(in, digest));
+                 FileChannel target = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                transfer(source, target, 0, Long.MAX_VALUE);
+            }
+            return moveToContentAddress(temp, HexFormat.of().formatHex(digest.digest()), directory, extension);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Move a fully received file to its content address; an existing copy wins and the new one is dropped
+    public String moveToContentAddress(Path source, String sha256, String directory, String extension) throws IOException {
+        Path targetDir = uploadDir.resolve(directory);
+        Files.createDirectories(targetDir);
+        String filename = sha256 + extension;
+        Path target = targetDir.resolve(filename);
+        if (!Files.exists(target)) {
+            try {
+                Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Same content stored concurrently
+            }
+        }
+        Files.deleteIfExists(source);
+        return "/uploads/" + directory + "/" + filename;
+    }
+
+    // Copy a stream into a file at the given position without buffering it in memory; stops after maxBytes
+    public long transfer(ReadableByteChannel source, FileChannel target, long position, long maxBytes) throws IOException {
+        long written = 0;
+        long count;
+        while (written < maxBytes
+                && (count = target.transferFrom(source, position + written, Math.min(TRANSFER_CHUNK, maxBytes - written))) > 0) {
+            written += count;
+        }
+        return written;
+    }
+
+    // Hash a file already on disk
+    public String sha256(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    // Resolve a public /uploads/... URL to its file, or null if it points elsewhere
+    public Path resolve(String fileUrl) {
+        if (fileUrl == null || !fileUrl.startsWith("/uploads/")) {
+            return null;
+        }
+        Path path = uploadDir.resolve(fileUrl.substring("/uploads/".length())).normalize();
+        return path.startsWith(uploadDir) ? path : null;
+    }
+
+    public Path getIncomingDir() {
+        return incomingDir;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
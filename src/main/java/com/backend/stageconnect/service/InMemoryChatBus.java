@@ -0,0 +1,73 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.model.ChatEnvelope;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Chat bus between nodes living in the same JVM, e.g. two application contexts started
+ * side by side in a test. Envelopes are handed over synchronously on the caller's thread.
+ */
+@Component
+@ConditionalOnProperty(name = "app.chat.bus.transport", havingValue = "memory", matchIfMissing = true)
+public class InMemoryChatBus implements ChatBus {
+
+    private static final Map<String, InMemoryChatBus> NODES = new ConcurrentHashMap<>();
+
+    private final String nodeId;
+    private final List<Consumer<ChatEnvelope>> listeners = new CopyOnWriteArrayList<>();
+
+    public InMemoryChatBus(@Value("${app.chat.node-id:}") String nodeId) {
+        this.nodeId = nodeId == null || nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        NODES.put(this.nodeId, this);
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void broadcast(ChatEnvelope envelope) {
+        for (InMemoryChatBus node : NODES.values()) {
+            if (node != this) {
+                node.receive(envelope);
+            }
+        }
+    }
+
+    @Override
+    public void send(String nodeId, ChatEnvelope envelope) {
+        InMemoryChatBus node = NODES.get(nodeId);
+        if (node == null) {
+            broadcast(envelope);
+        } else if (node != this) {
+            node.receive(envelope);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<ChatEnvelope> listener) {
+        listeners.add(listener);
+    }
+
+    private void receive(ChatEnvelope envelope) {
+        for (Consumer<ChatEnvelope> listener : listeners) {
+            listener.accept(envelope);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        NODES.remove(nodeId, this);
+    }
+}
@@ -0,0 +1,297 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.entity.Internship;
+import com.backend.stageconnect.repository.InternshipRepository;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory search over internships. Every indexed internship gets a dense ordinal;
+ * each facet value and each text token maps to a BitSet of ordinals, so filtering and
+ * facet counting are bitwise ANDs plus cardinality. Facet counts are multi-select:
+ * a facet is counted with every filter applied except its own.
+ * Built on startup and updated by InternshipController on create, update, status change and delete.
+ */
+@Service
+public class InternshipSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(InternshipSearchIndex.class);
+
+    public static final List<String> FACETS = List.of("workType", "location", "department", "duration", "status");
+
+    private static final Pattern TOKEN = Pattern.compile("[\\p{L}\\p{N}]+");
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final InternshipRepository internshipRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> ordinalById = new HashMap<>();
+    private final List<Entry> entries = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    // facet -> normalized value -> ordinals
+    private final Map<String, Map<String, BitSet>> facetBits = new HashMap<>();
+    // facet -> normalized value -> value as first written, for display
+    private final Map<String, Map<String, String>> facetLabels = new HashMap<>();
+    // token -> ordinals; sorted so the last query term can be matched as a prefix
+    private final NavigableMap<String, BitSet> tokenBits = new TreeMap<>();
+
+    public InternshipSearchIndex(InternshipRepository internshipRepository) {
+        this.internshipRepository = internshipRepository;
+        FACETS.forEach(facet -> {
+            facetBits.put(facet, new HashMap<>());
+            facetLabels.put(facet, new HashMap<>());
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        int page = 0;
+        Page<Internship> batch;
+        do {
+            batch = internshipRepository.findAll(PageRequest.of(page++, REBUILD_BATCH_SIZE, Sort.by("id")));
+            batch.forEach(this::index);
+        } while (batch.hasNext());
+        logger.info("Indexed {} internships for search", batch.getTotalElements());
+    }
+
+    // Add or replace an internship in the index
+    public void index(Internship internship) {
+        Entry entry = new Entry(internship.getId(), internship.getPostedDate(), new LinkedHashMap<>(), new HashSet<>());
+        entry.facets.put("workType", internship.getWorkType());
+        entry.facets.put("location", internship.getLocation());
+        entry.facets.put("department", internship.getDepartment());
+        entry.facets.put("duration", internship.getDuration());
+        entry.facets.put("status", internship.getStatus());
+        for (String text : new String[] {internship.getTitle(), internship.getDepartment(), internship.getLocation(),
+                internship.getWorkType(), internship.getDuration()}) {
+            entry.tokens.addAll(tokenize(text));
+        }
+
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinalById.get(internship.getId());
+            if (ordinal != null) {
+                clearLocked(ordinal);
+                entries.set(ordinal, entry);
+            } else {
+                ordinal = entries.size();
+                entries.add(entry);
+                ordinalById.put(internship.getId(), ordinal);
+            }
+            int slot = ordinal;
+            entry.facets.forEach((facet, value) -> {
+                if (value != null && !value.isBlank()) {
+                    String key = normalize(value);
+                    facetBits.get(facet).computeIfAbsent(key, k -> new BitSet()).set(slot);
+                    facetLabels.get(facet).putIfAbsent(key, value.trim());
+                }
+            });
+            entry.tokens.forEach(token -> tokenBits.computeIfAbsent(token, t -> new BitSet()).set(slot));
+            live.set(slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long internshipId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinalById.remove(internshipId);
+            if (ordinal != null) {
+                clearLocked(ordinal);
+                entries.set(ordinal, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void clearLocked(int ordinal) {
+        Entry previous = entries.get(ordinal);
+        live.clear(ordinal);
+        if (previous == null) {
+            return;
+        }
+        previous.facets.forEach((facet, value) -> {
+            if (value != null && !value.isBlank()) {
+                BitSet bits = facetBits.get(facet).get(normalize(value));
+                if (bits != null) {
+                    bits.clear(ordinal);
+                }
+            }
+        });
+        previous.tokens.forEach(token -> {
+            BitSet bits = tokenBits.get(token);
+            if (bits != null) {
+                bits.clear(ordinal);
+                if (bits.isEmpty()) {
+                    tokenBits.remove(token);
+                }
+            }
+        });
+    }
+
+    /**
+     * Search by free text and facet filters. Values within one facet are OR-ed,
+     * facets are AND-ed. Results are ordered newest posted first.
+     */
+    public SearchResult search(String query, Map<String, ? extends Collection<String>> filters, int page, int size) {
+        lock.readLock().lock();
+        try {
+            BitSet textMatch = matchText(query);
+
+            Map<String, BitSet> filterBits = new HashMap<>();
+            filters.forEach((facet, values) -> {
+                if (facetBits.containsKey(facet) && values != null && !values.isEmpty()) {
+                    BitSet union = new BitSet();
+                    for (String value : values) {
+                        BitSet bits = facetBits.get(facet).get(normalize(value));
+                        if (bits != null) {
+                            union.or(bits);
+                        }
+                    }
+                    filterBits.put(facet, union);
+                }
+            });
+
+            BitSet matches = (BitSet) textMatch.clone();
+            filterBits.values().forEach(matches::and);
+
+            // Facet counts ignore the facet's own filter so the other values stay selectable
+            Map<String, List<FacetCount>> facets = new LinkedHashMap<>();
+            for (String facet : FACETS) {
+                BitSet base = (BitSet) textMatch.clone();
+                filterBits.forEach((other, bits) -> {
+                    if (!other.equals(facet)) {
+                        base.and(bits);
+                    }
+                });
+                List<FacetCount> counts = new ArrayList<>();
+                facetBits.get(facet).forEach((key, bits) -> {
+                    BitSet hits = (BitSet) bits.clone();
+                    hits.and(base);
+                    int count = hits.cardinality();
+                    if (count > 0) {
+                        counts.add(new FacetCount(facetLabels.get(facet).get(key), count));
+                    }
+                });
+                counts.sort(Comparator.comparingInt(FacetCount::getCount).reversed().thenComparing(FacetCount::getValue));
+                facets.put(facet, counts);
+            }
+
+            List<Entry> ordered = new ArrayList<>(matches.cardinality());
+            for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+                ordered.add(entries.get(i));
+            }
+            ordered.sort(Comparator.comparing((Entry entry) -> entry.postedDate, Comparator.nullsLast(Comparator.reverseOrder()))
+                    .thenComparing(entry -> entry.id, Comparator.reverseOrder()));
+
+            int from = Math.min(Math.max(page, 0) * Math.max(size, 0), ordered.size());
+            int to = Math.min(from + size, ordered.size());
+            List<Long> ids = new ArrayList<>(to - from);
+            ordered.subList(from, to).forEach(entry -> ids.add(entry.id));
+            return new SearchResult(ids, ordered.size(), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Load the internships (with their companies) for a page of hits, keeping the hit order
+    public List<Internship> loadHits(SearchResult result) {
+        if (result.getIds().isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Internship> byId = new HashMap<>();
+        internshipRepository.findByIdIn(result.getIds()).forEach(internship -> byId.put(internship.getId(), internship));
+        List<Internship> hits = new ArrayList<>(result.getIds().size());
+        result.getIds().forEach(id -> {
+            Internship internship = byId.get(id);
+            if (internship != null) {
+                hits.add(internship);
+            }
+        });
+        return hits;
+    }
+
+    // Every term must match; the last one also matches as a prefix
+    private BitSet matchText(String query) {
+        BitSet result = (BitSet) live.clone();
+        List<String> terms = tokenize(query);
+        for (int i = 0; i < terms.size(); i++) {
+            String term = terms.get(i);
+            BitSet termBits = new BitSet();
+            if (i == terms.size() - 1) {
+                tokenBits.subMap(term, true, term + Character.MAX_VALUE, false).values().forEach(termBits::or);
+            } else if (tokenBits.containsKey(term)) {
+                termBits.or(tokenBits.get(term));
+            }
+            result.and(termBits);
+        }
+        return result;
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        Matcher matcher = TOKEN.matcher(text);
+        while (matcher.find()) {
+            tokens.add(matcher.group().toLowerCase(Locale.ROOT));
+        }
+        return tokens;
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @AllArgsConstructor
+    private static class Entry {
+        private final Long id;
+        private final String postedDate;
+        private final Map<String, String> facets;
+        private final Set<String> tokens;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class FacetCount {
+        private String value;
+        private int count;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class SearchResult {
+        private List<Long> ids;
+        private int total;
+        private Map<String, List<FacetCount>> facets;
+    }
+}
@@ -0,0 +1,129 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.repository.PostLikeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Answers "which of these posts has the user liked" for a page of posts. Each user's liked
+ * post IDs are loaded once into a sorted long array and kept in a bounded LRU cache, so a
+ * page costs one binary search per post instead of loading and scanning every like.
+ * Likes and unlikes on this node update the cached set in place; likes recorded by other
+ * nodes show up once the entry is older than app.likes.cache-ttl-ms and is loaded again.
+ */
+@Service
+@RequiredArgsConstructor
+public class LikedPostResolver {
+
+    private static final int STRIPES = 1024;
+
+    private final PostLikeRepository postLikeRepository;
+
+    @Value("${app.likes.cached-users:10000}")
+    private int cachedUsers;
+
+    @Value("${app.likes.cache-ttl-ms:30000}")
+    private long cacheTtlMs;
+
+    private final Map<Long, LikedIds> likedByUser = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, LikedIds> eldest) {
+            return size() > cachedUsers;
+        }
+    };
+
+    // Bumped on every like change, so a load that raced with the change does not cache stale IDs
+    private final AtomicLongArray versions = new AtomicLongArray(STRIPES);
+
+    // The subset of postIds liked by the user
+    public Set<Long> likedAmong(Long userId, Collection<Long> postIds) {
+        Set<Long> liked = new HashSet<>();
+        if (userId == null || postIds.isEmpty()) {
+            return liked;
+        }
+        long[] likedIds = likedIds(userId);
+        for (Long postId : postIds) {
+            if (Arrays.binarySearch(likedIds, postId) >= 0) {
+                liked.add(postId);
+            }
+        }
+        return liked;
+    }
+
+    public void recordLike(Long userId, Long postId) {
+        update(userId, postId, true);
+    }
+
+    public void recordUnlike(Long userId, Long postId) {
+        update(userId, postId, false);
+    }
+
+    private long[] likedIds(Long userId) {
+        long now = System.currentTimeMillis();
+        synchronized (likedByUser) {
+            LikedIds cached = likedByUser.get(userId);
+            if (cached != null && now - cached.loadedAt() < cacheTtlMs) {
+                return cached.ids();
+            }
+        }
+
+        int stripe = stripe(userId);
+        long version = versions.get(stripe);
+        List<Long> loaded = postLikeRepository.findPostIdsByUserIdOrderByPostId(userId);
+        long[] likedIds = new long[loaded.size()];
+        for (int i = 0; i < likedIds.length; i++) {
+            likedIds[i] = loaded.get(i);
+        }
+
+        synchronized (likedByUser) {
+            if (versions.get(stripe) == version) {
+                likedByUser.put(userId, new LikedIds(likedIds, now));
+            }
+        }
+        return likedIds;
+    }
+
+    // Copy-on-write so readers holding the old array are unaffected
+    private void update(Long userId, Long postId, boolean liked) {
+        versions.incrementAndGet(stripe(userId));
+        synchronized (likedByUser) {
+            LikedIds cached = likedByUser.get(userId);
+            if (cached == null) {
+                return;
+            }
+            long[] current = cached.ids();
+            int index = Arrays.binarySearch(current, postId);
+            if (liked && index < 0) {
+                int insertAt = -index - 1;
+                long[] updated = new long[current.length + 1];
+                System.arraycopy(current, 0, updated, 0, insertAt);
+                updated[insertAt] = postId;
+                System.arraycopy(current, insertAt, updated, insertAt + 1, current.length - insertAt);
+                likedByUser.put(userId, new LikedIds(updated, cached.loadedAt()));
+            } else if (!liked && index >= 0) {
+                long[] updated = new long[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, index);
+                System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+                likedByUser.put(userId, new LikedIds(updated, cached.loadedAt()));
+            }
+        }
+    }
+
+    private static int stripe(Long userId) {
+        return (int) Math.floorMod(userId, (long) STRIPES);
+    }
+
+    // Local changes keep loadedAt, so the TTL bounds how long changes made elsewhere go unseen
+    private record LikedIds(long[] ids, long loadedAt) {
+    }
+}
@@ -0,0 +1,99 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.entity.User;
+import com.backend.stageconnect.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks login credentials. The user is loaded as its concrete subtype in one query, and
+ * the BCrypt comparison runs on a pool with one thread per core (app.auth.hash-threads)
+ * and a bounded queue, so a burst of logins cannot take more CPU than the pool has. When
+ * the queue is full or a check waits longer than app.auth.hash-timeout-ms, the login is
+ * rejected with a {@link RejectedExecutionException} for the caller to turn into a 503.
+ */
+@Service
+@RequiredArgsConstructor
+public class LoginService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginService.class);
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+
+    @Value("${app.auth.hash-threads:0}")
+    private int hashThreads;
+
+    @Value("${app.auth.hash-queue:64}")
+    private int hashQueue;
+
+    @Value("${app.auth.hash-timeout-ms:5000}")
+    private long hashTimeoutMs;
+
+    private ThreadPoolExecutor hashPool;
+
+    // Compared against when the email is unknown, so both cases cost one hash
+    private String unknownUserHash;
+
+    @PostConstruct
+    void startHashPool() {
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        hashPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(hashQueue),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        unknownUserHash = passwordEncoder.encode("unknown-user");
+        logger.info("Password hashing pool started with {} threads", threads);
+    }
+
+    @PreDestroy
+    void stopHashPool() {
+        hashPool.shutdown();
+    }
+
+    // The user with this email if the password matches
+    public Optional<User> authenticate(String email, String password) throws InterruptedException {
+        Optional<User> user = userRepository.findForLogin(email);
+        String hash = user.map(User::getPassword).orElse(unknownUserHash);
+        boolean matches = matches(password, hash);
+        return matches ? user : Optional.empty();
+    }
+
+    private boolean matches(String password, String hash) throws InterruptedException {
+        Future<Boolean> check = hashPool.submit(() -> passwordEncoder.matches(password, hash));
+        try {
+            return check.get(hashTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            check.cancel(true);
+            throw new RejectedExecutionException("Password check timed out");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password check failed", e.getCause());
+        }
+    }
+
+    // Checks queued or running, for monitoring the pool
+    public int getPendingChecks() {
+        return hashPool.getQueue().size() + hashPool.getActiveCount();
+    }
+}
@@ -0,0 +1,106 @@
+package com.backend.stageconnect.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Validators for uploaded files, kept for the most recently served files. Content-addressed
+ * files use their SHA-256 name as a strong ETag; older randomly named files are hashed once
+ * and the result cached until the file changes on disk. Uploaded files are never rewritten
+ * in place, so responses can be cached by clients for a long time.
+ */
+@Service
+@RequiredArgsConstructor
+public class MediaFileIndex {
+
+    public static final CacheControl CACHE_CONTROL = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
+    private static final Pattern CONTENT_HASH = Pattern.compile("[0-9a-f]{64}");
+
+    private final FileStorageService fileStorageService;
+
+    @Value("${app.media.hot-files:1024}")
+    private int hotFiles;
+
+    private final Map<Path, FileInfo> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, FileInfo> eldest) {
+            return size() > hotFiles;
+        }
+    };
+
+    // Look up validators for a file, or null if it does not exist
+    public FileInfo lookup(Path file) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            evict(file);
+            return null;
+        }
+        if (!attributes.isRegularFile()) {
+            return null;
+        }
+        long lastModified = attributes.lastModifiedTime().toMillis();
+
+        synchronized (entries) {
+            FileInfo cached = entries.get(file);
+            if (cached != null && cached.getLength() == attributes.size() && cached.getLastModified() == lastModified) {
+                return cached;
+            }
+        }
+
+        // Hash outside the lock; two threads racing on the same cold file just compute it twice
+        FileInfo info = new FileInfo(etagFor(file), attributes.size(), lastModified);
+        synchronized (entries) {
+            entries.put(file, info);
+        }
+        return info;
+    }
+
+    // ETag generator for the /uploads/** resource handler
+    public String etag(Resource resource) {
+        try {
+            FileInfo info = lookup(resource.getFile().toPath().normalize());
+            return info != null ? info.getEtag() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public void evict(Path file) {
+        synchronized (entries) {
+            entries.remove(file);
+        }
+    }
+
+    private String etagFor(Path file) throws IOException {
+        String filename = file.getFileName().toString();
+        int dot = filename.lastIndexOf('.');
+        String base = dot > 0 ? filename.substring(0, dot) : filename;
+        return CONTENT_HASH.matcher(base).matches() ? base : fileStorageService.sha256(file);
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class FileInfo {
+        private String etag;
+        private long length;
+        private long lastModified;
+    }
+}
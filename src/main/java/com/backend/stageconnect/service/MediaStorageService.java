@@ -0,0 +1,373 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.repository.PostRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Ingestion of post images. Uploads are streamed to disk and stored under the SHA-256 of
+ * their content, so the same image uploaded twice is kept once. Large files can be sent in
+ * chunks through an upload session and resumed from the last received offset.
+ * Thumbnails are generated on a small bounded pool after the upload has been stored.
+ * <p>
+ * A file is deleted only when no post references it. Handing out a URL and deleting a file
+ * exclude each other, and a URL handed out for a post that may not be saved yet is kept for
+ * app.media.session-ttl-hours. Releases that cannot run right away are retried in the background.
+ */
+@Service
+@RequiredArgsConstructor
+public class MediaStorageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MediaStorageService.class);
+
+    private static final String POST_IMAGE_DIR = "posts";
+    private static final String THUMBNAIL_DIR = "posts/thumbs";
+    private static final int THUMBNAIL_SIZE = 400;
+    private static final Pattern EXTENSION = Pattern.compile("\\.[a-z0-9]{1,10}");
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+
+    private final FileStorageService fileStorageService;
+    private final PostRepository postRepository;
+
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    // Shared while a stored URL is handed out, exclusive while a file is deleted
+    private final ReentrantReadWriteLock fileLock = new ReentrantReadWriteLock();
+
+    // When each URL was last handed out to a client that may still attach it to a post
+    private final Map<String, LocalDateTime> issued = new ConcurrentHashMap<>();
+
+    // Released URLs whose deletion was put off
+    private final Set<String> pendingReleases = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.media.max-upload-size:20MB}")
+    private DataSize maxUploadSize;
+
+    @Value("${app.media.session-ttl-hours:24}")
+    private long sessionTtlHours;
+
+    @Value("${app.media.processing-threads:2}")
+    private int processingThreads;
+
+    @Value("${app.media.processing-queue:200}")
+    private int processingQueue;
+
+    private ThreadPoolExecutor processingPool;
+
+    @PostConstruct
+    void startProcessingPool() {
+        AtomicInteger counter = new AtomicInteger();
+        // Post-processing is best effort: when the queue is full the task is dropped, not run on the request thread
+        processingPool = new ThreadPoolExecutor(processingThreads, processingThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(processingQueue),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "media-processing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, executor) -> logger.warn("Media processing queue full, skipping task"));
+    }
+
+    @PreDestroy
+    void stopProcessingPool() {
+        processingPool.shutdown();
+    }
+
+    // Store a post image sent as a regular multipart file
+    public String storePostImage(MultipartFile image) throws IOException {
+        if (image.getSize() > maxUploadSize.toBytes()) {
+            throw new IllegalArgumentException("Image exceeds the maximum size of " + maxUploadSize.toMegabytes() + "MB");
+        }
+        String url;
+        fileLock.readLock().lock();
+        try (InputStream in = image.getInputStream()) {
+            url = fileStorageService.saveContentAddressed(in, POST_IMAGE_DIR, extensionOf(image.getOriginalFilename()));
+            issued.put(url, LocalDateTime.now());
+        } finally {
+            fileLock.readLock().unlock();
+        }
+        schedulePostProcessing(url);
+        return url;
+    }
+
+    // Open a chunked upload; if the client already knows the hash and we have the file, no upload is needed
+    public UploadSession startUpload(String filename, long size, String sha256) throws IOException {
+        if (size <= 0 || size > maxUploadSize.toBytes()) {
+            throw new IllegalArgumentException("Upload size must be between 1 byte and " + maxUploadSize.toMegabytes() + "MB");
+        }
+        String extension = extensionOf(filename);
+        String expectedHash = sha256 != null ? sha256.toLowerCase(Locale.ROOT) : null;
+        if (expectedHash != null && !SHA256.matcher(expectedHash).matches()) {
+            throw new IllegalArgumentException("sha256 must be 64 hex characters");
+        }
+
+        UploadSession session = new UploadSession(UUID.randomUUID().toString(), extension, size, expectedHash,
+                0, null, LocalDateTime.now());
+        if (expectedHash != null) {
+            String url = "/uploads/" + POST_IMAGE_DIR + "/" + expectedHash + extension;
+            fileLock.readLock().lock();
+            try {
+                if (Files.exists(fileStorageService.resolve(url))) {
+                    issued.put(url, LocalDateTime.now());
+                    session.setReceived(size);
+                    session.setUrl(url);
+                    return session;
+                }
+            } finally {
+                fileLock.readLock().unlock();
+            }
+        }
+        Files.createFile(partFile(session.getId()));
+        sessions.put(session.getId(), session);
+        return session;
+    }
+
+    public UploadSession getUpload(String uploadId) {
+        UploadSession session = sessions.get(uploadId);
+        if (session == null) {
+            throw new IllegalArgumentException("Upload not found: " + uploadId);
+        }
+        return session;
+    }
+
+    // Append one chunk at the given offset, which must match what has been received so far
+    public UploadSession appendChunk(String uploadId, long offset, InputStream body) throws IOException {
+        UploadSession session = getUpload(uploadId);
+        synchronized (session) {
+            if (offset != session.getReceived()) {
+                throw new IllegalStateException("Expected offset " + session.getReceived() + " but got " + offset);
+            }
+            long remaining = session.getSize() - offset;
+            try (ReadableByteChannel source = Channels.newChannel(body);
+                 FileChannel target = FileChannel.open(partFile(uploadId), StandardOpenOption.WRITE)) {
+                // Read one byte past the declared size so an oversized chunk is detected
+                long written = fileStorageService.transfer(source, target, offset, remaining + 1);
+                if (written > remaining) {
+                    target.truncate(offset);
+                    throw new IllegalArgumentException("Chunk goes past the declared upload size of " + session.getSize());
+                }
+                session.setReceived(offset + written);
+            }
+            return session;
+        }
+    }
+
+    // Finish a chunked upload: verify it, move it to its content address and queue post-processing
+    public UploadSession completeUpload(String uploadId) throws IOException {
+        UploadSession session = getUpload(uploadId);
+        synchronized (session) {
+            if (session.getUrl() != null) {
+                return session;
+            }
+            if (session.getReceived() != session.getSize()) {
+                throw new IllegalStateException("Upload incomplete: received " + session.getReceived() + " of " + session.getSize() + " bytes");
+            }
+            Path part = partFile(uploadId);
+            String hash = fileStorageService.sha256(part);
+            if (session.getExpectedHash() != null && !session.getExpectedHash().equals(hash)) {
+                Files.deleteIfExists(part);
+                sessions.remove(uploadId);
+                throw new IllegalArgumentException("Uploaded content does not match the declared sha256");
+            }
+            fileLock.readLock().lock();
+            try {
+                session.setUrl(fileStorageService.moveToContentAddress(part, hash, POST_IMAGE_DIR, session.getExtension()));
+                issued.put(session.getUrl(), LocalDateTime.now());
+            } finally {
+                fileLock.readLock().unlock();
+            }
+            sessions.remove(uploadId);
+            schedulePostProcessing(session.getUrl());
+            return session;
+        }
+    }
+
+    // True if the URL points at a stored post image; the file is then kept while the post is saved
+    public boolean isStoredPostImage(String url) {
+        Path path = fileStorageService.resolve(url);
+        if (path == null || !url.startsWith("/uploads/" + POST_IMAGE_DIR + "/")) {
+            return false;
+        }
+        fileLock.readLock().lock();
+        try {
+            if (!Files.isRegularFile(path)) {
+                return false;
+            }
+            issued.put(url, LocalDateTime.now());
+            return true;
+        } finally {
+            fileLock.readLock().unlock();
+        }
+    }
+
+    // Delete a post image once no post references it anymore; files are shared between posts with identical images.
+    // Never waits for uploads in progress: the release is queued instead and retried by releasePending().
+    public void releasePostImage(String url) {
+        if (url == null || url.isEmpty()) {
+            return;
+        }
+        if (!fileLock.writeLock().tryLock()) {
+            pendingReleases.add(url);
+            return;
+        }
+        try {
+            if (!deleteIfUnused(url)) {
+                pendingReleases.add(url);
+            }
+        } finally {
+            fileLock.writeLock().unlock();
+        }
+    }
+
+    // Retry releases that were put off, and forget URLs handed out too long ago to still be attached
+    @Scheduled(fixedDelayString = "${app.media.cleanup-interval-ms:3600000}")
+    public void releasePending() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(sessionTtlHours);
+        issued.values().removeIf(issuedAt -> issuedAt.isBefore(cutoff));
+        if (pendingReleases.isEmpty() || !fileLock.writeLock().tryLock()) {
+            return;
+        }
+        try {
+            pendingReleases.removeIf(this::deleteIfUnused);
+        } finally {
+            fileLock.writeLock().unlock();
+        }
+    }
+
+    // Under the write lock: false if the URL was handed out recently and may be about to be attached to a post
+    private boolean deleteIfUnused(String url) {
+        LocalDateTime issuedAt = issued.get(url);
+        if (issuedAt != null && issuedAt.isAfter(LocalDateTime.now().minusHours(sessionTtlHours))) {
+            return false;
+        }
+        if (postRepository.existsByImageUrl(url)) {
+            return true;
+        }
+        try {
+            Path path = fileStorageService.resolve(url);
+            if (path != null) {
+                Files.deleteIfExists(path);
+                Files.deleteIfExists(thumbnailFor(path));
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to delete image file {}: {}", url, e.getMessage());
+        }
+        issued.remove(url);
+        return true;
+    }
+
+    // Drop sessions that were abandoned, along with their partial files
+    @Scheduled(fixedDelayString = "${app.media.cleanup-interval-ms:3600000}")
+    public void cleanupAbandonedUploads() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(sessionTtlHours);
+        sessions.values().removeIf(session -> {
+            if (session.getCreatedAt().isAfter(cutoff)) {
+                return false;
+            }
+            try {
+                Files.deleteIfExists(partFile(session.getId()));
+            } catch (IOException e) {
+                logger.warn("Failed to delete partial upload {}: {}", session.getId(), e.getMessage());
+            }
+            return true;
+        });
+    }
+
+    private void schedulePostProcessing(String url) {
+        Path path = fileStorageService.resolve(url);
+        if (path != null) {
+            processingPool.execute(() -> createThumbnail(path));
+        }
+    }
+
+    private void createThumbnail(Path image) {
+        Path thumbnail = thumbnailFor(image);
+        if (Files.exists(thumbnail)) {
+            return;
+        }
+        try {
+            BufferedImage source = ImageIO.read(image.toFile());
+            if (source == null) {
+                return;
+            }
+            double scale = Math.min(1.0, (double) THUMBNAIL_SIZE / Math.max(source.getWidth(), source.getHeight()));
+            int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+            int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+            BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = scaled.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(source, 0, 0, width, height, null);
+            graphics.dispose();
+            Files.createDirectories(thumbnail.getParent());
+            ImageIO.write(scaled, "jpg", thumbnail.toFile());
+        } catch (Exception e) {
+            logger.warn("Failed to create thumbnail for {}: {}", image, e.getMessage());
+        }
+    }
+
+    private Path thumbnailFor(Path image) {
+        String filename = image.getFileName().toString();
+        int dot = filename.lastIndexOf('.');
+        String base = dot > 0 ? filename.substring(0, dot) : filename;
+        return fileStorageService.resolve("/uploads/" + THUMBNAIL_DIR + "/" + base + ".jpg");
+    }
+
+    private Path partFile(String uploadId) {
+        return fileStorageService.getIncomingDir().resolve(uploadId + ".part");
+    }
+
+    private static String extensionOf(String filename) {
+        if (filename == null || filename.lastIndexOf('.') < 0) {
+            return "";
+        }
+        String extension = filename.substring(filename.lastIndexOf('.')).toLowerCase(Locale.ROOT);
+        return EXTENSION.matcher(extension).matches() ? extension : "";
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class UploadSession {
+        private String id;
+        private String extension;
+        private long size;
+        private String expectedHash;
+        private long received;
+        private String url;
+        private LocalDateTime createdAt;
+    }
+}
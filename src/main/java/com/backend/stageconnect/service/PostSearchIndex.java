@@ -0,0 +1,305 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.entity.Post;
+import com.backend.stageconnect.repository.PostRepository;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over post content. Answers searches with BM25 ranking,
+ * prefix matching (the last query term, or any term ending in '*') and highlighted
+ * snippets, so MySQL is only used to hydrate the matching post IDs.
+ * Built on startup and kept in sync by PostController on create, update and delete.
+ */
+@Service
+public class PostSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostSearchIndex.class);
+
+    private static final Pattern TOKEN = Pattern.compile("[\\p{L}\\p{N}]+");
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final int SNIPPET_LENGTH = 160;
+
+    private final PostRepository postRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // term -> (postId -> term frequency); sorted so prefix queries are a range scan
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    // postId -> distinct terms, used to unindex a post
+    private final Map<Long, Set<String>> termsByPost = new HashMap<>();
+    private final Map<Long, Integer> lengthByPost = new HashMap<>();
+    private long totalLength;
+
+    public PostSearchIndex(PostRepository postRepository) {
+        this.postRepository = postRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long afterId = 0;
+        int indexed = 0;
+        List<Object[]> batch;
+        do {
+            batch = postRepository.findIdAndContentAfter(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            for (Object[] row : batch) {
+                afterId = (Long) row[0];
+                index(afterId, (String) row[1]);
+                indexed++;
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+        logger.info("Indexed {} posts for search", indexed);
+    }
+
+    public void index(Post post) {
+        index(post.getId(), post.getContent());
+    }
+
+    // Add or replace a post in the index
+    public void index(Long postId, String content) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        for (String token : tokenize(content)) {
+            frequencies.merge(token, 1, Integer::sum);
+            length++;
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(postId);
+            frequencies.forEach((term, tf) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(postId, tf));
+            termsByPost.put(postId, frequencies.keySet());
+            lengthByPost.put(postId, length);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long postId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(postId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(Long postId) {
+        Set<String> terms = termsByPost.remove(postId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Integer> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(postId);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= lengthByPost.remove(postId);
+    }
+
+    // Rank posts matching every query term; returns one page of hits plus the total hit count
+    public SearchResult search(String query, int offset, int limit) {
+        List<QueryTerm> terms = parse(query);
+        if (terms.isEmpty()) {
+            return new SearchResult(Collections.emptyList(), 0);
+        }
+
+        Map<Long, Double> scores = null;
+        lock.readLock().lock();
+        try {
+            int docCount = lengthByPost.size();
+            double averageLength = docCount == 0 ? 0 : (double) totalLength / docCount;
+
+            for (QueryTerm term : terms) {
+                Map<Long, Double> termScores = new HashMap<>();
+                for (Map.Entry<String, Map<Long, Integer>> entry : expand(term).entrySet()) {
+                    Map<Long, Integer> docs = entry.getValue();
+                    double idf = Math.log(1 + (docCount - docs.size() + 0.5) / (docs.size() + 0.5));
+                    for (Map.Entry<Long, Integer> doc : docs.entrySet()) {
+                        if (scores != null && !scores.containsKey(doc.getKey())) {
+                            continue;
+                        }
+                        int tf = doc.getValue();
+                        double norm = 1 - B + B * lengthByPost.get(doc.getKey()) / averageLength;
+                        double score = idf * tf * (K1 + 1) / (tf + K1 * norm);
+                        termScores.merge(doc.getKey(), score, Math::max);
+                    }
+                }
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    Map<Long, Double> previous = scores;
+                    termScores.replaceAll((postId, score) -> score + previous.get(postId));
+                    scores = termScores;
+                }
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Hit> hits = new ArrayList<>(scores.size());
+        scores.forEach((postId, score) -> hits.add(new Hit(postId, score)));
+        hits.sort((a, b) -> a.getScore() != b.getScore()
+                ? Double.compare(b.getScore(), a.getScore())
+                : Long.compare(b.getPostId(), a.getPostId()));
+
+        int from = Math.min(offset, hits.size());
+        int to = Math.min(from + limit, hits.size());
+        return new SearchResult(new ArrayList<>(hits.subList(from, to)), hits.size());
+    }
+
+    // Escaped snippet of the content around the first match, with matches wrapped in <mark>
+    public String highlight(String content, String query) {
+        if (content == null) {
+            return null;
+        }
+        List<QueryTerm> terms = parse(query);
+
+        List<int[]> matches = new ArrayList<>();
+        Matcher matcher = TOKEN.matcher(content);
+        while (matcher.find()) {
+            String token = matcher.group().toLowerCase(Locale.ROOT);
+            for (QueryTerm term : terms) {
+                if (term.prefix ? token.startsWith(term.text) : token.equals(term.text)) {
+                    matches.add(new int[] {matcher.start(), matcher.end()});
+                    break;
+                }
+            }
+        }
+
+        int start = 0;
+        if (!matches.isEmpty() && content.length() > SNIPPET_LENGTH) {
+            start = Math.max(0, Math.min(matches.get(0)[0] - SNIPPET_LENGTH / 4, content.length() - SNIPPET_LENGTH));
+        }
+        int end = Math.min(content.length(), start + SNIPPET_LENGTH);
+
+        StringBuilder snippet = new StringBuilder();
+        if (start > 0) {
+            snippet.append("...");
+        }
+        int position = start;
+        for (int[] match : matches) {
+            if (match[0] < start || match[1] > end) {
+                continue;
+            }
+            snippet.append(escape(content.substring(position, match[0])))
+                    .append("<mark>")
+                    .append(escape(content.substring(match[0], match[1])))
+                    .append("</mark>");
+            position = match[1];
+        }
+        snippet.append(escape(content.substring(position, end)));
+        if (end < content.length()) {
+            snippet.append("...");
+        }
+        return snippet.toString();
+    }
+
+    private Map<String, Map<Long, Integer>> expand(QueryTerm term) {
+        if (!term.prefix) {
+            Map<Long, Integer> docs = postings.get(term.text);
+            return docs == null ? Collections.emptyMap() : Map.of(term.text, docs);
+        }
+        Map<String, Map<Long, Integer>> expanded = new HashMap<>();
+        for (Map.Entry<String, Map<Long, Integer>> entry
+                : postings.subMap(term.text, true, term.text + Character.MAX_VALUE, false).entrySet()) {
+            expanded.put(entry.getKey(), entry.getValue());
+            if (expanded.size() == MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+        }
+        return expanded;
+    }
+
+    // The last term is treated as a prefix so results follow the search box as the user types
+    private static List<QueryTerm> parse(String query) {
+        List<QueryTerm> terms = new ArrayList<>();
+        if (query == null) {
+            return terms;
+        }
+        Set<String> seen = new HashSet<>();
+        Matcher matcher = TOKEN.matcher(query);
+        while (matcher.find()) {
+            boolean explicitPrefix = matcher.end() < query.length() && query.charAt(matcher.end()) == '*';
+            String text = matcher.group().toLowerCase(Locale.ROOT);
+            if (seen.add(text)) {
+                terms.add(new QueryTerm(text, explicitPrefix));
+            }
+        }
+        if (!terms.isEmpty() && !query.endsWith(" ")) {
+            terms.get(terms.size() - 1).prefix = true;
+        }
+        return terms;
+    }
+
+    private static List<String> tokenize(String content) {
+        List<String> tokens = new ArrayList<>();
+        if (content == null) {
+            return tokens;
+        }
+        Matcher matcher = TOKEN.matcher(content);
+        while (matcher.find()) {
+            tokens.add(matcher.group().toLowerCase(Locale.ROOT));
+        }
+        return tokens;
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    private static class QueryTerm {
+        private final String text;
+        private boolean prefix;
+
+        QueryTerm(String text, boolean prefix) {
+            this.text = text;
+            this.prefix = prefix;
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Hit {
+        private long postId;
+        private double score;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class SearchResult {
+        private List<Hit> hits;
+        private int total;
+    }
+}
@@ -0,0 +1,162 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.entity.User;
+import com.backend.stageconnect.model.ChatMessage;
+import com.backend.stageconnect.repository.ConversationSummaryRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks which users have an open chat socket. A user is online while at least one of their
+ * sessions is connected; the first connect and the last disconnect are announced as JOIN and
+ * LEAVE frames to the user's accepted connections and recent conversation partners that are
+ * online themselves, instead of to every socket on /topic/public. Users connected to other
+ * nodes are known through {@link ChatRouter}, which shares presence over the chat bus in relay
+ * and bus mode. Last-seen times are kept in memory and written to users.last_seen_at in batches.
+ */
+@Service
+@RequiredArgsConstructor
+public class PresenceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PresenceService.class);
+
+    private static final String LAST_SEEN_SQL = "UPDATE users SET last_seen_at = ? WHERE id = ?";
+
+    private static final int BATCH_SIZE = 500;
+
+    private final ChatRouter chatRouter;
+    private final SocialGraphService socialGraphService;
+    private final ConversationSummaryRepository conversationSummaryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Value("${app.presence.conversation-window-days:30}")
+    private int conversationWindowDays;
+
+    // Open session IDs per user on this node
+    private final Map<Long, Set<String>> sessions = new ConcurrentHashMap<>();
+
+    // Last-seen times not yet written to the database
+    private final Map<Long, LocalDateTime> pendingLastSeen = new ConcurrentHashMap<>();
+
+    public void connect(Long userId, String sessionId) {
+        boolean[] first = new boolean[1];
+        sessions.compute(userId, (id, open) -> {
+            if (open == null) {
+                open = ConcurrentHashMap.newKeySet();
+                first[0] = true;
+            }
+            open.add(sessionId);
+            return open;
+        });
+        pendingLastSeen.put(userId, LocalDateTime.now());
+        if (first[0]) {
+            chatRouter.userConnected(userId);
+            announce(userId, ChatMessage.MessageType.JOIN);
+        }
+    }
+
+    public void disconnect(Long userId, String sessionId) {
+        boolean[] last = new boolean[1];
+        sessions.computeIfPresent(userId, (id, open) -> {
+            if (open.remove(sessionId) && open.isEmpty()) {
+                last[0] = true;
+                return null;
+            }
+            return open;
+        });
+        pendingLastSeen.put(userId, LocalDateTime.now());
+        if (last[0]) {
+            chatRouter.userDisconnected(userId);
+            announce(userId, ChatMessage.MessageType.LEAVE);
+        }
+    }
+
+    // Online on this node or, when nodes share presence over the bus, on another node
+    public boolean isOnline(Long userId) {
+        return sessions.containsKey(userId) || chatRouter.nodeOf(userId) != null;
+    }
+
+    // The subset of userIds that are online
+    public Set<Long> onlineAmong(Collection<Long> userIds) {
+        Set<Long> online = new HashSet<>();
+        for (Long userId : userIds) {
+            if (isOnline(userId)) {
+                online.add(userId);
+            }
+        }
+        return online;
+    }
+
+    private void announce(Long userId, ChatMessage.MessageType type) {
+        try {
+            Set<Long> audience = new LinkedHashSet<>(socialGraphService.connectionIds(userId));
+            audience.addAll(conversationSummaryRepository.findPartnerIdsSince(
+                    userId, LocalDateTime.now().minusDays(conversationWindowDays)));
+            audience.remove(userId);
+
+            ChatMessage presence = new ChatMessage();
+            presence.setType(type);
+            presence.setSenderId(userId);
+            for (Long recipientId : audience) {
+                if (isOnline(recipientId)) {
+                    chatRouter.sendToUser(recipientId, presence);
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to announce presence of user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.presence.flush-interval-ms:30000}")
+    public void flush() {
+        List<Object[]> rows = new ArrayList<>();
+        for (Long userId : new ArrayList<>(pendingLastSeen.keySet())) {
+            LocalDateTime seenAt = pendingLastSeen.remove(userId);
+            if (seenAt != null) {
+                rows.add(new Object[] {Timestamp.valueOf(seenAt), userId});
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(LAST_SEEN_SQL, rows, BATCH_SIZE, (ps, row) -> {
+                ps.setTimestamp(1, (Timestamp) row[0]);
+                ps.setLong(2, (Long) row[1]);
+            });
+            // The write bypasses Hibernate, so drop the cached users that now have an old last_seen_at
+            for (Object[] row : rows) {
+                entityManagerFactory.getCache().evict(User.class, row[1]);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to write last-seen for {} users: {}", rows.size(), e.getMessage());
+        }
+    }
+
+    // Users still connected at shutdown were last seen now
+    @PreDestroy
+    public void shutdown() {
+        LocalDateTime now = LocalDateTime.now();
+        sessions.keySet().forEach(userId -> pendingLastSeen.put(userId, now));
+        flush();
+    }
+}
@@ -0,0 +1,275 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.repository.ConnectionRepository;
+import com.backend.stageconnect.repository.UserFollowingRepository;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory social graph used for connection suggestions. Users are mapped to dense int
+ * ordinals and each relationship kind (connected, pending, follows) is kept as a sorted
+ * int array per user. Suggestions are friends-of-friends ranked by mutual connections,
+ * with follows counted as a weaker signal, excluding anyone the user is already
+ * connected to, has a pending request with, or follows.
+ * Loaded on startup and updated by ConnectionController as relationships change.
+ */
+@Service
+@RequiredArgsConstructor
+public class SocialGraphService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SocialGraphService.class);
+
+    private static final int CONNECTION_WEIGHT = 2;
+    private static final int FOLLOW_WEIGHT = 1;
+
+    private final ConnectionRepository connectionRepository;
+    private final UserFollowingRepository userFollowingRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> ordinalByUserId = new HashMap<>();
+    private long[] userIds = new long[1024];
+    private IntSet[] connected = new IntSet[1024];
+    private IntSet[] pending = new IntSet[1024];
+    private IntSet[] follows = new IntSet[1024];
+    private int size;
+
+    // Per-thread scratch space for scoring, reset after each query
+    private final ThreadLocal<int[][]> scratch = ThreadLocal.withInitial(() -> new int[2][0]);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        int connections = 0;
+        int requests = 0;
+        for (Object[] row : connectionRepository.findActiveEdges()) {
+            Long requesterId = (Long) row[0];
+            Long receiverId = (Long) row[1];
+            if ("CONNECTED".equals(row[2].toString())) {
+                connect(requesterId, receiverId);
+                connections++;
+            } else {
+                addPending(requesterId, receiverId);
+                requests++;
+            }
+        }
+        List<Object[]> followEdges = userFollowingRepository.findAllEdges();
+        for (Object[] row : followEdges) {
+            follow((Long) row[0], (Long) row[1]);
+        }
+        logger.info("Loaded social graph: {} users, {} connections, {} pending requests, {} follows",
+                size, connections, requests, followEdges.size());
+    }
+
+    public void addPending(Long requesterId, Long receiverId) {
+        update(requesterId, receiverId, (a, b) -> {
+            pending[a].add(b);
+            pending[b].add(a);
+        });
+    }
+
+    public void removePending(Long requesterId, Long receiverId) {
+        update(requesterId, receiverId, (a, b) -> {
+            pending[a].remove(b);
+            pending[b].remove(a);
+        });
+    }
+
+    public void connect(Long userId1, Long userId2) {
+        update(userId1, userId2, (a, b) -> {
+            pending[a].remove(b);
+            pending[b].remove(a);
+            connected[a].add(b);
+            connected[b].add(a);
+        });
+    }
+
+    public void disconnect(Long userId1, Long userId2) {
+        update(userId1, userId2, (a, b) -> {
+            connected[a].remove(b);
+            connected[b].remove(a);
+        });
+    }
+
+    public void follow(Long followerId, Long followedId) {
+        update(followerId, followedId, (a, b) -> follows[a].add(b));
+    }
+
+    public void unfollow(Long followerId, Long followedId) {
+        update(followerId, followedId, (a, b) -> follows[a].remove(b));
+    }
+
+    private void update(Long userId1, Long userId2, EdgeUpdate edgeUpdate) {
+        lock.writeLock().lock();
+        try {
+            edgeUpdate.apply(ordinal(userId1), ordinal(userId2));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // IDs of the users a user is connected to
+    public List<Long> connectionIds(Long userId) {
+        lock.readLock().lock();
+        try {
+            Integer self = ordinalByUserId.get(userId);
+            List<Long> ids = new ArrayList<>();
+            if (self != null) {
+                IntSet direct = connected[self];
+                for (int i = 0; i < direct.size; i++) {
+                    ids.add(userIds[direct.values[i]]);
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Rank friends-of-friends for a user; returns at most limit suggestions
+    public List<Suggestion> suggest(Long userId, int limit) {
+        lock.readLock().lock();
+        try {
+            Integer self = ordinalByUserId.get(userId);
+            if (self == null || limit <= 0) {
+                return new ArrayList<>();
+            }
+
+            int[][] buffers = scratch.get();
+            if (buffers[0].length < size) {
+                buffers[0] = new int[userIds.length];
+                buffers[1] = new int[userIds.length];
+            }
+            int[] score = buffers[0];
+            int[] mutual = buffers[1];
+            IntSet touched = new IntSet();
+
+            // Walk two hops: through connections (strong) and followed users (weak)
+            IntSet direct = connected[self];
+            for (int i = 0; i < direct.size; i++) {
+                walk(connected[direct.values[i]], CONNECTION_WEIGHT, true, score, mutual, touched);
+                walk(follows[direct.values[i]], FOLLOW_WEIGHT, false, score, mutual, touched);
+            }
+            IntSet followed = follows[self];
+            for (int i = 0; i < followed.size; i++) {
+                walk(connected[followed.values[i]], FOLLOW_WEIGHT, false, score, mutual, touched);
+            }
+
+            List<Suggestion> suggestions = new ArrayList<>();
+            for (int i = 0; i < touched.size; i++) {
+                int candidate = touched.values[i];
+                if (candidate != self && !connected[self].contains(candidate)
+                        && !pending[self].contains(candidate) && !follows[self].contains(candidate)) {
+                    suggestions.add(new Suggestion(userIds[candidate], mutual[candidate], score[candidate]));
+                }
+                score[candidate] = 0;
+                mutual[candidate] = 0;
+            }
+
+            suggestions.sort((a, b) -> a.getScore() != b.getScore()
+                    ? Integer.compare(b.getScore(), a.getScore())
+                    : Long.compare(a.getUserId(), b.getUserId()));
+            return suggestions.size() > limit ? new ArrayList<>(suggestions.subList(0, limit)) : suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void walk(IntSet neighbours, int weight, boolean countsAsMutual, int[] score, int[] mutual, IntSet touched) {
+        for (int i = 0; i < neighbours.size; i++) {
+            int candidate = neighbours.values[i];
+            if (score[candidate] == 0) {
+                touched.append(candidate);
+            }
+            score[candidate] += weight;
+            if (countsAsMutual) {
+                mutual[candidate]++;
+            }
+        }
+    }
+
+    private int ordinal(Long userId) {
+        Integer existing = ordinalByUserId.get(userId);
+        if (existing != null) {
+            return existing;
+        }
+        if (size == userIds.length) {
+            int capacity = userIds.length * 2;
+            userIds = Arrays.copyOf(userIds, capacity);
+            connected = Arrays.copyOf(connected, capacity);
+            pending = Arrays.copyOf(pending, capacity);
+            follows = Arrays.copyOf(follows, capacity);
+        }
+        int ordinal = size++;
+        userIds[ordinal] = userId;
+        connected[ordinal] = new IntSet();
+        pending[ordinal] = new IntSet();
+        follows[ordinal] = new IntSet();
+        ordinalByUserId.put(userId, ordinal);
+        return ordinal;
+    }
+
+    private interface EdgeUpdate {
+        void apply(int a, int b);
+    }
+
+    // Growable sorted int array; membership is a binary search
+    private static final class IntSet {
+        private int[] values = new int[4];
+        private int size;
+
+        boolean contains(int value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        void add(int value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = value;
+            size++;
+        }
+
+        // Unsorted append, only for the per-query list of touched candidates
+        void append(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void remove(int value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, size - index - 1);
+                size--;
+            }
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Suggestion {
+        private long userId;
+        private int mutualConnections;
+        private int score;
+    }
+}
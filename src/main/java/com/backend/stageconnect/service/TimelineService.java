@@ -0,0 +1,169 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.entity.Post;
+import com.backend.stageconnect.entity.TimelineEntry;
+import com.backend.stageconnect.model.Cursor;
+import com.backend.stageconnect.model.CursorPage;
+import com.backend.stageconnect.repository.PostRepository;
+import com.backend.stageconnect.repository.TimelineEntryRepository;
+import com.backend.stageconnect.repository.TimelineOwnerRepository;
+import com.backend.stageconnect.repository.UserFollowingRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Materialized home timelines. New posts are pushed into the timelines of the author's
+ * followers (fan-out on write), except for authors with more followers than
+ * app.timeline.celebrity-threshold, whose posts are merged in when the feed is read.
+ * Those authors are recomputed every app.timeline.celebrity-refresh-ms, so neither path
+ * counts followers per post or per read.
+ * A user's timeline is built from the follow graph on first read and kept to
+ * app.timeline.max-entries entries by a periodic trim.
+ */
+@Service
+@RequiredArgsConstructor
+public class TimelineService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimelineService.class);
+
+    // Only timelines that were already materialized get the new entry; the rest are backfilled on first read
+    private static final String FAN_OUT_SQL =
+            "INSERT IGNORE INTO timeline_entries (owner_id, post_id, author_id, created_at) " +
+            "SELECT ?, ?, ?, ? FROM DUAL WHERE EXISTS (SELECT 1 FROM timeline_owners WHERE owner_id = ?)";
+
+    private static final String BACKFILL_SQL =
+            "INSERT IGNORE INTO timeline_entries (owner_id, post_id, author_id, created_at) " +
+            "SELECT ?, p.id, p.user_id, p.created_at FROM posts p " +
+            "WHERE p.user_id = ? OR p.user_id IN (SELECT f.followed_id FROM user_followings f WHERE f.follower_id = ?) " +
+            "ORDER BY p.created_at DESC, p.id DESC LIMIT ?";
+
+    private static final int BATCH_SIZE = 500;
+
+    private final TimelineEntryRepository timelineEntryRepository;
+    private final TimelineOwnerRepository timelineOwnerRepository;
+    private final UserFollowingRepository userFollowingRepository;
+    private final PostRepository postRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.timeline.max-entries:800}")
+    private int maxEntries;
+
+    @Value("${app.timeline.celebrity-threshold:5000}")
+    private long celebrityThreshold;
+
+    // Authors whose posts are pulled on read instead of pushed; swapped whole on each refresh
+    private volatile Set<Long> highFanOutAuthors = Set.of();
+
+    @Scheduled(fixedDelayString = "${app.timeline.celebrity-refresh-ms:300000}")
+    public void refreshHighFanOutAuthors() {
+        highFanOutAuthors = Set.copyOf(userFollowingRepository.findIdsWithMoreFollowersThan(celebrityThreshold));
+    }
+
+    // Push a newly created post into the author's and followers' timelines
+    @Transactional
+    public void fanOut(Post post) {
+        Long authorId = post.getAuthor().getId();
+        List<Long> ownerIds = new ArrayList<>();
+        ownerIds.add(authorId);
+        if (!highFanOutAuthors.contains(authorId)) {
+            ownerIds.addAll(userFollowingRepository.findFollowerIdsByFollowedId(authorId));
+        }
+
+        Timestamp createdAt = Timestamp.valueOf(post.getCreatedAt());
+        jdbcTemplate.batchUpdate(FAN_OUT_SQL, ownerIds, BATCH_SIZE, (ps, ownerId) -> {
+            ps.setLong(1, ownerId);
+            ps.setLong(2, post.getId());
+            ps.setLong(3, authorId);
+            ps.setTimestamp(4, createdAt);
+            ps.setLong(5, ownerId);
+        });
+    }
+
+    // Remove a deleted post from every timeline
+    @Transactional
+    public void remove(Long postId) {
+        timelineEntryRepository.deleteByPostId(postId);
+    }
+
+    // Read one page of a user's home timeline, newest first
+    @Transactional
+    public CursorPage<Post> readPage(Long userId, Cursor cursor, int size) {
+        // Built once per user, tracked apart from the entries so an empty timeline is not rebuilt on every read
+        if (!timelineOwnerRepository.existsById(userId)
+                && timelineOwnerRepository.markMaterialized(userId, LocalDateTime.now()) == 1) {
+            jdbcTemplate.update(BACKFILL_SQL, userId, userId, userId, maxEntries);
+        }
+
+        Pageable limit = PageRequest.of(0, size + 1);
+
+        // Materialized entries and posts from high fan-out authors, keyed by post ID
+        Map<Long, LocalDateTime> candidates = new LinkedHashMap<>();
+        List<TimelineEntry> entries = cursor == null
+                ? timelineEntryRepository.findFirstPage(userId, limit)
+                : timelineEntryRepository.findPageAfter(userId, cursor.getCreatedAt(), cursor.getId(), limit);
+        entries.forEach(entry -> candidates.put(entry.getPostId(), entry.getCreatedAt()));
+
+        Set<Long> authors = highFanOutAuthors;
+        List<Long> followedAuthors = authors.isEmpty() ? List.of() : userFollowingRepository.findFollowedIdsAmong(userId, authors);
+        if (!followedAuthors.isEmpty()) {
+            List<Post> pulled = cursor == null
+                    ? postRepository.findLatestByAuthorIds(followedAuthors, limit)
+                    : postRepository.findByAuthorIdsBefore(followedAuthors, cursor.getCreatedAt(), cursor.getId(), limit);
+            pulled.forEach(post -> candidates.putIfAbsent(post.getId(), post.getCreatedAt()));
+        }
+
+        List<Map.Entry<Long, LocalDateTime>> ordered = candidates.entrySet().stream()
+                .sorted(Comparator.<Map.Entry<Long, LocalDateTime>, LocalDateTime>comparing(Map.Entry::getValue)
+                        .thenComparing(Map.Entry::getKey)
+                        .reversed())
+                .collect(Collectors.toList());
+
+        boolean hasMore = ordered.size() > size;
+        List<Map.Entry<Long, LocalDateTime>> pageEntries = hasMore ? ordered.subList(0, size) : ordered;
+
+        List<Long> postIds = pageEntries.stream().map(Map.Entry::getKey).collect(Collectors.toList());
+        Map<Long, Post> postsById = postIds.isEmpty()
+                ? Map.of()
+                : postRepository.findByIdIn(postIds).stream().collect(Collectors.toMap(Post::getId, Function.identity()));
+        List<Post> posts = postIds.stream()
+                .map(postsById::get)
+                .filter(post -> post != null)
+                .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (hasMore) {
+            Map.Entry<Long, LocalDateTime> last = pageEntries.get(pageEntries.size() - 1);
+            nextCursor = new Cursor(last.getValue(), last.getKey()).encode();
+        }
+        return new CursorPage<>(posts, nextCursor, hasMore);
+    }
+
+    // Drop entries beyond the configured timeline length
+    @Scheduled(fixedDelayString = "${app.timeline.trim-interval-ms:600000}")
+    @Transactional
+    public void trim() {
+        int removed = timelineEntryRepository.trimToSize(maxEntries);
+        if (removed > 0) {
+            logger.info("Trimmed {} timeline entries", removed);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.model.ChatMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Turns the stream of client typing frames into start/stop transitions per sender and
+ * receiver. Repeated frames only extend the typing state; a receiver gets at most one
+ * transition per app.chat.typing.min-interval-ms, and a stop is sent when no frame has
+ * arrived for app.chat.typing.ttl-ms. Deadlines are kept on a hashed timer wheel that
+ * advances every app.chat.typing.tick-ms.
+ */
+@Service
+@RequiredArgsConstructor
+public class TypingCoalescer {
+
+    private static final int WHEEL_SLOTS = 64;
+
+    private final ChatRouter chatRouter;
+
+    @Value("${app.chat.typing.ttl-ms:5000}")
+    private long ttlMs;
+
+    @Value("${app.chat.typing.min-interval-ms:1000}")
+    private long minIntervalMs;
+
+    @Value("${app.chat.typing.tick-ms:250}")
+    private long tickMs;
+
+    private final Map<PairKey, TypingState> states = new ConcurrentHashMap<>();
+
+    private final List<ConcurrentLinkedQueue<PairKey>> wheel = new ArrayList<>(WHEEL_SLOTS);
+
+    private final AtomicLong currentTick = new AtomicLong();
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong forwarded = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+
+    {
+        for (int i = 0; i < WHEEL_SLOTS; i++) {
+            wheel.add(new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    // A typing frame from the client; forwarded only if it changes what the receiver sees
+    public void onTyping(ChatMessage frame) {
+        received.incrementAndGet();
+        if (frame.getSenderId() == null || frame.getReceiverId() == null) {
+            dropped.incrementAndGet();
+            return;
+        }
+        PairKey key = new PairKey(frame.getSenderId(), frame.getReceiverId());
+        boolean typing = !Boolean.FALSE.equals(frame.getTyping());
+        long now = System.currentTimeMillis();
+
+        while (true) {
+            TypingState state = typing ? states.computeIfAbsent(key, k -> new TypingState(frame.getConversationId())) : states.get(key);
+            if (state == null) {
+                dropped.incrementAndGet();
+                return;
+            }
+            synchronized (state) {
+                // tick() or onMessageSent() may have removed the state after we looked it up;
+                // an update to an orphaned state would never be followed by a stop
+                if (states.get(key) != state) {
+                    continue;
+                }
+                state.wanted = typing;
+                state.expiresAt = typing ? now + ttlMs : now;
+                if (!evaluate(key, state, now)) {
+                    dropped.incrementAndGet();
+                }
+                return;
+            }
+        }
+    }
+
+    // A chat message ends typing without a separate stop frame
+    public void onMessageSent(Long senderId, Long receiverId) {
+        TypingState state = states.remove(new PairKey(senderId, receiverId));
+        if (state != null) {
+            synchronized (state) {
+                state.wanted = false;
+                state.announced = false;
+            }
+        }
+    }
+
+    @Scheduled(fixedRateString = "${app.chat.typing.tick-ms:250}")
+    public void tick() {
+        long tick = currentTick.incrementAndGet();
+        ConcurrentLinkedQueue<PairKey> slot = wheel.get((int) (tick % WHEEL_SLOTS));
+        long now = System.currentTimeMillis();
+        for (int i = slot.size(); i > 0; i--) {
+            PairKey key = slot.poll();
+            if (key == null) {
+                break;
+            }
+            TypingState state = states.get(key);
+            if (state == null) {
+                continue;
+            }
+            synchronized (state) {
+                // Skip entries superseded by an earlier deadline
+                if (!state.scheduled || state.dueTick != tick) {
+                    continue;
+                }
+                state.scheduled = false;
+                if (state.wanted && now >= state.expiresAt) {
+                    state.wanted = false;
+                    if (state.announced) {
+                        expired.incrementAndGet();
+                    }
+                }
+                evaluate(key, state, now);
+                if (!state.wanted && !state.announced && !state.scheduled) {
+                    states.remove(key, state);
+                }
+            }
+        }
+    }
+
+    // Emit the pending transition if the interval allows it, otherwise park the pair on the
+    // wheel until it does; returns whether a frame was sent
+    private boolean evaluate(PairKey key, TypingState state, long now) {
+        boolean sent = false;
+        if (state.wanted != state.announced) {
+            long allowedAt = state.lastEmitAt + minIntervalMs;
+            if (now >= allowedAt) {
+                emit(key, state, now);
+                sent = true;
+            } else {
+                schedule(key, state, allowedAt, now);
+            }
+        }
+        if (state.wanted) {
+            schedule(key, state, state.expiresAt, now);
+        }
+        return sent;
+    }
+
+    private void emit(PairKey key, TypingState state, long now) {
+        state.announced = state.wanted;
+        state.lastEmitAt = now;
+        ChatMessage frame = new ChatMessage();
+        frame.setType(ChatMessage.MessageType.TYPING);
+        frame.setSenderId(key.senderId());
+        frame.setReceiverId(key.receiverId());
+        frame.setConversationId(state.conversationId);
+        frame.setTyping(state.announced);
+        chatRouter.sendToUser(key.receiverId(), frame);
+        forwarded.incrementAndGet();
+    }
+
+    private void schedule(PairKey key, TypingState state, long deadline, long now) {
+        if (state.scheduled && state.scheduledFor <= deadline) {
+            return;
+        }
+        long ticks = Math.max(1, (deadline - now + tickMs - 1) / tickMs);
+        // Deadlines past one wheel turn are re-checked and re-parked when their slot comes round
+        ticks = Math.min(ticks, WHEEL_SLOTS - 1);
+        long dueTick;
+        do {
+            dueTick = currentTick.get() + ticks;
+            wheel.get((int) (dueTick % WHEEL_SLOTS)).add(key);
+            // If tick() reached dueTick before the add, it has already drained the slot; park again.
+            // The stale entry is skipped later because its tick no longer matches dueTick
+        } while (currentTick.get() >= dueTick);
+        state.scheduled = true;
+        state.dueTick = dueTick;
+        state.scheduledFor = deadline;
+    }
+
+    // Counters for tuning the coalescing intervals
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("received", received.get());
+        stats.put("forwarded", forwarded.get());
+        stats.put("dropped", dropped.get());
+        stats.put("expired", expired.get());
+        stats.put("activePairs", states.size());
+        return stats;
+    }
+
+    private record PairKey(Long senderId, Long receiverId) {
+    }
+
+    private static class TypingState {
+        private final String conversationId;
+        private boolean wanted;
+        private boolean announced;
+        private long expiresAt;
+        private long lastEmitAt;
+        private boolean scheduled;
+        private long scheduledFor;
+        private long dueTick;
+
+        private TypingState(String conversationId) {
+            this.conversationId = conversationId;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.dto.UserCard;
+import com.backend.stageconnect.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Name, photo and company of users as shown next to posts, comments, messages and connections.
+ * Cards are immutable and kept in a bounded LRU cache; the ones missing for a page are loaded
+ * with a single projection query, so list endpoints never touch User entities. Profile and
+ * company updates evict the affected cards.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserCardCache {
+
+    private final UserRepository userRepository;
+
+    @Value("${app.users.cached-cards:20000}")
+    private int cachedCards;
+
+    private final Map<Long, UserCard> cards = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, UserCard> eldest) {
+            return size() > cachedCards;
+        }
+    };
+
+    // Bumped on every eviction, so a load that raced with an update does not cache a stale card
+    private final AtomicLong version = new AtomicLong();
+
+    // Cards of the given users; unknown IDs are left out
+    public Map<Long, UserCard> cards(Collection<Long> userIds) {
+        Map<Long, UserCard> found = new HashMap<>();
+        Set<Long> missing = new HashSet<>();
+        synchronized (cards) {
+            for (Long userId : userIds) {
+                if (userId == null || found.containsKey(userId)) {
+                    continue;
+                }
+                UserCard card = cards.get(userId);
+                if (card != null) {
+                    found.put(userId, card);
+                } else {
+                    missing.add(userId);
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        long loadedAt = version.get();
+        List<UserCard> loaded = userRepository.findCardsByIdIn(missing);
+        synchronized (cards) {
+            boolean current = version.get() == loadedAt;
+            for (UserCard card : loaded) {
+                found.put(card.id(), card);
+                if (current) {
+                    cards.put(card.id(), card);
+                }
+            }
+        }
+        return found;
+    }
+
+    public UserCard card(Long userId) {
+        return userId == null ? null : cards(List.of(userId)).get(userId);
+    }
+
+    // After a user's name, title, location or photo changed, or the user was deleted
+    public void evict(Long userId) {
+        version.incrementAndGet();
+        synchronized (cards) {
+            cards.remove(userId);
+        }
+    }
+
+    // After a company's name or photo changed, for the responsibles showing it
+    public void evictCompany(Long companyId) {
+        version.incrementAndGet();
+        synchronized (cards) {
+            cards.values().removeIf(card -> Objects.equals(card.companyId(), companyId));
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.backend.stageconnect;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.embedded.EmbeddedWebServerFactoryCustomizerAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load against an embedded Tomcat endpoint that blocks for a fixed time per
+ * request, standing in for a JDBC or file call. It runs once in the default mode (Tomcat's
+ * 200-thread pool) and once with spring.threads.virtual.enabled as in the virtual profile,
+ * and prints throughput and latency percentiles for each. Only the web stack is started, so
+ * no database is needed. Requires JDK 21. Not run by the build; start main() from the IDE or with
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.backend.stageconnect.ExecutionModeBenchmark
+ * Arguments: clients (default 400), seconds per mode (default 20), blocking ms per request
+ * (default 50) and how many requests may block at once (default 0, unbounded; 30 mirrors the
+ * virtual profile's connection pool).
+ */
+public class ExecutionModeBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int blockingMs = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+        int permits = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+
+        System.out.printf("%d clients, %ds per mode, %d ms blocking per request, %s concurrent blocking calls, %d cores%n",
+                clients, seconds, blockingMs, permits > 0 ? permits : "unbounded",
+                Runtime.getRuntime().availableProcessors());
+        for (boolean virtual : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BlockingEndpoint.class)
+                    .web(WebApplicationType.SERVLET)
+                    .bannerMode(Banner.Mode.OFF)
+                    .logStartupInfo(false)
+                    // Keep application.properties out so only the execution mode differs
+                    .run("--spring.config.name=execution-mode-benchmark",
+                            "--server.port=0",
+                            "--logging.level.root=WARN",
+                            "--spring.threads.virtual.enabled=" + virtual,
+                            "--benchmark.blocking-ms=" + blockingMs,
+                            "--benchmark.permits=" + permits)) {
+                int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+                measure(virtual ? "virtual" : "default", port, clients, seconds,
+                        context.getBean(BlockingEndpoint.class));
+            }
+        }
+    }
+
+    private static void measure(String mode, int port, int clients, int seconds, BlockingEndpoint endpoint)
+            throws InterruptedException {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/blocking"))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+
+        // Warm up connections and JIT before measuring
+        runLoad(httpClient, request, clients, 5);
+        Result result = runLoad(httpClient, request, clients, seconds);
+
+        long[] latencies = result.latencies();
+        Arrays.sort(latencies);
+        System.out.printf("%s (handled on virtual threads: %s): %.1f req/s, errors: %d",
+                mode, endpoint.handledOnVirtualThread, latencies.length / (double) seconds, result.errors());
+        if (latencies.length > 0) {
+            System.out.printf(", latency ms p50 %.1f, p90 %.1f, p99 %.1f, max %.1f",
+                    percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99),
+                    latencies[latencies.length - 1] / 1_000_000.0);
+        }
+        System.out.println();
+    }
+
+    private static Result runLoad(HttpClient httpClient, HttpRequest request, int clients, int seconds)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<long[]> perClient = new ArrayList<>();
+        AtomicLong errors = new AtomicLong();
+        ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor();
+        for (int i = 0; i < clients; i++) {
+            long[][] samples = {new long[1024]};
+            int[] count = {0};
+            pool.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                        continue;
+                    }
+                    if (count[0] == samples[0].length) {
+                        samples[0] = Arrays.copyOf(samples[0], count[0] * 2);
+                    }
+                    samples[0][count[0]++] = System.nanoTime() - start;
+                }
+                synchronized (perClient) {
+                    perClient.add(Arrays.copyOf(samples[0], count[0]));
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+
+        int total = perClient.stream().mapToInt(samples -> samples.length).sum();
+        long[] latencies = new long[total];
+        int offset = 0;
+        for (long[] samples : perClient) {
+            System.arraycopy(samples, 0, latencies, offset, samples.length);
+            offset += samples.length;
+        }
+        return new Result(latencies, errors.get());
+    }
+
+    private static double percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    private record Result(long[] latencies, long errors) {
+    }
+
+    // Just the servlet stack, configured by the same auto-configuration the application uses
+    @Configuration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({ServletWebServerFactoryAutoConfiguration.class,
+            EmbeddedWebServerFactoryCustomizerAutoConfiguration.class,
+            DispatcherServletAutoConfiguration.class, WebMvcAutoConfiguration.class})
+    @RestController
+    static class BlockingEndpoint {
+
+        private final long blockingMs;
+
+        // Bounds blocking calls the way a connection pool would; null when unbounded
+        private final Semaphore permits;
+
+        private volatile boolean handledOnVirtualThread;
+
+        BlockingEndpoint(@Value("${benchmark.blocking-ms}") long blockingMs, @Value("${benchmark.permits}") int permits) {
+            this.blockingMs = blockingMs;
+            this.permits = permits > 0 ? new Semaphore(permits, true) : null;
+        }
+
+        @GetMapping("/blocking")
+        public String blocking() throws InterruptedException {
+            handledOnVirtualThread = Thread.currentThread().isVirtual();
+            if (permits != null) {
+                permits.acquire();
+            }
+            try {
+                Thread.sleep(blockingMs);
+            } finally {
+                if (permits != null) {
+                    permits.release();
+                }
+            }
+            return "ok";
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.backend.stageconnect.security;
+
+import com.backend.stageconnect.entity.Candidate;
+import com.backend.stageconnect.entity.UserType;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Token round trips through the verified-claims cache
+class JwtServiceTests {
+
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", "testSecretKey12345678901234567890123456789");
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 60_000L);
+        ReflectionTestUtils.setField(jwtService, "claimsCacheSize", 10);
+        ReflectionTestUtils.setField(jwtService, "claimsCacheTtl", 60_000L);
+        jwtService.init();
+    }
+
+    @Test
+    void verifiesTokenOnceAndServesPrincipalFromCache() {
+        String token = jwtService.generateToken(candidate());
+
+        JwtPrincipal principal = jwtService.extractPrincipal(token);
+
+        assertEquals(7L, principal.getId());
+        assertEquals("ada@example.com", principal.getEmail());
+        assertEquals(UserType.CANDIDATE, principal.getUserType());
+        assertSame(principal, jwtService.extractPrincipal(token));
+    }
+
+    @Test
+    void stopsServingCachedTokenOnceItExpires() throws InterruptedException {
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 1_000L);
+        String token = jwtService.generateToken(candidate());
+        jwtService.extractPrincipal(token);
+
+        // Token expiry is stored in whole seconds, so wait past the next second
+        Thread.sleep(2_100);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtService.extractPrincipal(token));
+    }
+
+    @Test
+    void rejectsTamperedToken() {
+        String token = jwtService.generateToken(candidate());
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtService.extractPrincipal(tampered));
+    }
+
+    private static Candidate candidate() {
+        Candidate candidate = new Candidate();
+        candidate.setId(7L);
+        candidate.setEmail("ada@example.com");
+        candidate.setUserType(UserType.CANDIDATE);
+        return candidate;
+    }
+}
@@ -0,0 +1,101 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.entity.Application;
+import com.backend.stageconnect.entity.Internship;
+import com.backend.stageconnect.repository.ApplicationRepository;
+import com.backend.stageconnect.repository.ApplicationStatusCountRepository;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.SQLException;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Counter deltas and duplicate detection, with repositories mocked
+class ApplicationIntakeServiceTests {
+
+    private ApplicationIntakeService service;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationRepository applications = mock(ApplicationRepository.class);
+        when(applications.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        ApplicationStatusCountRepository counts = mock(ApplicationStatusCountRepository.class);
+        service = new ApplicationIntakeService(applications, counts, null);
+        ReflectionTestUtils.setField(service, "counterShards", 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void marksInternshipDirtyOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        service.submit(application(3L));
+        assertTrue(dirtyInternships().isEmpty());
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        assertEquals(Set.of(3L), dirtyInternships());
+    }
+
+    @Test
+    void leavesInternshipCleanAfterRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+        service.submit(application(3L));
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        assertTrue(dirtyInternships().isEmpty());
+    }
+
+    @Test
+    void recognizesDuplicateApplication() {
+        assertTrue(service.isDuplicateApplication(violation("applications.uk_applications_internship_applicant")));
+        assertTrue(service.isDuplicateApplication(violation("UK_APPLICATIONS_INTERNSHIP_APPLICANT")));
+    }
+
+    @Test
+    void doesNotTreatOtherViolationsAsDuplicates() {
+        assertFalse(service.isDuplicateApplication(violation("fk_applications_internship")));
+        assertFalse(service.isDuplicateApplication(violation(null)));
+        assertFalse(service.isDuplicateApplication(new DataIntegrityViolationException("cover_letter too long")));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Long> dirtyInternships() {
+        return (Set<Long>) ReflectionTestUtils.getField(service, "dirtyInternships");
+    }
+
+    private static Application application(Long internshipId) {
+        Internship internship = new Internship();
+        internship.setId(internshipId);
+        Application application = new Application();
+        application.setInternship(internship);
+        application.setStatus(Application.ApplicationStatus.PENDING);
+        return application;
+    }
+
+    private static DataIntegrityViolationException violation(String constraint) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("Duplicate entry", new SQLException("Duplicate entry"), constraint));
+    }
+}
@@ -0,0 +1,244 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.model.ChatMessage;
+import com.backend.stageconnect.repository.ConversationSummaryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Broadcast versus stored order, ACKs and NACKs, with JDBC mocked to record inserted rows
+class ChatPersistencePipelineTests {
+
+    private final List<ChatMessage> sent = new CopyOnWriteArrayList<>();
+    // Message contents per conversation, in the order they were broadcast and in the order they were inserted
+    private final Map<String, List<String>> broadcastOrder = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> storedOrder = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private ConversationSummaryRepository conversationSummaryRepository;
+    private ChatPersistencePipeline pipeline;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (pipeline != null) {
+            pipeline.stop();
+        }
+    }
+
+    @Test
+    void storesEachConversationInBroadcastOrder() throws Exception {
+        // Room for every message, so the order check does not depend on how fast the writer drains
+        pipeline = pipeline(4, 6 * 200);
+        List<Thread> senders = new ArrayList<>();
+        for (long sender = 1; sender <= 6; sender++) {
+            long senderId = sender;
+            senders.add(new Thread(() -> {
+                // Senders 1 and 2, 3 and 4, 5 and 6 write to each other, so their messages interleave
+                long receiverId = senderId % 2 == 1 ? senderId + 1 : senderId - 1;
+                for (int i = 0; i < 200; i++) {
+                    submit(message(senderId, receiverId, null, senderId + ":" + i));
+                }
+            }));
+        }
+        senders.forEach(Thread::start);
+        for (Thread sender : senders) {
+            sender.join();
+        }
+        pipeline.stop();
+
+        assertEquals(3, broadcastOrder.size());
+        assertEquals(broadcastOrder, storedOrder);
+        assertEquals(6 * 200 * 2, count(ChatMessage.MessageType.ACK));
+    }
+
+    @Test
+    void acknowledgesSenderAndReceiverWithDatabaseId() throws Exception {
+        pipeline = pipeline(1, 10);
+        ChatMessage message = message(1L, 2L, "1_2", "hello");
+
+        assertTrue(submit(message));
+        pipeline.stop();
+
+        List<ChatMessage> acks = sent.stream().filter(m -> m.getType() == ChatMessage.MessageType.ACK).toList();
+        assertEquals(2, acks.size());
+        assertEquals(message.getPendingId(), acks.get(0).getPendingId());
+        assertEquals(1L, acks.get(0).getMessageId());
+    }
+
+    @Test
+    void replacesClientConversationIdWithDerivedOne() throws Exception {
+        pipeline = pipeline(1, 10);
+
+        assertTrue(submit(message(5L, 2L, "1_2", "hello")));
+        pipeline.stop();
+
+        assertEquals(Map.of("2_5", List.of("hello")), storedOrder);
+    }
+
+    @Test
+    void countsUnreadOnReceiverSideExceptForSelfMessages() throws Exception {
+        pipeline = pipeline(1, 10);
+
+        submit(message(2L, 1L, null, "to low"));
+        submit(message(1L, 1L, null, "to self"));
+        pipeline.stop();
+
+        ArgumentCaptor<String> conversationIds = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Integer> unreadLow = ArgumentCaptor.forClass(Integer.class);
+        ArgumentCaptor<Integer> unreadHigh = ArgumentCaptor.forClass(Integer.class);
+        verify(conversationSummaryRepository, atLeastOnce()).upsertMessage(conversationIds.capture(), any(), any(), any(),
+                any(), any(), any(), unreadLow.capture(), unreadHigh.capture());
+        Map<String, List<Integer>> unread = new HashMap<>();
+        for (int i = 0; i < conversationIds.getAllValues().size(); i++) {
+            unread.merge(conversationIds.getAllValues().get(i),
+                    List.of(unreadLow.getAllValues().get(i), unreadHigh.getAllValues().get(i)),
+                    (a, b) -> List.of(a.get(0) + b.get(0), a.get(1) + b.get(1)));
+        }
+        assertEquals(Map.of("1_2", List.of(1, 0), "1_1", List.of(0, 0)), unread);
+    }
+
+    @Test
+    void nacksMessageWithoutReceiver() throws Exception {
+        pipeline = pipeline(1, 10);
+        ChatMessage message = message(1L, null, "1_2", "hello");
+
+        assertFalse(submit(message));
+
+        assertTrue(broadcastOrder.isEmpty());
+        ChatMessage nack = sent.get(0);
+        assertEquals(ChatMessage.MessageType.NACK, nack.getType());
+        assertEquals(1L, nack.getSenderId());
+        assertNotNull(nack.getPendingId());
+        assertEquals(message.getPendingId(), nack.getPendingId());
+    }
+
+    @Test
+    void dropsMessageWithoutSender() throws Exception {
+        pipeline = pipeline(1, 10);
+
+        assertFalse(submit(message(null, 2L, "1_2", "hello")));
+
+        assertTrue(sent.isEmpty());
+    }
+
+    @Test
+    void nacksWithPendingIdWhenPartitionIsFull() throws Exception {
+        pipeline = pipeline(1, 0);
+        ChatMessage message = message(1L, 2L, "1_2", "hello");
+
+        assertFalse(submit(message));
+
+        assertTrue(broadcastOrder.isEmpty());
+        assertEquals(1, sent.size());
+        assertEquals(ChatMessage.MessageType.NACK, sent.get(0).getType());
+        assertEquals(message.getPendingId(), sent.get(0).getPendingId());
+        assertNotNull(sent.get(0).getPendingId());
+    }
+
+    private boolean submit(ChatMessage message) {
+        try {
+            return pipeline.submit(message, () -> broadcastOrder
+                    .computeIfAbsent(message.getConversationId(), id -> new CopyOnWriteArrayList<>())
+                    .add(message.getContent()));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long count(ChatMessage.MessageType type) {
+        return sent.stream().filter(message -> message.getType() == type).count();
+    }
+
+    private ChatPersistencePipeline pipeline(int partitions, int queueCapacity) throws SQLException {
+        ChatRouter router = mock(ChatRouter.class);
+        doAnswer(invocation -> sent.add(invocation.getArgument(1))).when(router).sendToUser(any(), any());
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        conversationSummaryRepository = mock(ConversationSummaryRepository.class);
+        ChatPersistencePipeline pipeline = new ChatPersistencePipeline(new JdbcTemplate(dataSource()),
+                conversationSummaryRepository, transactionManager, router);
+        ReflectionTestUtils.setField(pipeline, "partitionCount", partitions);
+        ReflectionTestUtils.setField(pipeline, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(pipeline, "batchSize", 50);
+        ReflectionTestUtils.setField(pipeline, "offerTimeoutMs", 10L);
+        pipeline.start();
+        return pipeline;
+    }
+
+    // A data source whose statements record the conversation and content of each batched row.
+    // Partition workers share the mocks, so each keeps its batch and row in a thread local
+    private DataSource dataSource() throws SQLException {
+        ThreadLocal<List<String[]>> batch = ThreadLocal.withInitial(ArrayList::new);
+        // content and conversation ID of the row being bound
+        ThreadLocal<String[]> row = ThreadLocal.withInitial(() -> new String[2]);
+        ThreadLocal<int[]> remainingKeys = ThreadLocal.withInitial(() -> new int[1]);
+
+        ResultSet keys = mock(ResultSet.class);
+        when(keys.next()).thenAnswer(invocation -> remainingKeys.get()[0]-- > 0);
+        when(keys.getLong(anyInt())).thenAnswer(invocation -> nextId.getAndIncrement());
+
+        PreparedStatement ps = mock(PreparedStatement.class);
+        doAnswer(invocation -> row.get()[invocation.<Integer>getArgument(0) == 3 ? 0 : 1] = invocation.getArgument(1))
+                .when(ps).setString(anyInt(), anyString());
+        doAnswer(invocation -> batch.get().add(row.get().clone())).when(ps).addBatch();
+        when(ps.executeBatch()).thenAnswer(invocation -> {
+            for (String[] stored : batch.get()) {
+                storedOrder.computeIfAbsent(stored[1], id -> new ArrayList<>()).add(stored[0]);
+            }
+            return new int[batch.get().size()];
+        });
+        when(ps.getGeneratedKeys()).thenAnswer(invocation -> {
+            remainingKeys.get()[0] = batch.get().size();
+            return keys;
+        });
+
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString(), anyInt())).thenAnswer(invocation -> {
+            batch.get().clear();
+            return ps;
+        });
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        return dataSource;
+    }
+
+    private static ChatMessage message(Long senderId, Long receiverId, String conversationId, String content) {
+        ChatMessage message = new ChatMessage();
+        message.setType(ChatMessage.MessageType.CHAT);
+        message.setSenderId(senderId);
+        message.setReceiverId(receiverId);
+        message.setConversationId(conversationId);
+        message.setContent(content);
+        return message;
+    }
+}
@@ -0,0 +1,141 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.model.ChatMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+// Two chat nodes in one JVM joined by the in-memory bus
+class ChatRouterTests {
+
+    private InMemoryChatBus busA;
+    private InMemoryChatBus busB;
+    private SimpMessageSendingOperations templateA;
+    private SimpMessageSendingOperations templateB;
+    private ChatRouter nodeA;
+    private ChatRouter nodeB;
+
+    @BeforeEach
+    void setUp() {
+        busA = new InMemoryChatBus("node-a");
+        busB = new InMemoryChatBus("node-b");
+        templateA = mock(SimpMessageSendingOperations.class);
+        templateB = mock(SimpMessageSendingOperations.class);
+        nodeA = node(templateA, busA);
+        nodeB = node(templateB, busB);
+    }
+
+    @AfterEach
+    void tearDown() {
+        busA.close();
+        busB.close();
+    }
+
+    @Test
+    void deliversToUserConnectedOnOtherNode() {
+        nodeB.userConnected(2L);
+        ChatMessage message = new ChatMessage();
+        message.setReceiverId(2L);
+
+        nodeA.sendToUser(2L, message);
+
+        assertEquals("node-b", nodeA.nodeOf(2L));
+        verify(templateB).convertAndSend("/topic/user/2", message);
+    }
+
+    @Test
+    void learnsExistingUsersWhenNodeStarts() {
+        nodeA.userConnected(1L);
+        SimpMessageSendingOperations templateC = mock(SimpMessageSendingOperations.class);
+        InMemoryChatBus busC = new InMemoryChatBus("node-c");
+        try {
+            ChatRouter nodeC = node(templateC, busC);
+            assertEquals("node-a", nodeC.nodeOf(1L));
+        } finally {
+            busC.close();
+        }
+    }
+
+    @Test
+    void stopsForwardingAfterUserDisconnects() {
+        nodeB.userConnected(2L);
+        nodeB.userDisconnected(2L);
+
+        nodeA.sendToUser(2L, new ChatMessage());
+
+        verify(templateB, never()).convertAndSend(anyString(), any(Object.class));
+    }
+
+    @Test
+    void publishesTopicsOnEveryNode() {
+        ChatMessage message = new ChatMessage();
+
+        nodeA.publish("/topic/public", message);
+
+        verify(templateA).convertAndSend("/topic/public", message);
+        verify(templateB).convertAndSend("/topic/public", message);
+    }
+
+    @Test
+    void sharesPresenceBetweenRelayNodes() {
+        InMemoryChatBus busC = new InMemoryChatBus("relay-c");
+        InMemoryChatBus busD = new InMemoryChatBus("relay-d");
+        try {
+            ChatRouter relayC = node(mock(SimpMessageSendingOperations.class), busC, "relay");
+            ChatRouter relayD = node(mock(SimpMessageSendingOperations.class), busD, "relay");
+
+            relayD.userConnected(2L);
+            assertEquals("relay-d", relayC.nodeOf(2L));
+
+            relayD.userDisconnected(2L);
+            assertNull(relayC.nodeOf(2L));
+        } finally {
+            busC.close();
+            busD.close();
+        }
+    }
+
+    @Test
+    void leavesFrameDeliveryToRelayBroker() {
+        SimpMessageSendingOperations templateC = mock(SimpMessageSendingOperations.class);
+        SimpMessageSendingOperations templateD = mock(SimpMessageSendingOperations.class);
+        InMemoryChatBus busC = new InMemoryChatBus("relay-c");
+        InMemoryChatBus busD = new InMemoryChatBus("relay-d");
+        try {
+            ChatRouter relayC = node(templateC, busC, "relay");
+            ChatRouter relayD = node(templateD, busD, "relay");
+            relayD.userConnected(2L);
+            ChatMessage message = new ChatMessage();
+
+            relayC.sendToUser(2L, message);
+            relayC.publish("/topic/public", message);
+
+            verify(templateC).convertAndSend("/topic/user/2", message);
+            verify(templateD, never()).convertAndSend(anyString(), any(Object.class));
+        } finally {
+            busC.close();
+            busD.close();
+        }
+    }
+
+    private static ChatRouter node(SimpMessageSendingOperations template, ChatBus bus) {
+        return node(template, bus, "bus");
+    }
+
+    private static ChatRouter node(SimpMessageSendingOperations template, ChatBus bus, String broker) {
+        ChatRouter router = new ChatRouter(template, bus);
+        ReflectionTestUtils.setField(router, "broker", broker);
+        router.init();
+        return router;
+    }
+}
@@ -0,0 +1,78 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.dto.CommentDTO;
+import com.backend.stageconnect.entity.Candidate;
+import com.backend.stageconnect.entity.Comment;
+import com.backend.stageconnect.repository.CommentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Inline replies and unpaged reply lists, with the comment repository mocked
+class CommentThreadServiceTests {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private CommentRepository commentRepository;
+    private CommentThreadService service;
+
+    @BeforeEach
+    void setUp() {
+        commentRepository = mock(CommentRepository.class);
+        UserCardCache userCardCache = mock(UserCardCache.class);
+        when(userCardCache.cards(anyCollection())).thenReturn(Map.of());
+        service = new CommentThreadService(commentRepository, null, userCardCache);
+    }
+
+    @Test
+    void inlinesDirectRepliesOfWholePageWithOneQuery() {
+        when(commentRepository.findDirectRepliesOfRoots(List.of(1L, 2L)))
+                .thenReturn(List.of(reply(10L, 1L), reply(11L, 1L)));
+        when(commentRepository.countByParentIdIn(List.of(10L, 11L)))
+                .thenReturn(List.<Object[]>of(new Object[] {11L, 2L}));
+
+        List<CommentDTO> comments = service.withDirectReplies(List.of(topLevel(1L), topLevel(2L)));
+
+        assertEquals(List.of(10L, 11L), comments.get(0).getReplies().stream().map(CommentDTO::getId).toList());
+        assertEquals(2L, comments.get(0).getReplies().get(1).getReplyCount());
+        // No replies stays null, as the inline list always was
+        assertNull(comments.get(1).getReplies());
+        verify(commentRepository, times(1)).findDirectRepliesOfRoots(anyCollection());
+    }
+
+    @Test
+    void returnsEveryReplyWhenNotPaging() {
+        when(commentRepository.findRepliesAfter(eq(1L), any(), any(), eq(Pageable.unpaged())))
+                .thenReturn(List.of(reply(10L, 1L), reply(11L, 1L), reply(12L, 1L)));
+
+        assertEquals(3, service.allReplies(1L).size());
+    }
+
+    private static Comment topLevel(Long id) {
+        Candidate author = new Candidate();
+        author.setId(100L + id);
+        Comment comment = new Comment();
+        comment.setId(id);
+        comment.setAuthor(author);
+        comment.setCreatedAt(NOW);
+        return comment;
+    }
+
+    private static CommentDTO reply(Long id, Long parentId) {
+        return new CommentDTO(id, "reply " + id, 7L, "Ada", "Lovelace", null, null, 5L, parentId, 0, NOW, NOW);
+    }
+}
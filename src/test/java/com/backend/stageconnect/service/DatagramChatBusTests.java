@@ -0,0 +1,107 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.model.ChatEnvelope;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Two buses on loopback, plus hand-made datagrams that must be dropped
+class DatagramChatBusTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<DatagramChatBus> buses = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        buses.forEach(DatagramChatBus::close);
+    }
+
+    @Test
+    void deliversSignedEnvelopeBetweenPeers() throws Exception {
+        int portA = freePort();
+        int portB = freePort();
+        DatagramChatBus a = bus("a", portA, portB, "secret");
+        DatagramChatBus b = bus("b", portB, portA, "secret");
+        BlockingQueue<ChatEnvelope> received = new ArrayBlockingQueue<>(1);
+        b.subscribe(received::add);
+
+        a.broadcast(new ChatEnvelope(ChatEnvelope.Kind.ONLINE, "a", 7L, null, null));
+
+        ChatEnvelope envelope = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(envelope);
+        assertEquals(7L, envelope.getUserId());
+        assertEquals(1L, b.getStats().get("received"));
+    }
+
+    @Test
+    void dropsDatagramFromUnknownSender() throws Exception {
+        int peerPort = freePort();
+        DatagramChatBus bus = bus("a", freePort(), peerPort, "secret");
+
+        assertNull(bus.decode(packet("{\"kind\":\"ONLINE\"}", new byte[32], peerPort + 1)));
+        assertEquals(1L, bus.getStats().get("unknownSender"));
+    }
+
+    @Test
+    void dropsDatagramWithBadSignature() throws Exception {
+        int peerPort = freePort();
+        DatagramChatBus bus = bus("a", freePort(), peerPort, "secret");
+
+        assertNull(bus.decode(packet("{\"kind\":\"ONLINE\",\"originNode\":\"b\",\"userId\":1}", new byte[32], peerPort)));
+        assertEquals(1L, bus.getStats().get("badSignature"));
+    }
+
+    @Test
+    void dropsTruncatedDatagram() throws Exception {
+        int peerPort = freePort();
+        DatagramChatBus bus = bus("a", freePort(), peerPort, "secret");
+
+        assertNull(bus.decode(packet("", new byte[8], peerPort)));
+        assertEquals(1L, bus.getStats().get("malformed"));
+    }
+
+    @Test
+    void refusesToStartWithoutSecret() {
+        assertThrows(IllegalStateException.class,
+                () -> new DatagramChatBus(objectMapper, "a", 0, List.of(), " "));
+    }
+
+    private DatagramChatBus bus(String nodeId, int port, int peerPort, String secret) throws IOException {
+        DatagramChatBus bus = new DatagramChatBus(objectMapper, nodeId, port, List.of("127.0.0.1:" + peerPort), secret);
+        bus.start();
+        buses.add(bus);
+        return bus;
+    }
+
+    private static DatagramPacket packet(String json, byte[] mac, int fromPort) {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        byte[] data = new byte[mac.length + body.length];
+        System.arraycopy(mac, 0, data, 0, mac.length);
+        System.arraycopy(body, 0, data, mac.length, body.length);
+        DatagramPacket packet = new DatagramPacket(data, data.length);
+        packet.setSocketAddress(new InetSocketAddress("127.0.0.1", fromPort));
+        return packet;
+    }
+
+    private static int freePort() throws IOException {
+        try (DatagramSocket socket = new DatagramSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.backend.stageconnect.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Page size limits and the cap on concurrent full listings, with JDBC replaced by a recorder
+class DirectoryServiceTests {
+
+    // Arguments of each paged query
+    private final List<Object[]> queries = new ArrayList<>();
+    private DirectoryService service;
+
+    @BeforeEach
+    void setUp() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+            @Override
+            public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+                queries.add(args);
+                return List.of();
+            }
+
+            @Override
+            public void query(PreparedStatementCreator psc, RowCallbackHandler rch) {
+            }
+        };
+        service = new DirectoryService(jdbcTemplate, new ObjectMapper());
+        ReflectionTestUtils.setField(service, "maxPageSize", 100);
+        ReflectionTestUtils.setField(service, "maxStreams", 2);
+        service.init();
+    }
+
+    @Test
+    void clampsPageSize() {
+        service.candidates(null, 10_000);
+        service.companies(null, 0);
+        service.candidates(null, -5);
+
+        // The queries fetch one row more than the page size
+        assertEquals(101, queries.get(0)[1]);
+        assertEquals(2, queries.get(1)[1]);
+        assertEquals(2, queries.get(2)[1]);
+    }
+
+    @Test
+    void refusesStreamsOverTheLimitUntilOneFinishes() throws Exception {
+        StreamingResponseBody first = service.candidateStream(true);
+        StreamingResponseBody second = service.companyStream(true);
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNull(service.candidateStream(false));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        first.writeTo(out);
+        assertEquals("", out.toString());
+
+        assertNotNull(service.companyStream(false));
+    }
+}
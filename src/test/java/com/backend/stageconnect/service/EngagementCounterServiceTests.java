@@ -0,0 +1,189 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.entity.Post;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Write-behind flushes and reconciliation, with JdbcTemplate mocked to record parameters and serve rows
+class EngagementCounterServiceTests {
+
+    // Parameters of each batched UPDATE, in statement order
+    private final List<long[]> updates = new ArrayList<>();
+    // Pages of reconcile rows: id, like_count, comment_count, actual likes, actual comments
+    private final List<List<long[]>> reconcilePages = new ArrayList<>();
+    private final List<Object[]> queryArgs = new ArrayList<>();
+    private Runnable onQuery = () -> {
+    };
+    private JdbcTemplate jdbcTemplate;
+    private EngagementCounterService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(this::recordUpdates);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenAnswer(this::servePage);
+        service = new EngagementCounterService(jdbcTemplate);
+    }
+
+    @Test
+    void flushesNetDeltaPerPostAsOneUpdate() {
+        service.addLikes(1L, 1);
+        service.addLikes(1L, 1);
+        service.addLikes(1L, -1);
+        service.addComments(1L, 2);
+        service.addComments(2L, 1);
+
+        service.flush();
+
+        updates.sort(Comparator.comparingLong(update -> update[2]));
+        assertEquals(2, updates.size());
+        // like delta, comment delta, post ID
+        assertArrayEquals(new long[] {1, 2, 1}, updates.get(0));
+        assertArrayEquals(new long[] {0, 1, 2}, updates.get(1));
+        assertEquals(5, service.getLikeCount(post(1L, 5)));
+    }
+
+    @Test
+    void skipsPostsWhoseDeltasCancelOut() {
+        service.addLikes(1L, 1);
+        service.addLikes(1L, -1);
+
+        service.flush();
+
+        assertTrue(updates.isEmpty());
+    }
+
+    @Test
+    void readsStoredCountPlusPendingDelta() {
+        service.addLikes(1L, 2);
+        service.addComments(1L, -3);
+
+        Post post = post(1L, 5);
+        service.applyPending(List.of(post));
+
+        assertEquals(7, post.getLikeCount());
+        assertEquals(0, post.getCommentCount());
+    }
+
+    @Test
+    void keepsDeltasWhenFlushFails() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("database is down"))
+                .thenAnswer(this::recordUpdates);
+        service.addLikes(1L, 2);
+
+        service.flush();
+        assertEquals(7, service.getLikeCount(post(1L, 5)));
+
+        service.flush();
+        assertEquals(1, updates.size());
+        assertArrayEquals(new long[] {2, 0, 1}, updates.get(0));
+    }
+
+    @Test
+    void repairsDriftedPostsPageByPage() {
+        reconcilePages.add(List.of(new long[] {1, 5, 0, 4, 0}, new long[] {2, 3, 3, 3, 3}));
+        reconcilePages.add(List.of(new long[] {7, 0, 0, 0, 1}));
+
+        service.reconcile();
+
+        assertEquals(3, queryArgs.size());
+        assertEquals(0L, queryArgs.get(0)[0]);
+        assertEquals(2L, queryArgs.get(1)[0]);
+        assertEquals(7L, queryArgs.get(2)[0]);
+        // stored like count, stored comment count, post ID
+        assertEquals(2, updates.size());
+        assertArrayEquals(new long[] {4, 0, 1}, updates.get(0));
+        assertArrayEquals(new long[] {0, 1, 7}, updates.get(1));
+    }
+
+    @Test
+    void leavesPostsWithDeltasInFlightForNextPass() {
+        reconcilePages.add(List.of(new long[] {1, 5, 0, 4, 0}));
+        // A like arrives after the pre-reconcile flush, so post 1's stored count is already out of date
+        onQuery = () -> {
+            if (queryArgs.size() == 1) {
+                service.addLikes(1L, 1);
+            }
+        };
+
+        service.reconcile();
+
+        assertTrue(updates.isEmpty());
+        assertEquals(6, service.getLikeCount(post(1L, 5)));
+    }
+
+    @Test
+    void propagatesReconcileQueryFailure() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+                .thenThrow(new DataAccessResourceFailureException("database is down"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> service.reconcile());
+    }
+
+    private static Post post(Long id, int likeCount) {
+        Post post = new Post();
+        post.setId(id);
+        post.setLikeCount(likeCount);
+        post.setCommentCount(0);
+        return post;
+    }
+
+    // Runs the statement setter of a batchUpdate against a mocked statement and keeps the parameters
+    private Object recordUpdates(InvocationOnMock invocation) throws SQLException {
+        ParameterizedPreparedStatementSetter<Object> setter = invocation.getArgument(3);
+        for (Object args : invocation.<Collection<?>>getArgument(1)) {
+            long[] values = new long[3];
+            PreparedStatement ps = mock(PreparedStatement.class);
+            doAnswer(set -> values[set.<Integer>getArgument(0) - 1] = set.<Long>getArgument(1))
+                    .when(ps).setLong(anyInt(), anyLong());
+            setter.setValues(ps, args);
+            updates.add(values);
+        }
+        return new int[0][];
+    }
+
+    // Maps the next reconcile page through the row mapper, one mocked result set per row
+    private List<Object> servePage(InvocationOnMock invocation) throws SQLException {
+        Object[] arguments = invocation.getArguments();
+        queryArgs.add(Arrays.copyOfRange(arguments, 2, arguments.length));
+        onQuery.run();
+        List<long[]> page = queryArgs.size() <= reconcilePages.size() ? reconcilePages.get(queryArgs.size() - 1) : List.of();
+        RowMapper<Object> rowMapper = invocation.getArgument(1);
+        List<Object> mapped = new ArrayList<>();
+        for (long[] row : page) {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getLong(anyInt())).thenAnswer(get -> row[get.<Integer>getArgument(0) - 1]);
+            mapped.add(rowMapper.mapRow(rs, mapped.size()));
+        }
+        return mapped;
+    }
+}
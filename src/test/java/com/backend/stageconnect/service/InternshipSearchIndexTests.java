@@ -0,0 +1,85 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.entity.Internship;
+import com.backend.stageconnect.repository.InternshipRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+// Text matching, facet filters and multi-select counts, over internships indexed by hand
+class InternshipSearchIndexTests {
+
+    private InternshipSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InternshipSearchIndex(mock(InternshipRepository.class));
+        index.index(internship(1L, "Backend Developer", "Engineering", "Casablanca", "Remote", "2026-01-01"));
+        index.index(internship(2L, "Frontend Developer", "Engineering", "Rabat", "On-site", "2026-01-03"));
+        index.index(internship(3L, "Marketing Assistant", "Marketing", "Casablanca", "On-site", "2026-01-02"));
+    }
+
+    @Test
+    void matchesEveryTermAndLastTermAsPrefix() {
+        assertEquals(List.of(2L, 1L), index.search("develop", Map.of(), 0, 10).getIds());
+        assertEquals(List.of(1L), index.search("backend dev", Map.of(), 0, 10).getIds());
+        assertTrue(index.search("backen developer", Map.of(), 0, 10).getIds().isEmpty());
+    }
+
+    @Test
+    void orsValuesWithinFacetAndAndsAcrossFacets() {
+        InternshipSearchIndex.SearchResult result = index.search(null,
+                Map.of("location", List.of("casablanca", "Rabat"), "workType", List.of("on-site")), 0, 10);
+
+        assertEquals(List.of(2L, 3L), result.getIds());
+        assertEquals(2, result.getTotal());
+    }
+
+    @Test
+    void countsFacetWithoutItsOwnFilter() {
+        InternshipSearchIndex.SearchResult result = index.search(null,
+                Map.of("location", List.of("Rabat"), "department", List.of("Engineering")), 0, 10);
+
+        assertEquals(List.of(new InternshipSearchIndex.FacetCount("Casablanca", 1),
+                new InternshipSearchIndex.FacetCount("Rabat", 1)), result.getFacets().get("location"));
+        assertEquals(List.of(new InternshipSearchIndex.FacetCount("Engineering", 1)), result.getFacets().get("department"));
+    }
+
+    @Test
+    void dropsOldValuesOnReindexAndRemove() {
+        Internship moved = internship(1L, "Backend Developer", "Engineering", "Tangier", "Remote", "2026-01-01");
+        index.index(moved);
+        index.remove(3L);
+
+        assertTrue(index.search(null, Map.of("location", List.of("Casablanca")), 0, 10).getIds().isEmpty());
+        assertEquals(List.of(1L), index.search(null, Map.of("location", List.of("Tangier")), 0, 10).getIds());
+        assertTrue(index.search("marketing", Map.of(), 0, 10).getIds().isEmpty());
+    }
+
+    @Test
+    void pagesNewestFirstAndReportsTotal() {
+        InternshipSearchIndex.SearchResult result = index.search(null, Map.of("status", List.of("active")), 1, 2);
+
+        assertEquals(List.of(1L), result.getIds());
+        assertEquals(3, result.getTotal());
+        assertEquals(List.of(2L, 3L), index.search(null, Map.of(), -1, 2).getIds());
+    }
+
+    private static Internship internship(Long id, String title, String department, String location,
+                                         String workType, String postedDate) {
+        Internship internship = new Internship();
+        internship.setId(id);
+        internship.setTitle(title);
+        internship.setDepartment(department);
+        internship.setLocation(location);
+        internship.setWorkType(workType);
+        internship.setPostedDate(postedDate);
+        return internship;
+    }
+}
@@ -0,0 +1,62 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.repository.PostLikeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Cached liked sets, local updates and expiry, with the like repository mocked
+class LikedPostResolverTests {
+
+    private PostLikeRepository repository;
+    private LikedPostResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(PostLikeRepository.class);
+        resolver = new LikedPostResolver(repository);
+        ReflectionTestUtils.setField(resolver, "cachedUsers", 10);
+        ReflectionTestUtils.setField(resolver, "cacheTtlMs", 60_000L);
+    }
+
+    @Test
+    void loadsLikedSetOncePerUser() {
+        when(repository.findPostIdsByUserIdOrderByPostId(1L)).thenReturn(List.of(2L, 4L));
+
+        assertEquals(Set.of(2L), resolver.likedAmong(1L, List.of(1L, 2L, 3L)));
+        assertEquals(Set.of(4L), resolver.likedAmong(1L, List.of(4L, 5L)));
+        verify(repository, times(1)).findPostIdsByUserIdOrderByPostId(1L);
+    }
+
+    @Test
+    void appliesLocalLikesAndUnlikesToCachedSet() {
+        when(repository.findPostIdsByUserIdOrderByPostId(1L)).thenReturn(List.of(2L));
+        resolver.likedAmong(1L, List.of(2L));
+
+        resolver.recordLike(1L, 3L);
+        resolver.recordUnlike(1L, 2L);
+
+        assertEquals(Set.of(3L), resolver.likedAmong(1L, List.of(2L, 3L)));
+        verify(repository, times(1)).findPostIdsByUserIdOrderByPostId(1L);
+    }
+
+    @Test
+    void reloadsExpiredSetToSeeLikesFromOtherNodes() {
+        ReflectionTestUtils.setField(resolver, "cacheTtlMs", 0L);
+        // Another node records the like after the first load, so this node's cache is never told
+        when(repository.findPostIdsByUserIdOrderByPostId(1L)).thenReturn(List.of(), List.of(2L));
+        resolver.likedAmong(1L, List.of(2L));
+
+        assertEquals(Set.of(2L), resolver.likedAmong(1L, List.of(2L)));
+        verify(repository, times(2)).findPostIdsByUserIdOrderByPostId(1L);
+    }
+}
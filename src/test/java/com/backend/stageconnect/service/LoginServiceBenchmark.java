@@ -0,0 +1,87 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.entity.Candidate;
+import com.backend.stageconnect.entity.User;
+import com.backend.stageconnect.repository.UserRepository;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Logins per second through LoginService with the default BCrypt strength, with the
+ * repository stubbed out so only the hashing pool is measured. The stub is a stub-only Mockito
+ * mock, so calls are not recorded. Not run by the build; start main() from the IDE or with
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.backend.stageconnect.service.LoginServiceBenchmark
+ * Arguments: client threads (default 64) and duration in seconds (default 10).
+ */
+public class LoginServiceBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+        User user = new Candidate();
+        user.setEmail("bench@example.com");
+        user.setPassword(encoder.encode("secret"));
+        UserRepository userRepository = mock(UserRepository.class, withSettings().stubOnly());
+        when(userRepository.findForLogin("bench@example.com")).thenReturn(Optional.of(user));
+
+        LoginService loginService = new LoginService(userRepository, encoder);
+        setField(loginService, "hashThreads", 0);
+        setField(loginService, "hashQueue", 64);
+        setField(loginService, "hashTimeoutMs", 5000L);
+        invoke(loginService, "startHashPool");
+
+        AtomicLong succeeded = new AtomicLong();
+        AtomicLong shed = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService clientPool = Executors.newFixedThreadPool(clients);
+        for (int i = 0; i < clients; i++) {
+            clientPool.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    try {
+                        if (loginService.authenticate("bench@example.com", "secret").isPresent()) {
+                            succeeded.incrementAndGet();
+                        }
+                    } catch (RejectedExecutionException e) {
+                        shed.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+        }
+        clientPool.shutdown();
+        clientPool.awaitTermination(seconds + 30L, TimeUnit.SECONDS);
+        invoke(loginService, "stopHashPool");
+
+        System.out.printf("%d clients, %d cores: %.1f logins/sec, %d shed with 503%n",
+                clients, Runtime.getRuntime().availableProcessors(),
+                succeeded.get() / (double) seconds, shed.get());
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+
+    private static void invoke(Object target, String name) {
+        Method method = ReflectionUtils.findMethod(target.getClass(), name);
+        ReflectionUtils.makeAccessible(method);
+        ReflectionUtils.invokeMethod(method, target);
+    }
+}
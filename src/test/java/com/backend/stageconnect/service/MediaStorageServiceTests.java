@@ -0,0 +1,125 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.repository.PostRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Chunked uploads, content-addressed dedup and releases, on a temporary directory
+class MediaStorageServiceTests {
+
+    private static final byte[] CONTENT = "not really a picture".getBytes(StandardCharsets.UTF_8);
+
+    private PostRepository postRepository;
+    private Path root;
+    private MediaStorageService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        root = Files.createTempDirectory("media-test");
+        FileStorageService fileStorageService = new FileStorageService();
+        ReflectionTestUtils.setField(fileStorageService, "uploadDir", root.resolve("uploads"));
+        ReflectionTestUtils.setField(fileStorageService, "incomingDir", Files.createDirectories(root.resolve("incoming")));
+        postRepository = mock(PostRepository.class);
+        service = new MediaStorageService(fileStorageService, postRepository);
+        ReflectionTestUtils.setField(service, "maxUploadSize", DataSize.ofMegabytes(1));
+        ReflectionTestUtils.setField(service, "sessionTtlHours", 24L);
+        ReflectionTestUtils.setField(service, "processingThreads", 1);
+        ReflectionTestUtils.setField(service, "processingQueue", 10);
+        service.startProcessingPool();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        service.stopProcessingPool();
+        FileSystemUtils.deleteRecursively(root);
+    }
+
+    @Test
+    void resumesChunkedUploadFromReceivedOffset() throws Exception {
+        MediaStorageService.UploadSession session = service.startUpload("photo.PNG", CONTENT.length, null);
+
+        service.appendChunk(session.getId(), 0, new ByteArrayInputStream(CONTENT, 0, 8));
+        assertThrows(IllegalStateException.class,
+                () -> service.appendChunk(session.getId(), 0, new ByteArrayInputStream(CONTENT, 0, 8)));
+        long offset = service.getUpload(session.getId()).getReceived();
+        assertEquals(8, offset);
+        service.appendChunk(session.getId(), offset, new ByteArrayInputStream(CONTENT, 8, CONTENT.length - 8));
+
+        String url = service.completeUpload(session.getId()).getUrl();
+        assertEquals("/uploads/posts/" + sha256(CONTENT) + ".png", url);
+        assertTrue(service.isStoredPostImage(url));
+        assertThrows(IllegalArgumentException.class, () -> service.getUpload(session.getId()));
+    }
+
+    @Test
+    void rejectsChunkPastDeclaredSize() throws Exception {
+        MediaStorageService.UploadSession session = service.startUpload("photo.png", 4, null);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.appendChunk(session.getId(), 0, new ByteArrayInputStream(CONTENT)));
+        assertEquals(0, service.getUpload(session.getId()).getReceived());
+    }
+
+    @Test
+    void storesIdenticalImagesOnce() throws Exception {
+        String first = service.storePostImage(multipart("a.jpg"));
+        String second = service.storePostImage(multipart("b.jpg"));
+
+        assertEquals(first, second);
+        MediaStorageService.UploadSession known = service.startUpload("c.jpg", CONTENT.length, sha256(CONTENT));
+        assertEquals(first, known.getUrl());
+        assertEquals(CONTENT.length, known.getReceived());
+    }
+
+    @Test
+    void keepsImageStillUsedByAnotherPost() throws Exception {
+        String url = service.storePostImage(multipart("a.jpg"));
+        ReflectionTestUtils.setField(service, "sessionTtlHours", 0L);
+        when(postRepository.existsByImageUrl(url)).thenReturn(true);
+
+        service.releasePostImage(url);
+
+        assertTrue(service.isStoredPostImage(url));
+    }
+
+    @Test
+    void defersReleaseOfRecentlyHandedOutImage() throws Exception {
+        // Another upload of the same image was just handed out and its post is not saved yet
+        String url = service.storePostImage(multipart("a.jpg"));
+
+        service.releasePostImage(url);
+        assertTrue(service.isStoredPostImage(url));
+
+        ReflectionTestUtils.setField(service, "sessionTtlHours", 0L);
+        service.releasePending();
+        assertFalse(service.isStoredPostImage(url));
+    }
+
+    private static MultipartFile multipart(String filename) {
+        return new MockMultipartFile("image", filename, null, CONTENT);
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+}
@@ -0,0 +1,184 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.entity.Candidate;
+import com.backend.stageconnect.entity.Post;
+import com.backend.stageconnect.entity.TimelineEntry;
+import com.backend.stageconnect.model.Cursor;
+import com.backend.stageconnect.model.CursorPage;
+import com.backend.stageconnect.repository.PostRepository;
+import com.backend.stageconnect.repository.TimelineEntryRepository;
+import com.backend.stageconnect.repository.TimelineOwnerRepository;
+import com.backend.stageconnect.repository.UserFollowingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Fan-out targets and cursor paging of the timeline, with repositories and JDBC mocked
+class TimelineServiceTests {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private TimelineEntryRepository timelineEntryRepository;
+    private TimelineOwnerRepository timelineOwnerRepository;
+    private UserFollowingRepository userFollowingRepository;
+    private PostRepository postRepository;
+    private JdbcTemplate jdbcTemplate;
+    private TimelineService service;
+
+    @BeforeEach
+    void setUp() {
+        timelineEntryRepository = mock(TimelineEntryRepository.class);
+        timelineOwnerRepository = mock(TimelineOwnerRepository.class);
+        userFollowingRepository = mock(UserFollowingRepository.class);
+        postRepository = mock(PostRepository.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        service = new TimelineService(timelineEntryRepository, timelineOwnerRepository, userFollowingRepository, postRepository, jdbcTemplate);
+        ReflectionTestUtils.setField(service, "maxEntries", 800);
+        ReflectionTestUtils.setField(service, "celebrityThreshold", 2L);
+        when(timelineOwnerRepository.existsById(anyLong())).thenReturn(true);
+        when(postRepository.findByIdIn(anyCollection())).thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0)
+                .stream().map(id -> post(id, 1L, NOW)).toList());
+    }
+
+    @Test
+    void fansOutToAuthorAndFollowers() {
+        when(userFollowingRepository.findFollowerIdsByFollowedId(1L)).thenReturn(List.of(5L, 6L));
+
+        service.fanOut(post(10L, 1L, NOW));
+
+        assertEquals(List.of(1L, 5L, 6L), fannedOutTo());
+    }
+
+    @Test
+    void skipsFollowersOfHighFanOutAuthor() {
+        when(userFollowingRepository.findIdsWithMoreFollowersThan(2L)).thenReturn(List.of(1L));
+        service.refreshHighFanOutAuthors();
+
+        service.fanOut(post(10L, 1L, NOW));
+
+        assertEquals(List.of(1L), fannedOutTo());
+    }
+
+    @Test
+    void pagesNewestFirstAndReturnsCursorOfLastItem() {
+        when(timelineEntryRepository.findFirstPage(eq(9L), any())).thenReturn(List.of(
+                entry(3L, NOW), entry(2L, NOW.minusMinutes(1)), entry(1L, NOW.minusMinutes(2))));
+
+        CursorPage<Post> page = service.readPage(9L, null, 2);
+
+        assertEquals(List.of(3L, 2L), ids(page));
+        assertTrue(page.isHasMore());
+        Cursor next = Cursor.decode(page.getNextCursor());
+        assertEquals(NOW.minusMinutes(1), next.getCreatedAt());
+        assertEquals(2L, next.getId());
+    }
+
+    @Test
+    void continuesAfterCursorPosition() {
+        when(timelineEntryRepository.findPageAfter(eq(9L), eq(NOW.minusMinutes(1)), eq(2L), any()))
+                .thenReturn(List.of(entry(1L, NOW.minusMinutes(2))));
+
+        CursorPage<Post> page = service.readPage(9L, new Cursor(NOW.minusMinutes(1), 2L), 2);
+
+        assertEquals(List.of(1L), ids(page));
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void mergesPostsOfHighFanOutAuthorsByTime() {
+        when(timelineEntryRepository.findFirstPage(eq(9L), any()))
+                .thenReturn(List.of(entry(3L, NOW), entry(1L, NOW.minusMinutes(2))));
+        when(userFollowingRepository.findIdsWithMoreFollowersThan(2L)).thenReturn(List.of(50L, 60L));
+        service.refreshHighFanOutAuthors();
+        when(userFollowingRepository.findFollowedIdsAmong(9L, Set.of(50L, 60L))).thenReturn(List.of(50L));
+        when(postRepository.findLatestByAuthorIds(eq(List.of(50L)), any()))
+                .thenReturn(List.of(post(2L, 50L, NOW.minusMinutes(1))));
+
+        CursorPage<Post> page = service.readPage(9L, null, 10);
+
+        assertEquals(List.of(3L, 2L, 1L), ids(page));
+    }
+
+    @Test
+    void countsNoFollowersWhenReading() {
+        when(userFollowingRepository.findIdsWithMoreFollowersThan(2L)).thenReturn(List.of(50L));
+        service.refreshHighFanOutAuthors();
+
+        service.readPage(9L, null, 10);
+        service.readPage(9L, null, 10);
+
+        // The high fan-out authors come from the last refresh, not from the reads
+        verify(userFollowingRepository, times(1)).findIdsWithMoreFollowersThan(anyLong());
+    }
+
+    @Test
+    void backfillsTimelineOnlyOnFirstRead() {
+        when(timelineOwnerRepository.existsById(9L)).thenReturn(false, true);
+        when(timelineOwnerRepository.markMaterialized(eq(9L), any())).thenReturn(1);
+
+        service.readPage(9L, null, 10);
+        service.readPage(9L, null, 10);
+
+        // The timeline stays empty, yet the second read does not rebuild it
+        verify(jdbcTemplate, times(1)).update(anyString(), eq(9L), eq(9L), eq(9L), eq(800));
+    }
+
+    @Test
+    void leavesBackfillToReaderThatMarkedTimeline() {
+        when(timelineOwnerRepository.existsById(9L)).thenReturn(false);
+        when(timelineOwnerRepository.markMaterialized(eq(9L), any())).thenReturn(0);
+
+        service.readPage(9L, null, 10);
+
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> fannedOutTo() {
+        ArgumentCaptor<Collection<Long>> ownerIds = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), ownerIds.capture(), anyInt(), any());
+        return List.copyOf(ownerIds.getValue());
+    }
+
+    private static List<Long> ids(CursorPage<Post> page) {
+        return page.getItems().stream().map(Post::getId).toList();
+    }
+
+    private static TimelineEntry entry(Long postId, LocalDateTime createdAt) {
+        return new TimelineEntry(null, 9L, postId, 1L, createdAt);
+    }
+
+    private static Post post(Long id, Long authorId, LocalDateTime createdAt) {
+        Candidate author = new Candidate();
+        author.setId(authorId);
+        Post post = new Post();
+        post.setId(id);
+        post.setAuthor(author);
+        post.setCreatedAt(createdAt);
+        return post;
+    }
+}
@@ -0,0 +1,156 @@
+package com.backend.stageconnect.service;
+
+import com.backend.stageconnect.model.ChatMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Typing frames in, start/stop transitions out, with the router replaced by a recorder
+class TypingCoalescerTests {
+
+    private final List<ChatMessage> sent = new CopyOnWriteArrayList<>();
+    private TypingCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        coalescer = coalescer(routerRecordingInto(), 5000, 0, 250);
+    }
+
+    @Test
+    void forwardsOneStartForRepeatedFrames() {
+        for (int i = 0; i < 10; i++) {
+            coalescer.onTyping(frame(1L, 2L, true));
+        }
+
+        assertEquals(1, sent.size());
+        assertEquals(true, sent.get(0).getTyping());
+        assertEquals(2L, sent.get(0).getReceiverId());
+        assertEquals(9L, coalescer.getStats().get("dropped"));
+    }
+
+    @Test
+    void forwardsStopAfterStart() {
+        coalescer.onTyping(frame(1L, 2L, true));
+        coalescer.onTyping(frame(1L, 2L, false));
+
+        assertEquals(2, sent.size());
+        assertEquals(false, sent.get(1).getTyping());
+    }
+
+    @Test
+    void dropsStopWithoutStart() {
+        coalescer.onTyping(frame(1L, 2L, false));
+
+        assertTrue(sent.isEmpty());
+    }
+
+    @Test
+    void defersStopUntilMinimumIntervalHasPassed() throws InterruptedException {
+        coalescer = coalescer(routerRecordingInto(), 5000, 50, 10);
+        coalescer.onTyping(frame(1L, 2L, true));
+        coalescer.onTyping(frame(1L, 2L, false));
+        assertEquals(1, sent.size());
+
+        Thread.sleep(60);
+        for (int i = 0; i < 10; i++) {
+            coalescer.tick();
+        }
+
+        assertEquals(2, sent.size());
+        assertEquals(false, sent.get(1).getTyping());
+    }
+
+    @Test
+    void stopsTypingWhenFramesStopArriving() throws InterruptedException {
+        coalescer = coalescer(routerRecordingInto(), 20, 0, 5);
+        coalescer.onTyping(frame(1L, 2L, true));
+
+        Thread.sleep(30);
+        for (int i = 0; i < 10; i++) {
+            coalescer.tick();
+        }
+
+        assertEquals(2, sent.size());
+        assertEquals(false, sent.get(1).getTyping());
+        assertEquals(1L, coalescer.getStats().get("expired"));
+        assertEquals(0, coalescer.getStats().get("activePairs"));
+    }
+
+    @Test
+    void everyStartIsFollowedByStopWhileTicking() throws InterruptedException {
+        // Frames arrive about when the previous typing state expires, racing its removal
+        coalescer = coalescer(routerRecordingInto(), 1, 0, 1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread ticker = new Thread(() -> {
+            while (running.get()) {
+                coalescer.tick();
+            }
+        });
+        ticker.start();
+        Random random = new Random(42);
+        long until = System.currentTimeMillis() + 500;
+        while (System.currentTimeMillis() < until) {
+            coalescer.onTyping(frame((long) random.nextInt(8), 100L, true));
+            long pause = System.nanoTime() + random.nextInt(2_000_000);
+            while (System.nanoTime() < pause) {
+                Thread.onSpinWait();
+            }
+        }
+        running.set(false);
+        ticker.join();
+
+        // Let the last typing states expire
+        Thread.sleep(20);
+        for (int i = 0; i < 200; i++) {
+            coalescer.tick();
+        }
+
+        // Per sender the receiver sees start, stop, start, stop, ... and ends on stop
+        Map<Long, Boolean> lastSeen = new HashMap<>();
+        for (ChatMessage message : sent) {
+            Boolean previous = lastSeen.put(message.getSenderId(), message.getTyping());
+            assertFalse(message.getTyping().equals(previous), "repeated transition for sender " + message.getSenderId());
+        }
+        assertFalse(lastSeen.isEmpty());
+        lastSeen.forEach((senderId, typing) -> assertEquals(false, typing, "sender " + senderId));
+        assertEquals(0, coalescer.getStats().get("activePairs"));
+    }
+
+    private ChatRouter routerRecordingInto() {
+        return new ChatRouter(null, null) {
+            @Override
+            public void sendToUser(Long userId, ChatMessage message) {
+                sent.add(message);
+            }
+        };
+    }
+
+    private static TypingCoalescer coalescer(ChatRouter router, long ttlMs, long minIntervalMs, long tickMs) {
+        TypingCoalescer coalescer = new TypingCoalescer(router);
+        ReflectionTestUtils.setField(coalescer, "ttlMs", ttlMs);
+        ReflectionTestUtils.setField(coalescer, "minIntervalMs", minIntervalMs);
+        ReflectionTestUtils.setField(coalescer, "tickMs", tickMs);
+        return coalescer;
+    }
+
+    private static ChatMessage frame(Long senderId, Long receiverId, boolean typing) {
+        ChatMessage frame = new ChatMessage();
+        frame.setType(ChatMessage.MessageType.TYPING);
+        frame.setSenderId(senderId);
+        frame.setReceiverId(receiverId);
+        frame.setConversationId(senderId + "_" + receiverId);
+        frame.setTyping(typing);
+        return frame;
+    }
+}